@@ -0,0 +1,168 @@
+package com.medsyncpro.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator for comparing platform-thread and virtual-thread request
+ * execution. N concurrent clients each send requests back-to-back for the measured period
+ * (after a warmup) and the run reports throughput and latency percentiles.
+ *
+ * Start the app once per mode and point the harness at it, e.g.:
+ *
+ *   VIRTUAL_THREADS_ENABLED=false mvn spring-boot:run
+ *   mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.medsyncpro.benchmark.HttpLoadHarness \
+ *       -Dexec.args="--label=platform --url=http://localhost:8080/api/doctors/search?q=card --concurrency=400"
+ *
+ *   VIRTUAL_THREADS_ENABLED=true mvn spring-boot:run
+ *   ... same command with --label=virtual
+ *
+ * Options: --url (repeatable, round-robin), --concurrency (default 200), --duration (seconds, 60),
+ * --warmup (seconds, 15), --timeout (seconds, 30), --cookie (sent as Cookie header, e.g. an
+ * accessToken=... cookie for authenticated endpoints), --body (JSON; switches requests to POST),
+ * --label.
+ * Pick endpoints that hit the database and a slow dependency to see the difference between modes.
+ *
+ * Chat send throughput (messages/sec per node) — one conversation, or several --url values to
+ * spread the load across conversations:
+ *
+ *   ... -Dexec.args="--label=send --concurrency=100 --cookie=access_token=<jwt> \
+ *       --url=http://localhost:8080/api/messaging/conversations/<id>/messages \
+ *       --body={\"content\":\"load test\"}"
+ */
+public class HttpLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        List<URI> urls = new ArrayList<>();
+        int concurrency = 200;
+        int durationSeconds = 60;
+        int warmupSeconds = 15;
+        int timeoutSeconds = 30;
+        String cookie = null;
+        String body = null;
+        String label = "run";
+
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "--url" -> urls.add(URI.create(value));
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--duration" -> durationSeconds = Integer.parseInt(value);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "--timeout" -> timeoutSeconds = Integer.parseInt(value);
+                case "--cookie" -> cookie = value;
+                case "--body" -> body = value;
+                case "--label" -> label = value;
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one --url is required");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        List<HttpRequest> requests = new ArrayList<>();
+        for (URI url : urls) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(url)
+                    .timeout(Duration.ofSeconds(timeoutSeconds));
+            if (body != null) {
+                builder.header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+            } else {
+                builder.GET();
+            }
+            if (cookie != null) {
+                builder.header("Cookie", cookie);
+            }
+            requests.add(builder.build());
+        }
+
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(durationSeconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+
+        List<Future<long[]>> workers = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                int offset = w;
+                workers.add(pool.submit(() -> runClient(client, requests, offset, warmupEnd, end, errors)));
+            }
+        }
+
+        int total = 0;
+        for (Future<long[]> worker : workers) {
+            total += worker.get().length;
+        }
+        long[] latencies = new long[total];
+        int pos = 0;
+        for (Future<long[]> worker : workers) {
+            long[] part = worker.get();
+            System.arraycopy(part, 0, latencies, pos, part.length);
+            pos += part.length;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("%s: concurrency=%d duration=%ds requests=%d errors=%d throughput=%.1f req/s%n",
+                label, concurrency, durationSeconds, latencies.length, errors.get(),
+                latencies.length / (double) durationSeconds);
+        System.out.printf("%s: latency ms p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                label, percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    // Returns latencies (ns) of successful requests completed after warmup
+    private static long[] runClient(HttpClient client, List<HttpRequest> requests, int offset,
+            long warmupEnd, long end, AtomicLong errors) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        int next = offset;
+        while (System.nanoTime() < end) {
+            HttpRequest request = requests.get(next++ % requests.size());
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (start < warmupEnd) {
+                continue;
+            }
+            if (!ok) {
+                errors.incrementAndGet();
+                continue;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = elapsed;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
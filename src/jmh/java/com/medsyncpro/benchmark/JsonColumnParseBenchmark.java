@@ -0,0 +1,88 @@
+package com.medsyncpro.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medsyncpro.utils.JsonColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse cost of the JSON TEXT columns read on settings, slot and prescription paths.
+ *
+ * newMapperPerCall   — previous behaviour of services that built an ObjectMapper per call/instance
+ *                      and parsed with a fresh anonymous TypeReference
+ * sharedMapper       — one ObjectMapper, still a fresh TypeReference per call
+ * jsonColumns        — shared mapper with pre-built ObjectReaders (JsonColumns)
+ *
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=JsonColumnParseBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonColumnParseBenchmark {
+
+    private static final String STRING_LIST = "[\"English\",\"Hindi\",\"Marathi\",\"Cardiac Surgery\"]";
+
+    private static final String BOOLEAN_MAP = "{\"profileVisible\":true,\"allowReviews\":true,"
+            + "\"showContact\":false,\"dataSharing\":false}";
+
+    private static final String OBJECT_LIST = "[{\"name\":\"Metformin\",\"dosage\":\"500mg\",\"frequency\":\"BD\","
+            + "\"duration\":\"30 days\"},{\"name\":\"Atorvastatin\",\"dosage\":\"10mg\",\"frequency\":\"OD\","
+            + "\"duration\":\"30 days\"}]";
+
+    private static final String WEEKLY_SCHEDULE = "{"
+            + "\"Monday\":{\"enabled\":true,\"slots\":[{\"start\":\"09:00\",\"end\":\"13:00\"},{\"start\":\"14:00\",\"end\":\"18:00\"}]},"
+            + "\"Tuesday\":{\"enabled\":true,\"slots\":[{\"start\":\"09:00\",\"end\":\"13:00\"},{\"start\":\"14:00\",\"end\":\"18:00\"}]},"
+            + "\"Wednesday\":{\"enabled\":true,\"slots\":[{\"start\":\"09:00\",\"end\":\"13:00\"},{\"start\":\"14:00\",\"end\":\"18:00\"}]},"
+            + "\"Thursday\":{\"enabled\":true,\"slots\":[{\"start\":\"09:00\",\"end\":\"13:00\"},{\"start\":\"14:00\",\"end\":\"18:00\"}]},"
+            + "\"Friday\":{\"enabled\":true,\"slots\":[{\"start\":\"09:00\",\"end\":\"13:00\"},{\"start\":\"14:00\",\"end\":\"18:00\"}]},"
+            + "\"Saturday\":{\"enabled\":true,\"slots\":[{\"start\":\"10:00\",\"end\":\"14:00\"}]},"
+            + "\"Sunday\":{\"enabled\":false,\"slots\":[]}}";
+
+    @Param({ "stringList", "booleanMap", "objectList", "weeklySchedule" })
+    public String shape;
+
+    private ObjectMapper sharedMapper;
+    private JsonColumns jsonColumns;
+
+    @Setup
+    public void setup() {
+        sharedMapper = new ObjectMapper();
+        jsonColumns = new JsonColumns();
+    }
+
+    @Benchmark
+    public Object newMapperPerCall() throws Exception {
+        return parseWithTypeReference(new ObjectMapper());
+    }
+
+    @Benchmark
+    public Object sharedMapper() throws Exception {
+        return parseWithTypeReference(sharedMapper);
+    }
+
+    @Benchmark
+    public Object jsonColumns() throws Exception {
+        return switch (shape) {
+            case "stringList" -> jsonColumns.readStringList(STRING_LIST);
+            case "booleanMap" -> jsonColumns.readBooleanMap(BOOLEAN_MAP);
+            case "objectList" -> jsonColumns.readObjectList(OBJECT_LIST);
+            default -> jsonColumns.readObjectMap(WEEKLY_SCHEDULE);
+        };
+    }
+
+    private Object parseWithTypeReference(ObjectMapper mapper) throws Exception {
+        return switch (shape) {
+            case "stringList" -> mapper.readValue(STRING_LIST, new TypeReference<List<String>>() {});
+            case "booleanMap" -> mapper.readValue(BOOLEAN_MAP, new TypeReference<Map<String, Boolean>>() {});
+            case "objectList" -> mapper.readValue(OBJECT_LIST, new TypeReference<List<Map<String, Object>>>() {});
+            default -> mapper.readValue(WEEKLY_SCHEDULE, new TypeReference<Map<String, Object>>() {});
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.medsyncpro.benchmark;
+
+import com.medsyncpro.entity.Role;
+import com.medsyncpro.entity.User;
+import com.medsyncpro.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token parse cost on the JwtAuthenticationFilter path.
+ *
+ * rebuildKeyAndParser — previous JwtService behaviour (new SecretKey + JwtParser per call)
+ * sharedParser        — key and parser built once, full HMAC verify + JSON parse per call
+ * jwtServiceCached    — JwtService.extractClaims with the verified-claims LRU (repeat cookie)
+ *
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=JwtParseBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtService jwtService;
+    private JwtParser sharedParser;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessExpiration", 900000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedClaimsCacheSize", 10000);
+        jwtService.init();
+
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email("bench@medsyncpro.com")
+                .password("x")
+                .role(Role.PATIENT)
+                .build();
+        token = jwtService.generateAccessToken(user, "JMH | IP: 127.0.0.1");
+
+        sharedParser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build();
+    }
+
+    @Benchmark
+    public Claims rebuildKeyAndParser() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return sharedParser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims jwtServiceCached() {
+        return jwtService.extractClaims(token);
+    }
+}
@@ -1,9 +1,160 @@
 package com.medsyncpro.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named, bounded executors for @Async work, one per kind of side effect so a slow mail
+ * provider can't starve in-app notifications:
+ *
+ *   emailExecutor        — EmailService
+ *   pushExecutor         — FirebasePushService
+ *   notificationExecutor — appointment / medication event listeners (also the default)
+ *   verificationExecutor — verification and signup event handlers
+ *   outboxRelayExecutor  — NotificationOutboxRelay drain passes (one thread, discards extra wakes)
+ *
+ * Each pool is sized by {@code async.executors.<name>.*} and rejects with
+ * {@code async.executors.<name>.rejection-policy} (caller-runs, abort, discard, discard-oldest;
+ * default {@code async.rejection-policy}, except the outbox relay which defaults to discard:
+ * running a relay pass on the committing request thread would put delivery back inline, and
+ * the relay's poll picks up anything a dropped wake missed). With {@code async.virtual-threads=true} the pool
+ * threads are virtual; sizes still bound how many tasks run at once.
+ *
+ * Metrics (tag {@code name}): executor.* pool and queue gauges, executor.rejected,
+ * executor.task.wait (queued time) and executor.task.duration.
+ */
 @Configuration
 @EnableAsync
-public class AsyncConfig {
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public AsyncConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor emailExecutor() {
+        return buildExecutor("email", 2, 8, 500);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor pushExecutor() {
+        return buildExecutor("push", 2, 8, 1000);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor notificationExecutor() {
+        return buildExecutor("notification", 4, 16, 2000);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor verificationExecutor() {
+        return buildExecutor("verification", 1, 4, 200);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor outboxRelayExecutor() {
+        return buildExecutor("outbox-relay", 1, 1, 1, "discard");
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return notificationExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> log.error("Async {}.{} failed: {}",
+                method.getDeclaringClass().getSimpleName(), method.getName(), ex.getMessage(), ex);
+    }
+
+    private ThreadPoolTaskExecutor buildExecutor(String name, int coreSize, int maxSize, int queueCapacity) {
+        return buildExecutor(name, coreSize, maxSize, queueCapacity,
+                environment.getProperty("async.rejection-policy", "caller-runs"));
+    }
+
+    private ThreadPoolTaskExecutor buildExecutor(String name, int coreSize, int maxSize, int queueCapacity,
+            String defaultPolicy) {
+        String prefix = "async.executors." + name + ".";
+        Tags tags = Tags.of("name", name);
+
+        // Pool gauges are bound when Spring initializes the bean and the ThreadPoolExecutor exists
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
+            @Override
+            protected ExecutorService initializeExecutor(ThreadFactory threadFactory,
+                    RejectedExecutionHandler rejectedExecutionHandler) {
+                ExecutorService service = super.initializeExecutor(threadFactory, rejectedExecutionHandler);
+                new ExecutorServiceMetrics(service, name, tags).bindTo(meterRegistry);
+                return service;
+            }
+        };
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(environment.getProperty(prefix + "core-size", Integer.class, coreSize));
+        executor.setMaxPoolSize(environment.getProperty(prefix + "max-size", Integer.class, maxSize));
+        executor.setQueueCapacity(environment.getProperty(prefix + "queue-capacity", Integer.class, queueCapacity));
+        executor.setKeepAliveSeconds(environment.getProperty(prefix + "keep-alive-seconds", Integer.class, 60));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(environment.getProperty(prefix + "await-termination-seconds", Integer.class, 30));
+        if (environment.getProperty("async.virtual-threads", Boolean.class, false)) {
+            executor.setThreadFactory(Thread.ofVirtual().name(name + "-", 0).factory());
+        }
+
+        String policy = environment.getProperty(prefix + "rejection-policy", defaultPolicy);
+        executor.setRejectedExecutionHandler(countingRejections(name, policy, tags));
+
+        Timer wait = meterRegistry.timer("executor.task.wait", tags);
+        Timer duration = meterRegistry.timer("executor.task.duration", tags);
+        executor.setTaskDecorator(task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                long started = System.nanoTime();
+                wait.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+        return executor;
+    }
+
+    private RejectedExecutionHandler countingRejections(String name, String policy, Tags tags) {
+        RejectedExecutionHandler delegate = switch (policy.trim().toLowerCase()) {
+            case "abort" -> new ThreadPoolExecutor.AbortPolicy();
+            case "discard" -> new ThreadPoolExecutor.DiscardPolicy();
+            case "discard-oldest" -> new ThreadPoolExecutor.DiscardOldestPolicy();
+            case "caller-runs" -> new ThreadPoolExecutor.CallerRunsPolicy();
+            default -> throw new IllegalArgumentException(
+                    "Unknown rejection policy '" + policy + "' for async executor " + name);
+        };
+        Counter rejected = meterRegistry.counter("executor.rejected", tags.and("policy", policy));
+        return (task, pool) -> {
+            rejected.increment();
+            log.warn("Async executor {} saturated (queue {}), applying {}", name, pool.getQueue().size(), policy);
+            delegate.rejectedExecution(task, pool);
+        };
+    }
 }
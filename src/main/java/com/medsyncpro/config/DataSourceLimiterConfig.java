@@ -0,0 +1,44 @@
+package com.medsyncpro.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a {@link ConcurrencyLimitedDataSource} when
+ * {@code db.concurrency-limit.enabled=true} (on by default in virtual-thread mode).
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.concurrency-limit.enabled", havingValue = "true")
+@Slf4j
+public class DataSourceLimiterConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                int maxConcurrent = environment.getProperty("db.concurrency-limit.max-concurrent", Integer.class,
+                        environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                int maxWaiting = environment.getProperty("db.concurrency-limit.max-waiting", Integer.class, 200);
+                long timeoutMillis = environment.getProperty("db.concurrency-limit.acquire-timeout-ms", Long.class, 5000L);
+                log.info("Limiting DataSource '{}' to {} concurrent connections ({} waiting, {}ms timeout)",
+                        beanName, maxConcurrent, maxWaiting, timeoutMillis);
+                return new ConcurrencyLimitedDataSource(dataSource, maxConcurrent, maxWaiting, timeoutMillis,
+                        meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+            }
+        };
+    }
+}
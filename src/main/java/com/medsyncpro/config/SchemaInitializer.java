@@ -0,0 +1,259 @@
+package com.medsyncpro.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Postgres-specific schema objects that ddl-auto=update can't create
+ * (extensions, generated columns, GIN indexes, exclusion constraints). Every statement is idempotent
+ * and runs after Hibernate has created/updated the tables. It runs once all singletons exist but before
+ * the context refresh completes, so before the web server, the schedulers, ApplicationReadyEvent
+ * listeners and DataInitializer; nothing can write with ON CONFLICT against an index that isn't there yet.
+ *
+ * DATA_MIGRATIONS are one-shot data fixes, recorded in schema_data_migrations and applied once per database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaInitializer implements SmartInitializingSingleton {
+
+    private static final String OVERLAP_CONSTRAINT = "ex_appt_doctor_no_overlap";
+
+    // Active appointments only; cancelled/rejected ones free their slot
+    private static final String ACTIVE_APPOINTMENT = "%1$sdeleted = false AND %1$sstatus NOT IN ('CANCELLED', 'REJECTED')";
+
+    // Booked interval: a missing end_time counts as one minute, an end_time at/before the start
+    // time is taken to run past midnight
+    private static final String APPOINTMENT_RANGE = """
+            tsrange(
+                %1$sscheduled_date + %1$sscheduled_time,
+                CASE
+                    WHEN %1$send_time IS NULL THEN %1$sscheduled_date + %1$sscheduled_time + interval '1 minute'
+                    WHEN %1$send_time > %1$sscheduled_time THEN %1$sscheduled_date + %1$send_time
+                    ELSE (%1$sscheduled_date + 1) + %1$send_time
+                END,
+                '[)')""";
+
+    // Active appointments of one doctor may not overlap
+    private static final String ADD_OVERLAP_CONSTRAINT_SQL = """
+            ALTER TABLE appointments ADD CONSTRAINT %s EXCLUDE USING gist (
+                doctor_id WITH =,
+                %s WITH &&
+            ) WHERE (%s)
+            """.formatted(OVERLAP_CONSTRAINT, APPOINTMENT_RANGE.formatted(""), ACTIVE_APPOINTMENT.formatted(""));
+
+    private static final String FIND_OVERLAPS_SQL = """
+            SELECT a.doctor_id, a.id AS first_id, b.id AS second_id, a.scheduled_date, a.scheduled_time
+            FROM appointments a
+            JOIN appointments b ON b.doctor_id = a.doctor_id AND b.id > a.id
+            WHERE %s AND %s AND %s && %s
+            ORDER BY a.doctor_id, a.scheduled_date, a.scheduled_time
+            LIMIT 50
+            """.formatted(ACTIVE_APPOINTMENT.formatted("a."), ACTIVE_APPOINTMENT.formatted("b."),
+            APPOINTMENT_RANGE.formatted("a."), APPOINTMENT_RANGE.formatted("b."));
+
+    private record DataMigration(String name, List<String> statements) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final List<String> STATEMENTS = List.of(
+            // ── Doctor full-text search ──
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            """
+            ALTER TABLE doctor_search_documents
+            ADD COLUMN IF NOT EXISTS search_vector tsvector
+            GENERATED ALWAYS AS (to_tsvector('simple', coalesce(search_text, ''))) STORED
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_dsd_search_vector ON doctor_search_documents USING gin (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_dsd_search_text_trgm ON doctor_search_documents USING gin (search_text gin_trgm_ops)",
+
+            // ── Appointment double-booking guard (constraint itself: installAppointmentOverlapGuard) ──
+            "CREATE EXTENSION IF NOT EXISTS btree_gist",
+
+            // ── Medication dose logs ──
+            // Superseded by idx_med_dose_status_scheduled_at / idx_med_dose_status_snoozed_until
+            "DROP INDEX IF EXISTS idx_med_dose_status",
+
+            // ── Chat messages ──
+            // Superseded by idx_chat_conv_created_id (same leading column)
+            "DROP INDEX IF EXISTS idx_chat_conv",
+
+            // ── Conversations ──
+            // The inbox is keyset-paginated on last_message_at, which is now set at creation
+            "UPDATE conversations SET last_message_at = created_at WHERE last_message_at IS NULL",
+
+            // ── One-shot data migrations ──
+            """
+            CREATE TABLE IF NOT EXISTS schema_data_migrations (
+                name varchar(100) PRIMARY KEY,
+                applied_at timestamp NOT NULL DEFAULT now())
+            """
+    );
+
+    private static final List<DataMigration> DATA_MIGRATIONS = List.of(
+            // Copy privacy_settings.profileVisible into its column. Rows whose JSON doesn't parse
+            // (or holds a non-boolean) stay visible, the same default the settings reader applies.
+            new DataMigration("doctor-settings-profile-visible", List.of(
+                    """
+                    DO $$
+                    DECLARE r record;
+                    BEGIN
+                        FOR r IN SELECT id, privacy_settings FROM doctor_settings
+                                 WHERE privacy_settings LIKE '%profileVisible%' LOOP
+                            BEGIN
+                                UPDATE doctor_settings
+                                SET profile_visible = COALESCE(
+                                    CAST(CAST(r.privacy_settings AS jsonb) ->> 'profileVisible' AS boolean), true)
+                                WHERE id = r.id;
+                            EXCEPTION WHEN others THEN
+                                NULL;
+                            END;
+                        END LOOP;
+                    END $$
+                    """)),
+
+            // Rebuild the adherence rollup from the dose logs. Writers apply increments in the same
+            // transaction as the dose change, so the EXCLUSIVE lock waits for writers that already
+            // touched the rollup and holds back new ones: every dose is counted exactly once, whether
+            // its change commits before the rebuild (counted here) or after it (its own increment).
+            new DataMigration("adherence-rollup-rebuild", List.of(
+                    "LOCK TABLE medication_adherence_daily IN EXCLUSIVE MODE",
+                    "DELETE FROM medication_adherence_daily",
+                    """
+                    INSERT INTO medication_adherence_daily (id, patient_id, dose_date, taken, missed, pending)
+                    SELECT gen_random_uuid(), d.patient_id, CAST(d.scheduled_at AS date),
+                           count(*) FILTER (WHERE d.status = 'TAKEN'),
+                           count(*) FILTER (WHERE d.status = 'MISSED'),
+                           count(*) FILTER (WHERE d.status IN ('PENDING', 'SNOOZED'))
+                    FROM medication_dose_logs d
+                    WHERE d.deleted = false
+                    GROUP BY d.patient_id, CAST(d.scheduled_at AS date)
+                    """)),
+
+            // One slot per schedule and minute. Duplicates come from a rebuild racing the backfill
+            // and carry the same day mask, so any one of them can stay.
+            new DataMigration("reminder-slots-unique", List.of(
+                    "LOCK TABLE medication_reminder_slots IN SHARE ROW EXCLUSIVE MODE",
+                    """
+                    DELETE FROM medication_reminder_slots s
+                    USING (SELECT id, row_number() OVER (PARTITION BY schedule_id, minute_of_day ORDER BY id) AS rn
+                           FROM medication_reminder_slots) r
+                    WHERE s.id = r.id AND r.rn > 1
+                    """,
+                    """
+                    CREATE UNIQUE INDEX IF NOT EXISTS uk_med_slot_schedule_minute
+                    ON medication_reminder_slots (schedule_id, minute_of_day)
+                    """)),
+
+            // One live dose per schedule and time. Of each duplicate group the most advanced dose
+            // (taken, missed, snoozed, then reminded) stays; the others are soft-deleted and taken
+            // off the rollup, which runs after adherence-rollup-rebuild so the counts line up.
+            new DataMigration("dose-logs-unique-schedule-time", List.of(
+                    "LOCK TABLE medication_dose_logs IN SHARE ROW EXCLUSIVE MODE",
+                    """
+                    WITH ranked AS (
+                        SELECT id, row_number() OVER (
+                            PARTITION BY schedule_id, scheduled_at
+                            ORDER BY CASE status WHEN 'TAKEN' THEN 0 WHEN 'MISSED' THEN 1 WHEN 'SNOOZED' THEN 2 ELSE 3 END,
+                                     reminder_sent DESC, created_at, id) AS rn
+                        FROM medication_dose_logs
+                        WHERE deleted = false
+                    ), removed AS (
+                        UPDATE medication_dose_logs d
+                        SET deleted = true, updated_at = now(), version = d.version + 1
+                        FROM ranked r
+                        WHERE d.id = r.id AND r.rn > 1
+                        RETURNING d.patient_id, CAST(d.scheduled_at AS date) AS dose_date, d.status
+                    )
+                    UPDATE medication_adherence_daily a
+                    SET taken = a.taken - c.taken, missed = a.missed - c.missed, pending = a.pending - c.pending
+                    FROM (SELECT patient_id, dose_date,
+                                 count(*) FILTER (WHERE status = 'TAKEN') AS taken,
+                                 count(*) FILTER (WHERE status = 'MISSED') AS missed,
+                                 count(*) FILTER (WHERE status IN ('PENDING', 'SNOOZED')) AS pending
+                          FROM removed
+                          GROUP BY patient_id, dose_date) c
+                    WHERE a.patient_id = c.patient_id AND a.dose_date = c.dose_date
+                    """,
+                    """
+                    CREATE UNIQUE INDEX IF NOT EXISTS uk_med_dose_schedule_time
+                    ON medication_dose_logs (schedule_id, scheduled_at) WHERE deleted = false
+                    """))
+    );
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String sql : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (Exception e) {
+                // Keep booting: features depending on the object fall back or fail loudly on use
+                log.error("Schema statement failed: {} — {}", sql.strip().lines().findFirst().orElse(sql), e.getMessage());
+            }
+        }
+        installAppointmentOverlapGuard();
+        DATA_MIGRATIONS.forEach(this::applyOnce);
+        log.info("Schema initialization complete ({} statements)", STATEMENTS.size());
+    }
+
+    /**
+     * The exclusion constraint is the double-booking backstop, so startup fails if it can't be
+     * installed. Appointments stored before it existed may already overlap (ADD CONSTRAINT
+     * would reject them); those are reported so they can be cancelled or rescheduled by hand.
+     */
+    private void installAppointmentOverlapGuard() {
+        if (constraintExists(OVERLAP_CONSTRAINT)) {
+            return;
+        }
+        List<String> overlaps = jdbcTemplate.query(FIND_OVERLAPS_SQL, (rs, rowNum) ->
+                "doctor %s on %s %s: appointments %s and %s".formatted(
+                        rs.getObject("doctor_id"), rs.getDate("scheduled_date"), rs.getTime("scheduled_time"),
+                        rs.getObject("first_id"), rs.getObject("second_id")));
+        if (!overlaps.isEmpty()) {
+            overlaps.forEach(overlap -> log.error("Overlapping active appointments — {}", overlap));
+            throw new IllegalStateException("Cannot install " + OVERLAP_CONSTRAINT + ": " + overlaps.size()
+                    + (overlaps.size() == 50 ? "+" : "") + " pairs of active appointments overlap (logged above). "
+                    + "Cancel or reschedule them, then restart.");
+        }
+        try {
+            jdbcTemplate.execute(ADD_OVERLAP_CONSTRAINT_SQL);
+            log.info("Installed appointment overlap constraint {}", OVERLAP_CONSTRAINT);
+        } catch (Exception e) {
+            // Another instance may have installed it first; anything else leaves bookings unguarded
+            if (!constraintExists(OVERLAP_CONSTRAINT)) {
+                throw new IllegalStateException("Cannot install " + OVERLAP_CONSTRAINT + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean constraintExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, name));
+    }
+
+    /**
+     * Claim the migration's marker and run it in the same transaction. An instance starting
+     * concurrently blocks on the marker's key until this one commits, then skips. Failures
+     * abort startup: these fix data that the application reads as authoritative.
+     */
+    private void applyOnce(DataMigration migration) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int claimed = jdbcTemplate.update(
+                    "INSERT INTO schema_data_migrations (name) VALUES (?) ON CONFLICT (name) DO NOTHING",
+                    migration.name());
+            if (claimed == 0) {
+                return;
+            }
+            migration.statements().forEach(jdbcTemplate::execute);
+            log.info("Data migration '{}' applied", migration.name());
+        });
+    }
+}
@@ -2,16 +2,15 @@ package com.medsyncpro.controller;
 
 import com.medsyncpro.dto.request.PharmacyRequestStatusUpdateRequest;
 import com.medsyncpro.dto.response.PharmacyMedicineRequestResponse;
+import com.medsyncpro.filter.AuthenticatedUser;
 import com.medsyncpro.response.ApiResponse;
 import com.medsyncpro.service.PharmacyWorkflowService;
-import com.medsyncpro.utils.Utils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
@@ -23,14 +22,13 @@ import java.util.UUID;
 public class AgentWorkflowController {
 
     private final PharmacyWorkflowService pharmacyWorkflowService;
-    private final Utils utils;
 
     @GetMapping
     public ResponseEntity<ApiResponse<Page<PharmacyMedicineRequestResponse>>> getAssignedRequests(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 pharmacyWorkflowService.getAgentRequests(userId, PageRequest.of(page, Math.min(size, 100))),
                 "Assigned delivery requests fetched"));
@@ -38,10 +36,10 @@ public class AgentWorkflowController {
 
     @PatchMapping("/{id}/status")
     public ResponseEntity<ApiResponse<PharmacyMedicineRequestResponse>> updateDeliveryStatus(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id,
             @Valid @RequestBody PharmacyRequestStatusUpdateRequest request) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 pharmacyWorkflowService.updateAgentRequestStatus(userId, id, request),
                 "Delivery status updated"));
@@ -8,7 +8,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import com.medsyncpro.dto.request.DoctorDocumentUploadRequest;
@@ -20,8 +19,7 @@ import com.medsyncpro.dto.response.RequiredDocumentItem;
 import com.medsyncpro.dto.response.SignatureResponseDTO;
 import com.medsyncpro.dto.response.VerificationStatusResponse;
 import com.medsyncpro.entity.DocumentType;
-import com.medsyncpro.entity.User;
-import com.medsyncpro.repository.UserRepository;
+import com.medsyncpro.filter.AuthenticatedUser;
 import com.medsyncpro.response.ApiResponse;
 import com.medsyncpro.service.DoctorService;
 
@@ -33,52 +31,48 @@ import lombok.RequiredArgsConstructor;
 @PreAuthorize("hasRole('DOCTOR')")
 public class DoctorController {
 
-    private final UserRepository userRepository;
     private final DoctorService doctorService;
 
     // ─── Profile ─────────────────────────────────────────────────────────────
 
     @GetMapping("/profile")
     public ResponseEntity<ApiResponse<DoctorProfileResponseDTO>> getDoctorProfileData(
-            Authentication authentication) {
-        User user = getUser(authentication);
-        return ResponseEntity.ok(doctorService.getDoctorProfileData(user.getId()));
+            AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(doctorService.getDoctorProfileData(currentUser.userId()));
     }
 
     // ─── Appointments ─────────────────────────────────────────────────────────
 
     @GetMapping("/appointments")
     public ResponseEntity<ApiResponse<Page<AppointmentResponse>>> getAppointments(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size) {
-        User user = getUser(authentication);
         Page<AppointmentResponse> appointments = doctorService.getDoctorAppointments(
-                user.getId(), PageRequest.of(page, Math.min(size, 100)));
+                currentUser.userId(), PageRequest.of(page, Math.min(size, 100)));
         return ResponseEntity.ok(ApiResponse.success(appointments, "Appointments retrieved"));
     }
 
 
     @GetMapping("/patients")
     public ResponseEntity<ApiResponse<Page<Map<String, Object>>>> getMyPatients(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
-        User user = getUser(authentication);
         Page<Map<String, Object>> patients = doctorService.getDoctorPatients(
-                user.getId(), search, PageRequest.of(page, size));
+                currentUser.userId(), search, PageRequest.of(page, size));
 
         return ResponseEntity.ok(ApiResponse.success(patients, "Patients retrieved successfully"));
     }
 
     @PatchMapping("/appointments/{id}/approve")
     public ResponseEntity<ApiResponse<AppointmentResponse>> approveAppointment(
-            Authentication authentication, @PathVariable UUID id) {
+            AuthenticatedUser currentUser, @PathVariable UUID id) {
         try {
             return ResponseEntity.ok(ApiResponse.success(
-                    doctorService.approveAppointment(getUser(authentication).getId(), id),
+                    doctorService.approveAppointment(currentUser.userId(), id),
                     "Appointment approved"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -87,13 +81,13 @@ public class DoctorController {
 
     @PatchMapping("/appointments/{id}/reject")
     public ResponseEntity<ApiResponse<AppointmentResponse>> rejectAppointment(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id,
             @RequestBody(required = false) Map<String, String> body) {
         try {
             String reason = body != null ? body.get("reason") : null;
             return ResponseEntity.ok(ApiResponse.success(
-                    doctorService.rejectAppointment(getUser(authentication).getId(), id, reason),
+                    doctorService.rejectAppointment(currentUser.userId(), id, reason),
                     "Appointment rejected"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -102,10 +96,10 @@ public class DoctorController {
 
     @PatchMapping("/appointments/{id}/complete")
     public ResponseEntity<ApiResponse<AppointmentResponse>> completeAppointment(
-            Authentication authentication, @PathVariable UUID id) {
+            AuthenticatedUser currentUser, @PathVariable UUID id) {
         try {
             return ResponseEntity.ok(ApiResponse.success(
-                    doctorService.completeAppointment(getUser(authentication).getId(), id),
+                    doctorService.completeAppointment(currentUser.userId(), id),
                     "Appointment completed"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -114,13 +108,13 @@ public class DoctorController {
 
     @PatchMapping("/appointments/{id}/cancel")
     public ResponseEntity<ApiResponse<AppointmentResponse>> cancelAppointment(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id,
             @RequestBody(required = false) Map<String, String> body) {
         try {
             String reason = body != null ? body.get("reason") : null;
             return ResponseEntity.ok(ApiResponse.success(
-                    doctorService.cancelAppointment(getUser(authentication).getId(), id, reason),
+                    doctorService.cancelAppointment(currentUser.userId(), id, reason),
                     "Appointment cancelled"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -129,12 +123,12 @@ public class DoctorController {
 
     @PatchMapping("/appointments/{id}/reschedule")
     public ResponseEntity<ApiResponse<AppointmentResponse>> rescheduleAppointment(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id,
             @RequestBody AppointmentRescheduleRequest request) {
         try {
             return ResponseEntity.ok(ApiResponse.success(
-                    doctorService.rescheduleAppointment(getUser(authentication).getId(), id, request),
+                    doctorService.rescheduleAppointment(currentUser.userId(), id, request),
                     "Appointment rescheduled"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -143,12 +137,12 @@ public class DoctorController {
 
     @PostMapping("/appointments/{id}/notes")
     public ResponseEntity<ApiResponse<AppointmentResponse>> saveNotes(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id,
             @RequestBody Map<String, String> body) {
         try {
             return ResponseEntity.ok(ApiResponse.success(
-                    doctorService.saveNotes(getUser(authentication).getId(), id, body),
+                    doctorService.saveNotes(currentUser.userId(), id, body),
                     "Notes saved"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -158,14 +152,13 @@ public class DoctorController {
     // Paste this inside your DoctorController class
     @GetMapping("/prescriptions")
     public ResponseEntity<ApiResponse<Page<Map<String, Object>>>> getMyPrescriptions(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
-        User user = getUser(authentication);
         Page<Map<String, Object>> prescriptions = doctorService.getDoctorPrescriptions(
-                user.getId(), search, PageRequest.of(page, size));
+                currentUser.userId(), search, PageRequest.of(page, size));
 
         return ResponseEntity.ok(ApiResponse.success(prescriptions, "Prescriptions retrieved successfully"));
     }
@@ -173,10 +166,9 @@ public class DoctorController {
 
     @GetMapping("/patients/{patientId}/appointments")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getPatientAppointments(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID patientId) {
-        User user = getUser(authentication);
-        List<Map<String, Object>> appointments = doctorService.getPatientAppointmentsForDoctor(user.getId(), patientId);
+        List<Map<String, Object>> appointments = doctorService.getPatientAppointmentsForDoctor(currentUser.userId(), patientId);
         return ResponseEntity.ok(ApiResponse.success(appointments,
                 "Patient appointments retrieved successfully"));
     }
@@ -185,12 +177,12 @@ public class DoctorController {
 
     @PostMapping("/appointments/{id}/prescription")
     public ResponseEntity<ApiResponse<AppointmentResponse>> savePrescription(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id,
             @RequestBody Map<String, Object> body) {
         try {
             return ResponseEntity.ok(ApiResponse.success(
-                    doctorService.savePrescription(getUser(authentication).getId(), id, body),
+                    doctorService.savePrescription(currentUser.userId(), id, body),
                     "Prescription saved"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -210,10 +202,9 @@ public class DoctorController {
 
     @GetMapping("/verification-status")
     public ResponseEntity<ApiResponse<VerificationStatusResponse>> getVerificationStatus(
-            Authentication authentication) {
-        User user = getUser(authentication);
+            AuthenticatedUser currentUser) {
         return ResponseEntity.ok(ApiResponse.success(
-                doctorService.getVerificationStatus(user.getId()),
+                doctorService.getVerificationStatus(currentUser.userId()),
                 "Verification status retrieved"));
     }
 
@@ -231,12 +222,11 @@ public class DoctorController {
 
     @PostMapping("/documents/signature")
     public ResponseEntity<ApiResponse<SignatureResponseDTO>> getUploadSignature(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestBody SignatureRequestDTO request) {
         try {
-            User user = getUser(authentication);
             SignatureResponseDTO signature = doctorService.generateDocumentUploadSignature(
-                    user.getId(), request.getDocumentTypeId());
+                    currentUser.userId(), request.getDocumentTypeId());
             return ResponseEntity.ok(ApiResponse.success(signature, "Upload signature generated"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -247,11 +237,10 @@ public class DoctorController {
 
     @PostMapping("/documents/upload")
     public ResponseEntity<ApiResponse<RequiredDocumentItem>> saveUploadedDocument(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestBody DoctorDocumentUploadRequest request) {
         try {
-            User user = getUser(authentication);
-            RequiredDocumentItem result = doctorService.saveUploadedDocument(user.getId(), request);
+            RequiredDocumentItem result = doctorService.saveUploadedDocument(currentUser.userId(), request);
             return ResponseEntity.ok(ApiResponse.success(result, "Document saved successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -262,10 +251,9 @@ public class DoctorController {
 
     @PostMapping("/documents/submit-verification")
     public ResponseEntity<ApiResponse<VerificationStatusResponse>> submitForVerification(
-            Authentication authentication) {
+            AuthenticatedUser currentUser) {
         try {
-            User user = getUser(authentication);
-            VerificationStatusResponse response = doctorService.submitForVerification(user.getId());
+            VerificationStatusResponse response = doctorService.submitForVerification(currentUser.userId());
             return ResponseEntity.ok(ApiResponse.success(response, "Verification submitted successfully"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -273,11 +261,4 @@ public class DoctorController {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
-
-    // ─── Helper ───────────────────────────────────────────────────────────────
-
-    private User getUser(Authentication authentication) {
-        return userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
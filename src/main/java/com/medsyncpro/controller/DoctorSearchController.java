@@ -36,7 +36,7 @@ public class DoctorSearchController {
             @RequestParam(defaultValue = "false") boolean availableOnly,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "relevance") String sort,
             @RequestParam(defaultValue = "asc") String direction) {
 
         int safeSize = Math.min(size, 50);
@@ -45,6 +45,7 @@ public class DoctorSearchController {
                 ? Sort.Direction.DESC
                 : Sort.Direction.ASC;
 
+        // sort=relevance ranks by text match (then name); sort=name is alphabetical
         Pageable pageable = PageRequest.of(page, safeSize, Sort.by(sortDir, sort));
         Page<DoctorSearchResult> results = doctorSearchService.searchDoctors(
                 q, specialization, location, availableOnly, pageable);
@@ -1,15 +1,12 @@
 package com.medsyncpro.controller;
 
 import com.medsyncpro.dto.doctor.*;
-import com.medsyncpro.entity.User;
-import com.medsyncpro.exception.ResourceNotFoundException;
-import com.medsyncpro.repository.UserRepository;
+import com.medsyncpro.filter.AuthenticatedUser;
 import com.medsyncpro.response.ApiResponse;
 import com.medsyncpro.service.DoctorSettingsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import com.medsyncpro.utils.UserProfileHelper;
 
@@ -24,25 +21,15 @@ import java.util.UUID;
 public class DoctorSettingsController {
 
     private final DoctorSettingsService service;
-    private final UserRepository userRepository;
     private final UserProfileHelper userProfileHelper;
 
-    // JWT sets auth.getName() = email, not userId. Resolve it.
-    private UUID getUserId(Authentication auth) {
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        if (user == null) throw new ResourceNotFoundException("User not found");
-        return user.getId();
-    }
-
     // ═══════════════════════════════
     // UNIFIED GET — all settings in one call
     // ═══════════════════════════════
 
     @GetMapping
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getAllSettings(Authentication auth) {
-        UUID userId = getUserId(auth);
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAllSettings(AuthenticatedUser currentUser) {
+        UUID userId = currentUser.userId();
         Map<String, Object> all = new LinkedHashMap<>();
         all.put("professional", service.getProfessionalInfo(userId));
         all.put("clinics", service.getClinics(userId));
@@ -60,16 +47,16 @@ public class DoctorSettingsController {
     // ═══════════════════════════════
 
     @GetMapping("/professional")
-    public ResponseEntity<ApiResponse<ProfessionalInfoResponse>> getProfessionalInfo(Authentication auth) {
+    public ResponseEntity<ApiResponse<ProfessionalInfoResponse>> getProfessionalInfo(AuthenticatedUser currentUser) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.getProfessionalInfo(getUserId(auth)), "Professional info retrieved"));
+                service.getProfessionalInfo(currentUser.userId()), "Professional info retrieved"));
     }
 
     @PutMapping("/professional")
     public ResponseEntity<ApiResponse<ProfessionalInfoResponse>> updateProfessionalInfo(
-            Authentication auth, @RequestBody ProfessionalInfoRequest req) {
+            AuthenticatedUser currentUser, @RequestBody ProfessionalInfoRequest req) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.updateProfessionalInfo(getUserId(auth), req), "Professional info updated"));
+                service.updateProfessionalInfo(currentUser.userId(), req), "Professional info updated"));
     }
 
     // ═══════════════════════════════
@@ -77,29 +64,29 @@ public class DoctorSettingsController {
     // ═══════════════════════════════
 
     @GetMapping("/clinics")
-    public ResponseEntity<ApiResponse<List<ClinicResponse>>> getClinics(Authentication auth) {
+    public ResponseEntity<ApiResponse<List<ClinicResponse>>> getClinics(AuthenticatedUser currentUser) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.getClinics(getUserId(auth)), "Clinics retrieved"));
+                service.getClinics(currentUser.userId()), "Clinics retrieved"));
     }
 
     @PostMapping("/clinics")
     public ResponseEntity<ApiResponse<ClinicResponse>> addClinic(
-            Authentication auth, @RequestBody ClinicRequest req) {
+            AuthenticatedUser currentUser, @RequestBody ClinicRequest req) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.addClinic(getUserId(auth), req), "Clinic added"));
+                service.addClinic(currentUser.userId(), req), "Clinic added"));
     }
 
     @PutMapping("/clinics/{id}")
     public ResponseEntity<ApiResponse<ClinicResponse>> updateClinic(
-            Authentication auth, @PathVariable String id, @RequestBody ClinicRequest req) {
+            AuthenticatedUser currentUser, @PathVariable String id, @RequestBody ClinicRequest req) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.updateClinic(String.valueOf(getUserId(auth)), id, req), "Clinic updated"));
+                service.updateClinic(String.valueOf(currentUser.userId()), id, req), "Clinic updated"));
     }
 
     @DeleteMapping("/clinics/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteClinic(
-            Authentication auth, @PathVariable String id) {
-        service.deleteClinic(String.valueOf(getUserId(auth)), id);
+            AuthenticatedUser currentUser, @PathVariable String id) {
+        service.deleteClinic(String.valueOf(currentUser.userId()), id);
         return ResponseEntity.ok(ApiResponse.success(null, "Clinic deleted"));
     }
 
@@ -108,16 +95,16 @@ public class DoctorSettingsController {
     // ═══════════════════════════════
 
     @GetMapping("/availability")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getAvailability(Authentication auth) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAvailability(AuthenticatedUser currentUser) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.getAvailability(getUserId(auth)), "Availability retrieved"));
+                service.getAvailability(currentUser.userId()), "Availability retrieved"));
     }
 
     @PutMapping("/availability")
     public ResponseEntity<ApiResponse<Map<String, Object>>> updateAvailability(
-            Authentication auth, @RequestBody AvailabilityRequest req) {
+            AuthenticatedUser currentUser, @RequestBody AvailabilityRequest req) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.updateAvailability(getUserId(auth), req), "Availability updated"));
+                service.updateAvailability(currentUser.userId(), req), "Availability updated"));
     }
 
     // ═══════════════════════════════
@@ -125,16 +112,16 @@ public class DoctorSettingsController {
     // ═══════════════════════════════
 
     @GetMapping("/consultation")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getConsultation(Authentication auth) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getConsultation(AuthenticatedUser currentUser) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.getConsultationSettings(getUserId(auth)), "Consultation settings retrieved"));
+                service.getConsultationSettings(currentUser.userId()), "Consultation settings retrieved"));
     }
 
     @PutMapping("/consultation")
     public ResponseEntity<ApiResponse<Map<String, Object>>> updateConsultation(
-            Authentication auth, @RequestBody ConsultationSettingsRequest req) {
+            AuthenticatedUser currentUser, @RequestBody ConsultationSettingsRequest req) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.updateConsultationSettings(getUserId(auth), req), "Consultation settings updated"));
+                service.updateConsultationSettings(currentUser.userId(), req), "Consultation settings updated"));
     }
 
     // ═══════════════════════════════
@@ -142,16 +129,16 @@ public class DoctorSettingsController {
     // ═══════════════════════════════
 
     @GetMapping("/notifications")
-    public ResponseEntity<ApiResponse<Map<String, Boolean>>> getNotifPrefs(Authentication auth) {
+    public ResponseEntity<ApiResponse<Map<String, Boolean>>> getNotifPrefs(AuthenticatedUser currentUser) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.getNotificationPrefs(getUserId(auth)), "Notification preferences retrieved"));
+                service.getNotificationPrefs(currentUser.userId()), "Notification preferences retrieved"));
     }
 
     @PutMapping("/notifications")
     public ResponseEntity<ApiResponse<Map<String, Boolean>>> updateNotifPrefs(
-            Authentication auth, @RequestBody NotificationPrefsRequest req) {
+            AuthenticatedUser currentUser, @RequestBody NotificationPrefsRequest req) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.updateNotificationPrefs(getUserId(auth), req), "Notification preferences updated"));
+                service.updateNotificationPrefs(currentUser.userId(), req), "Notification preferences updated"));
     }
 
     // ═══════════════════════════════
@@ -159,16 +146,16 @@ public class DoctorSettingsController {
     // ═══════════════════════════════
 
     @GetMapping("/privacy")
-    public ResponseEntity<ApiResponse<Map<String, Boolean>>> getPrivacy(Authentication auth) {
+    public ResponseEntity<ApiResponse<Map<String, Boolean>>> getPrivacy(AuthenticatedUser currentUser) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.getPrivacySettings(getUserId(auth)), "Privacy settings retrieved"));
+                service.getPrivacySettings(currentUser.userId()), "Privacy settings retrieved"));
     }
 
     @PutMapping("/privacy")
     public ResponseEntity<ApiResponse<Map<String, Boolean>>> updatePrivacy(
-            Authentication auth, @RequestBody PrivacySettingsRequest req) {
+            AuthenticatedUser currentUser, @RequestBody PrivacySettingsRequest req) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.updatePrivacySettings(getUserId(auth), req), "Privacy settings updated"));
+                service.updatePrivacySettings(currentUser.userId(), req), "Privacy settings updated"));
     }
 
     // ═══════════════════════════════
@@ -176,24 +163,24 @@ public class DoctorSettingsController {
     // ═══════════════════════════════
 
     @GetMapping("/security")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getSecurityInfo(Authentication auth) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSecurityInfo(AuthenticatedUser currentUser) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.getSecurityInfo(getUserId(auth)), "Security info retrieved"));
+                service.getSecurityInfo(currentUser.userId()), "Security info retrieved"));
     }
 
     @PostMapping("/security/change-password")
     public ResponseEntity<ApiResponse<Void>> changePassword(
-            Authentication auth, @Valid @RequestBody ChangePasswordRequest req) {
-        service.changePassword(getUserId(auth), req);
+            AuthenticatedUser currentUser, @Valid @RequestBody ChangePasswordRequest req) {
+        service.changePassword(currentUser.userId(), req);
         return ResponseEntity.ok(ApiResponse.success(null, "Password changed successfully"));
     }
 
     @PutMapping("/security/two-factor")
     public ResponseEntity<ApiResponse<Map<String, Boolean>>> toggleTwoFactor(
-            Authentication auth, @RequestBody Map<String, Boolean> body) {
+            AuthenticatedUser currentUser, @RequestBody Map<String, Boolean> body) {
         boolean enabled = Boolean.TRUE.equals(body.get("enabled"));
         return ResponseEntity.ok(ApiResponse.success(
-                service.toggleTwoFactor(getUserId(auth), enabled), "Two-factor setting updated"));
+                service.toggleTwoFactor(currentUser.userId(), enabled), "Two-factor setting updated"));
     }
 
     // ═══════════════════════════════
@@ -201,20 +188,20 @@ public class DoctorSettingsController {
     // ═══════════════════════════════
 
     @GetMapping("/account/summary")
-    public ResponseEntity<ApiResponse<AccountSummaryResponse>> getAccountSummary(Authentication auth) {
+    public ResponseEntity<ApiResponse<AccountSummaryResponse>> getAccountSummary(AuthenticatedUser currentUser) {
         return ResponseEntity.ok(ApiResponse.success(
-                service.getAccountSummary(getUserId(auth)), "Account summary retrieved"));
+                service.getAccountSummary(currentUser.userId()), "Account summary retrieved"));
     }
 
     @PostMapping("/account/deactivate")
-    public ResponseEntity<ApiResponse<Void>> deactivateAccount(Authentication auth) {
-        service.deactivateAccount(getUserId(auth));
+    public ResponseEntity<ApiResponse<Void>> deactivateAccount(AuthenticatedUser currentUser) {
+        service.deactivateAccount(currentUser.userId());
         return ResponseEntity.ok(ApiResponse.success(null, "Account deactivated"));
     }
 
     @PostMapping("/account/delete")
-    public ResponseEntity<ApiResponse<Void>> deleteAccount(Authentication auth) {
-        service.deleteAccount(getUserId(auth));
+    public ResponseEntity<ApiResponse<Void>> deleteAccount(AuthenticatedUser currentUser) {
+        service.deleteAccount(currentUser.userId());
         return ResponseEntity.ok(ApiResponse.success(null, "Account deletion requested"));
     }
 }
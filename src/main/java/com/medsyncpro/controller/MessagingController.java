@@ -1,25 +1,22 @@
 package com.medsyncpro.controller;
 
 import com.medsyncpro.dto.request.SendMessageRequest;
+import com.medsyncpro.dto.response.ChatMessagePageResponse;
 import com.medsyncpro.dto.response.ChatMessageResponse;
+import com.medsyncpro.dto.response.ConversationPageResponse;
 import com.medsyncpro.dto.response.ConversationResponse;
 import com.medsyncpro.entity.Role;
-import com.medsyncpro.entity.User;
 import com.medsyncpro.exception.ResourceNotFoundException;
-import com.medsyncpro.repository.UserRepository;
+import com.medsyncpro.filter.AuthenticatedUser;
 import com.medsyncpro.response.ApiResponse;
 import com.medsyncpro.service.MessagingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -31,17 +28,18 @@ import java.util.UUID;
 public class MessagingController {
 
     private final MessagingService messagingService;
-    private final UserRepository userRepository;
 
     // ─── List conversations ────────────────────────────────────────────────────
 
     @GetMapping("/conversations")
-    public ResponseEntity<ApiResponse<List<ConversationResponse>>> getConversations(
-            Authentication authentication) {
-        User user = getUser(authentication);
-        List<ConversationResponse> list = user.getRole() == Role.DOCTOR
-                ? messagingService.getConversationsForDoctor(user.getId())
-                : messagingService.getConversationsForPatient(user.getId());
+    public ResponseEntity<ApiResponse<ConversationPageResponse>> getConversations(
+            AuthenticatedUser currentUser,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") int size) {
+        size = Math.max(1, Math.min(size, 100));
+        ConversationPageResponse list = currentUser.role() == Role.DOCTOR
+                ? messagingService.getConversationsForDoctor(currentUser.requireProfileId(), before, size)
+                : messagingService.getConversationsForPatient(currentUser.requireProfileId(), before, size);
         return ResponseEntity.ok(ApiResponse.success(list, "Conversations retrieved"));
     }
 
@@ -52,18 +50,17 @@ public class MessagingController {
      */
     @PostMapping("/conversations")
     public ResponseEntity<ApiResponse<ConversationResponse>> startConversation(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestBody Map<String, String> body) {
 
-        User user = getUser(authentication);
         try {
             ConversationResponse conv;
-            if (user.getRole() == Role.PATIENT) {
+            if (currentUser.role() == Role.PATIENT) {
                 UUID doctorId = UUID.fromString(requireParam(body, "doctorId"));
-                conv = messagingService.getOrCreateConversationAsPatient(user.getId(), doctorId);
+                conv = messagingService.getOrCreateConversationAsPatient(currentUser.userId(), doctorId);
             } else {
                 UUID patientId = UUID.fromString(requireParam(body, "patientId"));
-                conv = messagingService.getOrCreateConversationAsDoctor(user.getId(), patientId);
+                conv = messagingService.getOrCreateConversationAsDoctor(currentUser.userId(), patientId);
             }
             return ResponseEntity.ok(ApiResponse.success(conv, "Conversation ready"));
         } catch (IllegalArgumentException e) {
@@ -76,20 +73,21 @@ public class MessagingController {
         }
     }
 
-    // ─── Get paginated messages ────────────────────────────────────────────────
-
+    // ─── Get messages (cursor-paginated) ───────────────────────────────────────
+    /**
+     * Omit {@code before} for the newest page; pass the returned olderCursor to scroll back.
+     */
     @GetMapping("/conversations/{conversationId}/messages")
-    public ResponseEntity<ApiResponse<Page<ChatMessageResponse>>> getMessages(
-            Authentication authentication,
+    public ResponseEntity<ApiResponse<ChatMessagePageResponse>> getMessages(
+            AuthenticatedUser currentUser,
             @PathVariable UUID conversationId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String before,
             @RequestParam(defaultValue = "50") int size) {
 
-        User user = getUser(authentication);
-        size = Math.min(size, 100);
+        size = Math.max(1, Math.min(size, 100));
         try {
-            Page<ChatMessageResponse> messages = messagingService.getMessages(
-                    conversationId, user.getId(), PageRequest.of(page, size));
+            ChatMessagePageResponse messages = messagingService.getMessages(
+                    conversationId, currentUser.userId(), before, size);
             return ResponseEntity.ok(ApiResponse.success(messages, "Messages retrieved"));
         } catch (SecurityException e) {
             return ResponseEntity.status(403).body(ApiResponse.error("Access denied"));
@@ -98,18 +96,38 @@ public class MessagingController {
         }
     }
 
+    // ─── Sync messages since a cursor (reconnect) ─────────────────────────────
+
+    @GetMapping("/conversations/{conversationId}/messages/sync")
+    public ResponseEntity<ApiResponse<ChatMessagePageResponse>> syncMessages(
+            AuthenticatedUser currentUser,
+            @PathVariable UUID conversationId,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "100") int size) {
+
+        size = Math.max(1, Math.min(size, 200));
+        try {
+            ChatMessagePageResponse messages = messagingService.syncMessages(
+                    conversationId, currentUser.userId(), after, size);
+            return ResponseEntity.ok(ApiResponse.success(messages, "Messages synced"));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(403).body(ApiResponse.error("Access denied"));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(404).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     // ─── Send a message ────────────────────────────────────────────────────────
 
     @PostMapping("/conversations/{conversationId}/messages")
     public ResponseEntity<ApiResponse<ChatMessageResponse>> sendMessage(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID conversationId,
             @Valid @RequestBody SendMessageRequest request) {
 
-        User user = getUser(authentication);
         try {
             ChatMessageResponse msg = messagingService.sendMessage(
-                    conversationId, user.getId(), request.getContent());
+                    conversationId, currentUser.userId(), currentUser.role(), request.getContent());
             return ResponseEntity.ok(ApiResponse.success(msg, "Message sent"));
         } catch (SecurityException e) {
             return ResponseEntity.status(403).body(ApiResponse.error("Access denied"));
@@ -127,11 +145,10 @@ public class MessagingController {
 
     @PatchMapping("/conversations/{conversationId}/read")
     public ResponseEntity<ApiResponse<Void>> markAsRead(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID conversationId) {
-        User user = getUser(authentication);
         try {
-            messagingService.markConversationAsRead(conversationId, user.getId());
+            messagingService.markConversationAsRead(conversationId, currentUser.userId());
             return ResponseEntity.ok(ApiResponse.success(null, "Marked as read"));
         } catch (SecurityException e) {
             return ResponseEntity.status(403).body(ApiResponse.error("Access denied"));
@@ -144,21 +161,15 @@ public class MessagingController {
 
     @GetMapping("/unread-count")
     public ResponseEntity<ApiResponse<Map<String, Integer>>> getUnreadCount(
-            Authentication authentication) {
-        User user = getUser(authentication);
-        int count = user.getRole() == Role.DOCTOR
-                ? messagingService.getTotalUnreadForDoctor(user.getId())
-                : messagingService.getTotalUnreadForPatient(user.getId());
+            AuthenticatedUser currentUser) {
+        int count = currentUser.role() == Role.DOCTOR
+                ? messagingService.getTotalUnreadForDoctor(currentUser.userId())
+                : messagingService.getTotalUnreadForPatient(currentUser.userId());
         return ResponseEntity.ok(ApiResponse.success(Map.of("unreadCount", count), "OK"));
     }
 
     // ─── Helper ────────────────────────────────────────────────────────────────
 
-    private User getUser(Authentication authentication) {
-        return userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-    }
-
     private String requireParam(Map<String, String> body, String key) {
         if (body == null)
             throw new IllegalArgumentException(key + " is required");
@@ -2,9 +2,8 @@ package com.medsyncpro.controller;
 
 import com.medsyncpro.entity.Notification;
 import com.medsyncpro.entity.Role;
-import com.medsyncpro.entity.User;
-import com.medsyncpro.exception.BusinessException;
 import com.medsyncpro.exception.ResourceNotFoundException;
+import com.medsyncpro.filter.AuthenticatedUser;
 import com.medsyncpro.repository.NotificationRepository;
 import com.medsyncpro.repository.UserRepository;
 import com.medsyncpro.response.ApiResponse;
@@ -12,7 +11,6 @@ import com.medsyncpro.service.SseEmitterService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -30,27 +28,25 @@ public class NotificationController {
 
     /** SSE stream — any authenticated user can connect. */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter stream(Authentication authentication) {
-        User user = getUserFromAuth(authentication);
-        boolean isAdmin = user.getRole() == Role.ADMIN;
-        return sseEmitterService.addEmitter(user.getId(), isAdmin);
+    public SseEmitter stream(AuthenticatedUser currentUser) {
+        boolean isAdmin = currentUser.role() == Role.ADMIN;
+        return sseEmitterService.addEmitter(currentUser.userId(), isAdmin);
     }
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<Notification>>> getNotifications(
-            Authentication authentication) {
+            AuthenticatedUser currentUser) {
 
-        User user = getUserFromAuth(authentication);
         List<Notification> notifications;
 
-        if (user.getRole() == Role.ADMIN) {
+        if (currentUser.role() == Role.ADMIN) {
             notifications = notificationRepository
                     .findByRecipientIdOrRecipientIdIsNullOrderByCreatedAtDesc(
-                            user.getId().toString()); // ← fixed: was user.getId()
+                            currentUser.userId().toString()); // ← fixed: was user.getId()
         } else {
             notifications = notificationRepository
                     .findByRecipientIdOrderByCreatedAtDesc(
-                            user.getId().toString()); // ← fixed: was user.getId()
+                            currentUser.userId().toString()); // ← fixed: was user.getId()
         }
 
         return ResponseEntity.ok(ApiResponse.success(notifications, "Notifications fetched"));
@@ -58,19 +54,18 @@ public class NotificationController {
 
     @GetMapping("/unread-count")
     public ResponseEntity<ApiResponse<Map<String, Long>>> getUnreadCount(
-            Authentication authentication) {
+            AuthenticatedUser currentUser) {
 
-        User user = getUserFromAuth(authentication);
         long count;
 
-        if (user.getRole() == Role.ADMIN) {
+        if (currentUser.role() == Role.ADMIN) {
             long personal = notificationRepository
-                    .countByRecipientIdAndIsReadFalse(user.getId().toString()); // ← fixed
+                    .countByRecipientIdAndIsReadFalse(currentUser.userId().toString()); // ← fixed
             long broadcast = notificationRepository.countByRecipientIdIsNullAndIsReadFalse();
             count = personal + broadcast;
         } else {
             count = notificationRepository
-                    .countByRecipientIdAndIsReadFalse(user.getId().toString()); // ← fixed
+                    .countByRecipientIdAndIsReadFalse(currentUser.userId().toString()); // ← fixed
         }
 
         return ResponseEntity.ok(
@@ -93,29 +88,19 @@ public class NotificationController {
      */
     @PostMapping("/register-fcm-token")
     public ResponseEntity<ApiResponse<Void>> registerFcmToken(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestBody Map<String, String> body) {
         try {
-            User user = getUserFromAuth(authentication);
             String fcmToken = body.get("fcmToken");
             if (fcmToken == null || fcmToken.isBlank()) {
                 return ResponseEntity.badRequest()
                         .body(ApiResponse.error("fcmToken is required"));
             }
-            user.setFcmToken(fcmToken);
-            userRepository.save(user);
+            userRepository.updateFcmToken(currentUser.userId(), fcmToken);
             return ResponseEntity.ok(ApiResponse.success(null, "FCM token registered"));
         } catch (Exception e) {
             // Non-critical — log and return success so the client doesn't retry
             return ResponseEntity.ok(ApiResponse.success(null, "FCM token noted"));
         }
     }
-
-    private User getUserFromAuth(Authentication authentication) {
-        if (authentication == null || authentication.getPrincipal() == null) {
-            throw new BusinessException("UNAUTHORIZED", "User not authenticated");
-        }
-        return userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-    }
 }
\ No newline at end of file
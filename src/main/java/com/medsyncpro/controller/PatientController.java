@@ -3,9 +3,7 @@ package com.medsyncpro.controller;
 import com.medsyncpro.dto.request.AppointmentRequest;
 import com.medsyncpro.dto.response.AppointmentResponse;
 import com.medsyncpro.dto.response.SlotResponse;
-import com.medsyncpro.entity.User;
-import com.medsyncpro.exception.ResourceNotFoundException;
-import com.medsyncpro.repository.UserRepository;
+import com.medsyncpro.filter.AuthenticatedUser;
 import com.medsyncpro.response.ApiResponse;
 import com.medsyncpro.service.PatientService;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +11,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -27,17 +24,15 @@ import java.util.UUID;
 public class PatientController {
 
     private final PatientService patientService;
-    private final UserRepository userRepository;
 
     // ─── Book Appointment ─────────────────────────────────────────────────
 
     @PostMapping("/appointments")
     public ResponseEntity<ApiResponse<AppointmentResponse>> bookAppointment(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestBody AppointmentRequest request) {
         try {
-            User user = getUser(authentication);
-            AppointmentResponse response = patientService.bookAppointment(user.getId(), request);
+            AppointmentResponse response = patientService.bookAppointment(currentUser.userId(), request);
             return ResponseEntity.ok(ApiResponse.success(response, "Appointment booked successfully"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
@@ -52,12 +47,11 @@ public class PatientController {
 
     @GetMapping("/appointments")
     public ResponseEntity<ApiResponse<Page<AppointmentResponse>>> getMyAppointments(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        User user = getUser(authentication);
         Page<AppointmentResponse> appointments = patientService.getPatientAppointments(
-                user.getId(), PageRequest.of(page, size));
+                currentUser.userId(), PageRequest.of(page, size));
         return ResponseEntity.ok(ApiResponse.success(appointments, "Appointments retrieved"));
     }
 
@@ -65,11 +59,10 @@ public class PatientController {
 
     @PatchMapping("/appointments/{id}/cancel")
     public ResponseEntity<ApiResponse<AppointmentResponse>> cancelAppointment(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id) {
         try {
-            User user = getUser(authentication);
-            AppointmentResponse response = patientService.cancelAppointment(user.getId(), id);
+            AppointmentResponse response = patientService.cancelAppointment(currentUser.userId(), id);
             return ResponseEntity.ok(ApiResponse.success(response, "Appointment cancelled"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
@@ -87,22 +80,13 @@ public class PatientController {
         return ResponseEntity.ok(ApiResponse.success(slots, "Available slots retrieved"));
     }
 
-    // ─── Helper ───────────────────────────────────────────────────────────
-
-    private User getUser(Authentication authentication) {
-        return userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-    }
-
-
     @GetMapping("/prescriptions")
     public ResponseEntity<ApiResponse<Page<Map<String, Object>>>> getMyPrescriptions(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
 
-        User user = getUser(authentication);
-        Page<Map<String, Object>> prescriptions = patientService.getPatientPrescriptions(user.getId(),
+        Page<Map<String, Object>> prescriptions = patientService.getPatientPrescriptions(currentUser.userId(),
                 PageRequest.of(page, size));
 
         return ResponseEntity.ok(ApiResponse.success(prescriptions, "Prescriptions retrieved successfully"));
@@ -6,16 +6,15 @@ import com.medsyncpro.dto.request.UpdateMedicationScheduleRequest;
 import com.medsyncpro.dto.response.MedicationAdherenceSummaryResponse;
 import com.medsyncpro.dto.response.MedicationDoseLogResponse;
 import com.medsyncpro.dto.response.MedicationScheduleResponse;
+import com.medsyncpro.filter.AuthenticatedUser;
 import com.medsyncpro.response.ApiResponse;
 import com.medsyncpro.service.MedicationWorkflowService;
-import com.medsyncpro.utils.Utils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -28,21 +27,20 @@ import java.util.UUID;
 public class PatientMedicationController {
 
     private final MedicationWorkflowService medicationWorkflowService;
-    private final Utils utils;
 
     @PostMapping("/schedules")
     public ResponseEntity<ApiResponse<MedicationScheduleResponse>> createSchedule(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @Valid @RequestBody CreateMedicationScheduleRequest request) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 medicationWorkflowService.createSchedule(userId, request),
                 "Medication schedule created"));
     }
 
     @GetMapping("/schedules")
-    public ResponseEntity<ApiResponse<List<MedicationScheduleResponse>>> getSchedules(Authentication authentication) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+    public ResponseEntity<ApiResponse<List<MedicationScheduleResponse>>> getSchedules(AuthenticatedUser currentUser) {
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 medicationWorkflowService.getSchedules(userId),
                 "Medication schedules fetched"));
@@ -50,10 +48,10 @@ public class PatientMedicationController {
 
     @PatchMapping("/schedules/{id}")
     public ResponseEntity<ApiResponse<MedicationScheduleResponse>> updateSchedule(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id,
             @RequestBody UpdateMedicationScheduleRequest request) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 medicationWorkflowService.updateSchedule(userId, id, request),
                 "Medication schedule updated"));
@@ -61,19 +59,19 @@ public class PatientMedicationController {
 
     @DeleteMapping("/schedules/{id}")
     public ResponseEntity<ApiResponse<Void>> deactivateSchedule(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         medicationWorkflowService.deactivateSchedule(userId, id);
         return ResponseEntity.ok(ApiResponse.success(null, "Medication schedule deactivated"));
     }
 
     @GetMapping("/dose-logs")
     public ResponseEntity<ApiResponse<Page<MedicationDoseLogResponse>>> getDoseLogs(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 medicationWorkflowService.getDoseLogs(userId, PageRequest.of(page, Math.min(size, 100))),
                 "Dose logs fetched"));
@@ -81,10 +79,10 @@ public class PatientMedicationController {
 
     @PatchMapping("/dose-logs/{id}/taken")
     public ResponseEntity<ApiResponse<MedicationDoseLogResponse>> markTaken(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id,
             @RequestBody(required = false) DoseActionRequest request) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 medicationWorkflowService.markDoseTaken(userId, id, request),
                 "Dose marked as taken"));
@@ -92,10 +90,10 @@ public class PatientMedicationController {
 
     @PatchMapping("/dose-logs/{id}/snooze")
     public ResponseEntity<ApiResponse<MedicationDoseLogResponse>> snoozeDose(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @PathVariable UUID id,
             @RequestBody(required = false) DoseActionRequest request) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 medicationWorkflowService.snoozeDose(userId, id, request),
                 "Dose reminder snoozed"));
@@ -103,9 +101,9 @@ public class PatientMedicationController {
 
     @GetMapping("/adherence")
     public ResponseEntity<ApiResponse<MedicationAdherenceSummaryResponse>> getAdherence(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestParam(defaultValue = "30") int days) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 medicationWorkflowService.getAdherenceSummary(userId, days),
                 "Adherence summary fetched"));
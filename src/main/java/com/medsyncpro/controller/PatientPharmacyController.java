@@ -3,16 +3,15 @@ package com.medsyncpro.controller;
 import com.medsyncpro.dto.request.PharmacyMedicineRequestCreateRequest;
 import com.medsyncpro.dto.response.PharmacyMedicineRequestResponse;
 import com.medsyncpro.dto.response.PharmacySearchResponse;
+import com.medsyncpro.filter.AuthenticatedUser;
 import com.medsyncpro.response.ApiResponse;
 import com.medsyncpro.service.PharmacyWorkflowService;
-import com.medsyncpro.utils.Utils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
@@ -23,7 +22,6 @@ import java.util.UUID;
 public class PatientPharmacyController {
 
     private final PharmacyWorkflowService pharmacyWorkflowService;
-    private final Utils utils;
 
     @GetMapping("/api/patient/pharmacies")
     public ResponseEntity<ApiResponse<Page<PharmacySearchResponse>>> searchPharmacies(
@@ -38,9 +36,9 @@ public class PatientPharmacyController {
 
     @PostMapping("/api/patient/pharmacy-requests")
     public ResponseEntity<ApiResponse<PharmacyMedicineRequestResponse>> createRequest(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @Valid @RequestBody PharmacyMedicineRequestCreateRequest request) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 pharmacyWorkflowService.createMedicineRequest(userId, request),
                 "Pharmacy request submitted"));
@@ -48,10 +46,10 @@ public class PatientPharmacyController {
 
     @GetMapping("/api/patient/pharmacy-requests")
     public ResponseEntity<ApiResponse<Page<PharmacyMedicineRequestResponse>>> getMyRequests(
-            Authentication authentication,
+            AuthenticatedUser currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        UUID userId = utils.getUserFromAuth(authentication).getId();
+        UUID userId = currentUser.userId();
         return ResponseEntity.ok(ApiResponse.success(
                 pharmacyWorkflowService.getPatientRequests(userId, PageRequest.of(page, Math.min(size, 100))),
                 "Patient pharmacy requests fetched"));
@@ -0,0 +1,40 @@
+package com.medsyncpro.dto.doctor;
+
+import java.util.UUID;
+
+/**
+ * Flat row returned by the doctor search query (see DoctorRepository#searchVerifiedDoctors).
+ * totalCount is the full match count (window function), repeated on every row.
+ */
+public interface DoctorSearchRow {
+
+    UUID getUserId();
+
+    String getName();
+
+    String getEmail();
+
+    String getPhone();
+
+    String getProfileImage();
+
+    String getBio();
+
+    Integer getExperienceYears();
+
+    String getSpecialty();
+
+    String getQualifications();
+
+    Double getConsultationFee();
+
+    Boolean getAvailableForConsultation();
+
+    Boolean getOnlineConsultationEnabled();
+
+    String getPrimaryClinicName();
+
+    String getPrimaryClinicCity();
+
+    Long getTotalCount();
+}
@@ -0,0 +1,24 @@
+package com.medsyncpro.dto.doctor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-parsed form of the JSON TEXT columns on DoctorSettings.
+ * Built by DoctorSettingsViewCache; never mutate — copy before merging/editing.
+ *
+ * Lists/maps are empty when the column is blank or unparseable;
+ * weeklySchedule is null in that case so callers can apply their own default.
+ */
+public record DoctorSettingsView(
+        Map<String, Boolean> privacySettings,
+        Map<String, Boolean> notificationPrefs,
+        List<String> languages,
+        List<String> expertise,
+        Map<String, Object> weeklySchedule) {
+
+    public boolean privacyFlag(String key, boolean defaultValue) {
+        Boolean value = privacySettings.get(key);
+        return value != null ? value : defaultValue;
+    }
+}
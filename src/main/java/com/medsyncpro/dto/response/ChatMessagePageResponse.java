@@ -0,0 +1,27 @@
+package com.medsyncpro.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A window of chat messages, oldest → newest, with opaque cursors for moving from it:
+ * pass {@code olderCursor} as {@code before} to load earlier history, and
+ * {@code newerCursor} as {@code after} to sync messages sent since.
+ */
+@Data
+@Builder
+public class ChatMessagePageResponse {
+
+    private List<ChatMessageResponse> messages;
+
+    /** Null when this window starts at the first message of the conversation. */
+    private String olderCursor;
+
+    /** Position of the newest message seen; never null once the conversation has messages. */
+    private String newerCursor;
+
+    private boolean hasMoreOlder;
+    private boolean hasMoreNewer;
+}
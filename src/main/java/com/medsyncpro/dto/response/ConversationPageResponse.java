@@ -0,0 +1,19 @@
+package com.medsyncpro.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of the inbox, most recent activity first. Pass {@code nextCursor}
+ * as {@code before} to load the next page.
+ */
+@Data
+@Builder
+public class ConversationPageResponse {
+
+    private List<ConversationResponse> conversations;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -14,7 +14,8 @@ import java.util.UUID;
         @Index(name = "idx_appt_doctor", columnList = "doctor_id"),
         @Index(name = "idx_appt_patient", columnList = "patient_id"),
         @Index(name = "idx_appt_date", columnList = "scheduledDate"),
-        @Index(name = "idx_appt_status", columnList = "status")
+        @Index(name = "idx_appt_status", columnList = "status"),
+        @Index(name = "idx_appt_doctor_date", columnList = "doctor_id, scheduledDate")
 })
 @Getter
 @Setter
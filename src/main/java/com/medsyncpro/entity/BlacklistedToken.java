@@ -6,7 +6,8 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "blacklisted_tokens", indexes = {
-    @Index(name = "idx_blacklist_jti", columnList = "jti", unique = true)
+    @Index(name = "idx_blacklist_jti", columnList = "jti", unique = true),
+    @Index(name = "idx_blacklist_created_at", columnList = "created_at")
 })
 @Data
 public class BlacklistedToken {
@@ -19,4 +20,9 @@ public class BlacklistedToken {
 
     @Column(nullable = false)
     private Instant expiryDate;
+
+    // Set by the database on insert; other instances sync revocations by it
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "timestamp(6) with time zone default now()")
+    private Instant createdAt;
 }
@@ -10,7 +10,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "chat_messages", indexes = {
-        @Index(name = "idx_chat_conv", columnList = "conversation_id"),
+        // Keyset pagination: (created_at, id) is the cursor within a conversation
+        @Index(name = "idx_chat_conv_created_id", columnList = "conversation_id, created_at, id"),
         @Index(name = "idx_chat_sender", columnList = "sender_id")
 })
 @Getter
@@ -11,6 +11,10 @@ import java.util.UUID;
 @Entity
 @Table(name = "conversations", uniqueConstraints = {
         @UniqueConstraint(name = "uq_conv_doctor_patient", columnNames = { "doctor_id", "patient_id" })
+}, indexes = {
+        // Inbox keyset pagination, most recent activity first
+        @Index(name = "idx_conv_doctor_activity", columnList = "doctor_id, last_message_at, id"),
+        @Index(name = "idx_conv_patient_activity", columnList = "patient_id, last_message_at, id")
 })
 @Getter
 @Setter
@@ -37,6 +41,7 @@ public class Conversation extends BaseEntity {
     @Column(columnDefinition = "TEXT")
     private String lastMessage;
 
+    /** Time of the last message, or of creation while there are none. Orders the inbox. */
     private LocalDateTime lastMessageAt;
 
     /** How many unread messages the DOCTOR still has in this conversation. */
@@ -0,0 +1,31 @@
+package com.medsyncpro.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Denormalized search text for one doctor (name, specialty, qualifications,
+ * expertise, languages, clinic names, cities and addresses).
+ *
+ * The table also carries a generated {@code search_vector tsvector} column plus
+ * GIN full-text and pg_trgm indexes; those are created by SchemaInitializer
+ * because Hibernate can't express them.
+ */
+@Entity
+@Table(name = "doctor_search_documents")
+@Data
+public class DoctorSearchDocument {
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String searchText;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -82,6 +82,11 @@ public class DoctorSettings extends BaseEntity {
     @Column(columnDefinition = "TEXT")
     private String privacySettings;
 
+    // privacySettings.profileVisible, kept as a column so doctor search can filter on it in SQL
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "boolean default true")
+    private Boolean profileVisible = true;
+
     // ── Availability Schedule (JSON) ──
     @Column(columnDefinition = "TEXT")
     private String weeklySchedule;
@@ -0,0 +1,47 @@
+package com.medsyncpro.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Per-patient, per-day dose counts by status, keyed on the calendar day of scheduledAt.
+ * pending covers PENDING and SNOOZED doses, including ones materialized later in the day.
+ *
+ * Rows are derived data, adjusted in place by MedicationAdherenceRollupService and the
+ * bulk dose-log statements whenever a dose is created, deleted or changes status, so
+ * adherence reads sum a few rows instead of counting dose logs.
+ */
+@Entity
+@Table(name = "medication_adherence_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_med_adherence_patient_day",
+                columnNames = { "patient_id", "dose_date" }),
+        indexes = @Index(name = "idx_med_adherence_dose_date", columnList = "dose_date"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MedicationAdherenceDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+
+    @Column(name = "dose_date", nullable = false)
+    private LocalDate doseDate;
+
+    @Column(nullable = false)
+    private Integer taken;
+
+    @Column(nullable = false)
+    private Integer missed;
+
+    @Column(nullable = false)
+    private Integer pending;
+}
@@ -12,8 +12,9 @@ import java.util.UUID;
 @Table(name = "medication_dose_logs", indexes = {
         @Index(name = "idx_med_dose_schedule", columnList = "schedule_id"),
         @Index(name = "idx_med_dose_patient", columnList = "patient_id"),
-        @Index(name = "idx_med_dose_status", columnList = "status"),
-        @Index(name = "idx_med_dose_scheduled_at", columnList = "scheduledAt")
+        @Index(name = "idx_med_dose_scheduled_at", columnList = "scheduledAt"),
+        @Index(name = "idx_med_dose_status_scheduled_at", columnList = "status,scheduledAt"),
+        @Index(name = "idx_med_dose_status_snoozed_until", columnList = "status,snoozedUntil")
 })
 @Getter
 @Setter
@@ -0,0 +1,50 @@
+package com.medsyncpro.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.util.UUID;
+
+/**
+ * One reminder time of a {@link MedicationSchedule}, normalized out of its
+ * reminderTimes/reminderDays JSON so the per-minute reminder cycle can find
+ * due schedules with a single indexed lookup on minuteOfDay.
+ *
+ * dayMask has bit (DayOfWeek.getValue() - 1) set for each weekday the slot fires on.
+ * Date range, active flag and alternate-day parity are still read from the schedule.
+ * Rows are derived data, rebuilt by MedicationReminderSlotService whenever the schedule changes;
+ * (schedule, minuteOfDay) is unique (uk_med_slot_schedule_minute, created by SchemaInitializer).
+ */
+@Entity
+@Table(name = "medication_reminder_slots", indexes = {
+        @Index(name = "idx_med_slot_minute", columnList = "minuteOfDay"),
+        @Index(name = "idx_med_slot_schedule", columnList = "schedule_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MedicationReminderSlot {
+
+    public static final int ALL_DAYS = 0x7F;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "schedule_id", nullable = false)
+    private MedicationSchedule schedule;
+
+    @Column(nullable = false)
+    private Integer minuteOfDay;
+
+    @Column(nullable = false)
+    private Integer dayMask;
+
+    public static int dayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+}
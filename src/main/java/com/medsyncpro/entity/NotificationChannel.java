@@ -0,0 +1,7 @@
+package com.medsyncpro.entity;
+
+public enum NotificationChannel {
+    IN_APP,
+    EMAIL,
+    PUSH
+}
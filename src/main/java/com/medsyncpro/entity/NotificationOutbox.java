@@ -0,0 +1,66 @@
+package com.medsyncpro.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One pending delivery of a notification on one channel, written in the same transaction
+ * as the business change and delivered later by NotificationOutboxRelay.
+ *
+ * recipientUserId is null for an in-app admin broadcast. For IN_APP rows the id doubles as
+ * the id of the notifications row, so a redelivery can't create a second notification.
+ * Rows are written and claimed with plain SQL (NotificationDispatchService / relay);
+ * the entity only defines the table.
+ */
+@Entity
+@Table(name = "notification_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_notification_outbox_key", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_notification_outbox_due", columnList = "status,next_attempt_at"))
+@Data
+public class NotificationOutbox {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "idempotency_key", length = 100, nullable = false)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private NotificationChannel channel;
+
+    private UUID recipientUserId;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String message;
+
+    @Column(length = 36)
+    private String referenceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+}
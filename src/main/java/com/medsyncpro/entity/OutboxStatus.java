@@ -0,0 +1,8 @@
+package com.medsyncpro.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    IN_FLIGHT,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,30 @@
+package com.medsyncpro.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A principal cache invalidation, written in the transaction that changed the user so every
+ * instance's UserPrincipalCache can drop its copy. Rows are written and read with plain SQL;
+ * the entity only defines the table.
+ */
+@Entity
+@Table(name = "principal_evictions", indexes = @Index(name = "idx_principal_evictions_created_at", columnList = "created_at"))
+@Data
+public class PrincipalEviction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    // Set by the database on insert; instances sync evictions by it
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "timestamp(6) with time zone default now()")
+    private Instant createdAt;
+}
@@ -0,0 +1,25 @@
+package com.medsyncpro.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-bounded claim on a cluster-wide singleton job. Taken over by any node once expired.
+ */
+@Entity
+@Table(name = "scheduler_leases")
+@Data
+public class SchedulerLease {
+
+    @Id
+    @Column(length = 100, nullable = false, updatable = false)
+    private String jobName;
+
+    @Column(length = 128, nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
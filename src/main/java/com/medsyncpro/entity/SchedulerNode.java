@@ -0,0 +1,23 @@
+package com.medsyncpro.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One running application instance, kept alive by SchedulerCoordinator heartbeats.
+ * Instances whose heartbeat is older than the node TTL no longer get a partition.
+ */
+@Entity
+@Table(name = "scheduler_nodes")
+@Data
+public class SchedulerNode {
+
+    @Id
+    @Column(length = 128, nullable = false, updatable = false)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private LocalDateTime heartbeatAt;
+}
@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "verification_requests")
+@Table(name = "verification_requests", indexes = {
+        @Index(name = "idx_vr_user_status", columnList = "user_id, status")
+})
 @Data
 public class VerificationRequest {
 
@@ -21,7 +21,7 @@ public class AppointmentEventListener {
     private final NotificationRepository notificationRepository;
     private final SseEmitterService sseEmitterService;
 
-    @Async
+    @Async("notificationExecutor")
     @EventListener
     public void handleAppointmentBooked(AppointmentBookedEvent event) {
         Appointment appointment = event.getAppointment();
@@ -46,7 +46,7 @@ public class AppointmentEventListener {
         log.info("Notified doctor {} about new appointment {}", appointment.getDoctor().getId(), appointment.getId());
     }
 
-    @Async
+    @Async("notificationExecutor")
     @EventListener
     public void handleAppointmentCancelled(AppointmentCancelledEvent event) {
         Appointment appointment = event.getAppointment();
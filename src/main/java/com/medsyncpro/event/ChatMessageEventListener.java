@@ -0,0 +1,53 @@
+package com.medsyncpro.event;
+
+import com.medsyncpro.repository.UserRepository;
+import com.medsyncpro.service.NotificationDispatchService;
+import com.medsyncpro.service.SseEmitterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMessageEventListener {
+
+    private final SseEmitterService sseEmitterService;
+    private final UserRepository userRepository;
+    private final NotificationDispatchService notificationDispatchService;
+
+    /**
+     * Fan-out for a sent message, after its transaction commits and off the request thread,
+     * so the recipient never sees a message that was rolled back and the sender isn't kept
+     * waiting on SSE writes or the push outbox.
+     */
+    @Async("notificationExecutor")
+    @TransactionalEventListener
+    public void handleMessageSent(ChatMessageSentEvent event) {
+        // The "new_message" event travels via the existing Spring Boot SSE stream.
+        // The Next.js NotificationContext proxy forwards it to the browser.
+        sseEmitterService.sendToUser(event.getRecipientUserId(), "new_message", event.getSsePayload());
+
+        // FCM push (non-critical — swallow failures)
+        String content = event.getContent();
+        String pushTitle = "New message from " + event.getSenderDisplayName();
+        String pushBody = content.length() > 80 ? content.substring(0, 80) + "…" : content;
+        try {
+            // inApp=false → no Notification row saved (SSE is the real-time channel)
+            // email=false → no email for chat messages
+            // push=true → FCM push if device token present
+            userRepository.findById(event.getRecipientUserId()).ifPresent(recipient ->
+                    notificationDispatchService.notifyUser(
+                            recipient, "NEW_MESSAGE", pushTitle, pushBody,
+                            event.getConversationId().toString(),
+                            false, // inApp — skip Notification table
+                            false, // email
+                            true // push
+                    ));
+        } catch (Exception e) {
+            log.warn("[Messaging] FCM push failed for user={}: {}", event.getRecipientUserId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.medsyncpro.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A chat message was stored; the recipient still needs the SSE event and a push.
+ * Carries plain values only so the async listener never touches detached entities.
+ */
+@Getter
+public class ChatMessageSentEvent extends ApplicationEvent {
+
+    private final UUID conversationId;
+    private final UUID recipientUserId;
+    private final String senderDisplayName;
+    private final String content;
+
+    /** The "new_message" SSE payload, built by MessagingService. */
+    private final Map<String, Object> ssePayload;
+
+    public ChatMessageSentEvent(Object source, UUID conversationId, UUID recipientUserId,
+            String senderDisplayName, String content, Map<String, Object> ssePayload) {
+        super(source);
+        this.conversationId = conversationId;
+        this.recipientUserId = recipientUserId;
+        this.senderDisplayName = senderDisplayName;
+        this.content = content;
+        this.ssePayload = ssePayload;
+    }
+}
@@ -0,0 +1,58 @@
+package com.medsyncpro.event;
+
+import com.medsyncpro.entity.User;
+import com.medsyncpro.repository.UserRepository;
+import com.medsyncpro.service.NotificationDispatchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MedicationReminderEventListener {
+
+    private final UserRepository userRepository;
+    private final NotificationDispatchService notificationDispatchService;
+
+    /**
+     * Runs after the reminder cycle commits, off the scheduler thread, so a slow
+     * mail/push provider can't stretch the one-minute cycle.
+     */
+    @Async("notificationExecutor")
+    @TransactionalEventListener
+    public void handleRemindersDue(MedicationRemindersDueEvent event) {
+        Map<UUID, User> users = userRepository.findAllById(event.getReminders().stream()
+                .map(MedicationRemindersDueEvent.DueReminder::patientUserId)
+                .distinct()
+                .toList())
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        for (MedicationRemindersDueEvent.DueReminder reminder : event.getReminders()) {
+            try {
+                String message = "Time to take " + reminder.medicineName()
+                        + (reminder.dosage() != null ? " (" + reminder.dosage() + ")" : "");
+                notificationDispatchService.notifyUser(
+                        users.get(reminder.patientUserId()),
+                        "MEDICATION_REMINDER",
+                        "Medication Reminder",
+                        message,
+                        reminder.doseLogId().toString(),
+                        reminder.inApp(),
+                        reminder.email(),
+                        reminder.push());
+            } catch (Exception e) {
+                log.warn("Failed to send medication reminder for dose {}: {}", reminder.doseLogId(), e.getMessage());
+            }
+        }
+        log.debug("Dispatched {} medication reminders", event.getReminders().size());
+    }
+}
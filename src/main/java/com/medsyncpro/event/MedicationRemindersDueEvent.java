@@ -0,0 +1,32 @@
+package com.medsyncpro.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Dose logs created by one reminder cycle whose patients still need to be notified.
+ * Carries plain values only so the async listener never touches detached entities.
+ */
+@Getter
+public class MedicationRemindersDueEvent extends ApplicationEvent {
+
+    public record DueReminder(
+            UUID doseLogId,
+            UUID patientUserId,
+            String medicineName,
+            String dosage,
+            boolean inApp,
+            boolean email,
+            boolean push) {
+    }
+
+    private final List<DueReminder> reminders;
+
+    public MedicationRemindersDueEvent(Object source, List<DueReminder> reminders) {
+        super(source);
+        this.reminders = reminders;
+    }
+}
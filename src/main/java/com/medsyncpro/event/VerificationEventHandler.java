@@ -37,7 +37,7 @@ public class VerificationEventHandler {
 
     // ─── Doctor submitted → notify all admins ────────────────────────────────
 
-    @Async
+    @Async("verificationExecutor")
     @EventListener
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void onVerificationSubmitted(VerificationSubmittedEvent event) {
@@ -68,7 +68,7 @@ public class VerificationEventHandler {
 
     // ─── Admin approved or rejected → notify + email the doctor ─────────────
 
-    @Async
+    @Async("verificationExecutor")
     @EventListener
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void onVerificationDecision(VerificationDecisionEvent event) {
@@ -115,7 +115,7 @@ public class VerificationEventHandler {
 
     // ─── Admin requested document re-upload → notify + email the doctor ──────
 
-    @Async
+    @Async("verificationExecutor")
     @EventListener
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void onVerificationResubmitRequested(VerificationResubmitEvent event) {
@@ -25,7 +25,7 @@ public class VerificationEventListener {
     private final VerificationRequestRepository verificationRequestRepository;
     private final SseEmitterService sseEmitterService;
 
-    @Async
+    @Async("verificationExecutor")
     @EventListener
     @Transactional
     public void handleUserSignup(UserSignupEvent event) {
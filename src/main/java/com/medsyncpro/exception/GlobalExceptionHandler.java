@@ -2,9 +2,11 @@ package com.medsyncpro.exception;
 
 import com.medsyncpro.response.ApiResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -76,6 +78,13 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("Invalid token"));
     }
     
+    @ExceptionHandler({ CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class })
+    public ResponseEntity<ApiResponse<Object>> handleDatabaseBusy(Exception ex) {
+        // No connection within the limit/timeout (pool or DB concurrency limiter saturated)
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error("Service is busy, please retry shortly"));
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Object>> handleGenericException(Exception ex) {
         // Log the actual error for debugging
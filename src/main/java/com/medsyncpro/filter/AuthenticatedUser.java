@@ -0,0 +1,35 @@
+package com.medsyncpro.filter;
+
+import com.medsyncpro.entity.Role;
+import com.medsyncpro.exception.ResourceNotFoundException;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Principal set by {@link JwtAuthenticationFilter} for every authenticated request.
+ * Declare it as a controller method parameter to get the caller without a users-table lookup.
+ *
+ * {@code profileId} is the id of the caller's Doctor / Patient / Pharmacy / Agent row,
+ * or null for admins and users without a profile yet; endpoints that need it call {@link #requireProfileId()}.
+ * {@link #getName()} is the email, so {@code authentication.getName()} keeps working.
+ */
+public record AuthenticatedUser(UUID userId, String email, Role role, Integer tokenVersion, UUID profileId)
+        implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    /**
+     * The caller's profile id; throws ResourceNotFoundException (404) if they have no profile row.
+     */
+    public UUID requireProfileId() {
+        if (profileId == null) {
+            String label = role.name().charAt(0) + role.name().substring(1).toLowerCase();
+            throw new ResourceNotFoundException(label + " profile not found");
+        }
+        return profileId;
+    }
+}
@@ -1,10 +1,9 @@
 package com.medsyncpro.filter;
 
-import com.medsyncpro.entity.User;
-import com.medsyncpro.exception.ResourceNotFoundException;
-import com.medsyncpro.repository.UserRepository;
 import com.medsyncpro.service.JwtService;
 import com.medsyncpro.service.TokenBlacklistService;
+import com.medsyncpro.service.UserPrincipalCache;
+import com.medsyncpro.service.UserPrincipalCache.CachedPrincipal;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -34,7 +33,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
     private final TokenBlacklistService tokenBlacklistService;
-    private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
     
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -65,7 +64,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             
             // 2. Check if token is blacklisted
             String jti = jwtService.extractJti(claims);
-            if (jti != null && tokenBlacklistService.isBlacklisted(jti)) {
+            if (jti != null && tokenBlacklistService.isBlacklisted(jti, claims.getIssuedAt())) {
                 sendUnauthorizedResponse(response, "Token has been revoked");
                 return;
             }
@@ -75,23 +74,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             Integer tokenVersion = jwtService.extractTokenVersion(claims);
             
             if (email != null) {
-                User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-                if (user == null || user.getDeleted()) {
+                // Served from the in-memory principal cache; DB is only hit on a miss
+                CachedPrincipal user = userPrincipalCache.get(email);
+                if (user == null || user.deleted()) {
                     sendUnauthorizedResponse(response, "User not found or deleted");
                     return;
                 }
                 
-                if (tokenVersion != null && !tokenVersion.equals(user.getTokenVersion())) {
+                if (tokenVersion != null && !tokenVersion.equals(user.tokenVersion())) {
                     sendUnauthorizedResponse(response, "Token version mismatch. Please login again");
                     return;
                 }
                 
-                // 4. All checks passed — set authentication
+                // A token whose userId claim doesn't match the account behind its email was issued
+                // for a different (deleted and re-registered) user
+                String userIdClaim = claims.get("userId", String.class);
+                if (userIdClaim != null && !userIdClaim.equals(user.userId().toString())) {
+                    sendUnauthorizedResponse(response, "User not found or deleted");
+                    return;
+                }
+                
+                // 4. All checks passed — set authentication with a principal controllers can inject
                 String role = claims.get("role", String.class);
                 if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    AuthenticatedUser principal = new AuthenticatedUser(
+                            user.userId(), user.email(), user.role(), user.tokenVersion(), user.profileId());
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            email,
+                            principal,
                             null,
                             Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
                     );
@@ -5,6 +5,8 @@ import com.medsyncpro.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +14,5 @@ import java.util.UUID;
 public interface AdminRepository extends JpaRepository<Admin, UUID> {
     Optional<Admin> findByUser(User user);
     Optional<Admin> findByUserId(UUID userId);
+    List<Admin> findByUserIdIn(Collection<UUID> userIds);
 }
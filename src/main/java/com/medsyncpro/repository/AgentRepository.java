@@ -1,5 +1,7 @@
 package com.medsyncpro.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,4 +18,6 @@ public interface AgentRepository extends JpaRepository<Agent, UUID> {
     java.util.Optional<Agent> findByUser(com.medsyncpro.entity.User user);
 
     Optional<Agent> findByUserId(UUID userId);
+
+    List<Agent> findByUserIdIn(Collection<UUID> userIds);
 }
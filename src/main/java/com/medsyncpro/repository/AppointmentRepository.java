@@ -33,12 +33,32 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
             @Param("startTime") LocalTime startTime,
             @Param("endTime") LocalTime endTime);
 
-    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId " +
-            "AND a.scheduledDate = :date " +
+    /**
+     * Times occupied by a doctor's active appointments in a date range (slot calendar input).
+     */
+    interface BookedSlot {
+        LocalDate getScheduledDate();
+
+        LocalTime getScheduledTime();
+
+        LocalTime getEndTime();
+    }
+
+    @Query("SELECT a.scheduledDate AS scheduledDate, a.scheduledTime AS scheduledTime, a.endTime AS endTime " +
+            "FROM Appointment a WHERE a.doctor.id = :doctorId " +
+            "AND a.scheduledDate BETWEEN :fromDate AND :toDate " +
             "AND a.status NOT IN ('CANCELLED', 'REJECTED')")
-    List<Appointment> findByDoctorIdAndScheduledDate(
+    List<BookedSlot> findBookedSlots(
             @Param("doctorId") UUID doctorId,
-            @Param("date") LocalDate date);
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    /**
+     * Serialize check-and-write on one doctor's schedule until the current transaction ends.
+     * Keyed by (namespace, hash of doctor id); a hash collision only serializes two doctors.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(CAST(:namespace AS int), CAST(:key AS int))", nativeQuery = true)
+    Integer lockDoctorSchedule(@Param("namespace") int namespace, @Param("key") int key);
 
     long countByDoctorIdAndStatus(UUID doctorId, AppointmentStatus status);
 }
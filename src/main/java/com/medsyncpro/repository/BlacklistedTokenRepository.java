@@ -6,11 +6,16 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.Instant;
+import java.util.List;
 
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
 
     boolean existsByJti(String jti);
 
+    List<BlacklistedToken> findByExpiryDateAfter(Instant now);
+
+    List<BlacklistedToken> findByCreatedAtGreaterThanEqual(Instant since);
+
     @Modifying
     @Query("DELETE FROM BlacklistedToken bt WHERE bt.expiryDate < ?1")
     int deleteAllExpiredBefore(Instant now);
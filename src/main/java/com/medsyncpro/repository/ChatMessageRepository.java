@@ -2,8 +2,6 @@ package com.medsyncpro.repository;
 
 import com.medsyncpro.entity.ChatMessage;
 import com.medsyncpro.entity.Role;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -11,16 +9,55 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID> {
 
-    /**
-     * Paginated messages ordered oldest → newest (caller scrolls upward to load
-     * more).
+    /*
+     * Keyset pagination over (created_at, id), served by idx_chat_conv_created_id.
+     * Callers pass limit = page size + 1 to learn whether another page exists.
      */
-    Page<ChatMessage> findByConversationIdOrderByCreatedAtAsc(UUID conversationId, Pageable pageable);
+
+    /** Newest messages first. */
+    @Query(value = """
+            SELECT * FROM chat_messages
+            WHERE conversation_id = :conversationId AND deleted = false
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ChatMessage> findLatest(
+            @Param("conversationId") UUID conversationId,
+            @Param("limit") int limit);
+
+    /** Messages older than the cursor, newest first. */
+    @Query(value = """
+            SELECT * FROM chat_messages
+            WHERE conversation_id = :conversationId AND deleted = false
+            AND (created_at, id) < (CAST(:createdAt AS timestamp), CAST(:id AS uuid))
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ChatMessage> findBefore(
+            @Param("conversationId") UUID conversationId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            @Param("limit") int limit);
+
+    /** Messages newer than the cursor, oldest first. */
+    @Query(value = """
+            SELECT * FROM chat_messages
+            WHERE conversation_id = :conversationId AND deleted = false
+            AND (created_at, id) > (CAST(:createdAt AS timestamp), CAST(:id AS uuid))
+            ORDER BY created_at ASC, id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ChatMessage> findAfter(
+            @Param("conversationId") UUID conversationId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            @Param("limit") int limit);
 
     /** Bulk-mark all unread messages from a specific sender role as read. */
     @Modifying
@@ -1,11 +1,14 @@
 package com.medsyncpro.repository;
 
 import com.medsyncpro.entity.Conversation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,23 +18,141 @@ public interface ConversationRepository extends JpaRepository<Conversation, UUID
 
     Optional<Conversation> findByDoctorIdAndPatientId(UUID doctorId, UUID patientId);
 
+    /**
+     * Who is in a conversation; see ConversationParticipantCache.
+     */
+    interface ConversationParticipants {
+        UUID getDoctorUserId();
+        UUID getPatientUserId();
+        String getDoctorName();
+        String getPatientName();
+        String getDoctorAvatar();
+        String getPatientAvatar();
+        String getDoctorEmail();
+        String getPatientEmail();
+    }
+
     @Query("""
-            SELECT c FROM Conversation c
+            SELECT du.id AS doctorUserId, pu.id AS patientUserId,
+                   d.name AS doctorName, p.name AS patientName,
+                   d.profileImage AS doctorAvatar, p.profileImage AS patientAvatar,
+                   du.email AS doctorEmail, pu.email AS patientEmail
+            FROM Conversation c
+            JOIN c.doctor d
+            JOIN d.user du
+            JOIN c.patient p
+            JOIN p.user pu
+            WHERE c.id = :conversationId
+            """)
+    Optional<ConversationParticipants> findParticipants(@Param("conversationId") UUID conversationId);
+
+    /**
+     * Inbox row with exactly the fields ConversationResponse needs, read in one query.
+     */
+    interface ConversationSummary {
+        UUID getId();
+        UUID getDoctorId();
+        String getDoctorName();
+        String getDoctorSpecialty();
+        String getDoctorAvatar();
+        UUID getPatientId();
+        String getPatientName();
+        String getPatientAvatar();
+        String getLastMessage();
+        LocalDateTime getLastMessageAt();
+        int getDoctorUnreadCount();
+        int getPatientUnreadCount();
+    }
+
+    /*
+     * Inbox pages, most recent activity first, keyset-paginated on (last_message_at, id) and
+     * served by idx_conv_doctor_activity / idx_conv_patient_activity. last_message_at is set
+     * when a conversation is created, so it is never null.
+     */
+
+    @Query("""
+            SELECT c.id AS id,
+                   d.id AS doctorId, d.name AS doctorName, s.name AS doctorSpecialty, d.profileImage AS doctorAvatar,
+                   p.id AS patientId, p.name AS patientName, p.profileImage AS patientAvatar,
+                   c.lastMessage AS lastMessage, c.lastMessageAt AS lastMessageAt,
+                   c.doctorUnreadCount AS doctorUnreadCount, c.patientUnreadCount AS patientUnreadCount
+            FROM Conversation c
+            JOIN c.doctor d
+            LEFT JOIN d.specialization s
+            JOIN c.patient p
             WHERE c.doctor.id = :doctorId
-            ORDER BY COALESCE(c.lastMessageAt, c.createdAt) DESC
+            ORDER BY c.lastMessageAt DESC, c.id DESC
             """)
-    List<Conversation> findByDoctorIdOrderByActivity(@Param("doctorId") UUID doctorId);
+    List<ConversationSummary> findDoctorInbox(@Param("doctorId") UUID doctorId, Pageable pageable);
 
     @Query("""
-            SELECT c FROM Conversation c
+            SELECT c.id AS id,
+                   d.id AS doctorId, d.name AS doctorName, s.name AS doctorSpecialty, d.profileImage AS doctorAvatar,
+                   p.id AS patientId, p.name AS patientName, p.profileImage AS patientAvatar,
+                   c.lastMessage AS lastMessage, c.lastMessageAt AS lastMessageAt,
+                   c.doctorUnreadCount AS doctorUnreadCount, c.patientUnreadCount AS patientUnreadCount
+            FROM Conversation c
+            JOIN c.doctor d
+            LEFT JOIN d.specialization s
+            JOIN c.patient p
+            WHERE c.doctor.id = :doctorId
+            AND (c.lastMessageAt, c.id) < (:lastMessageAt, :id)
+            ORDER BY c.lastMessageAt DESC, c.id DESC
+            """)
+    List<ConversationSummary> findDoctorInboxBefore(
+            @Param("doctorId") UUID doctorId,
+            @Param("lastMessageAt") LocalDateTime lastMessageAt,
+            @Param("id") UUID id,
+            Pageable pageable);
+
+    @Query("""
+            SELECT c.id AS id,
+                   d.id AS doctorId, d.name AS doctorName, s.name AS doctorSpecialty, d.profileImage AS doctorAvatar,
+                   p.id AS patientId, p.name AS patientName, p.profileImage AS patientAvatar,
+                   c.lastMessage AS lastMessage, c.lastMessageAt AS lastMessageAt,
+                   c.doctorUnreadCount AS doctorUnreadCount, c.patientUnreadCount AS patientUnreadCount
+            FROM Conversation c
+            JOIN c.doctor d
+            LEFT JOIN d.specialization s
+            JOIN c.patient p
+            WHERE c.patient.id = :patientId
+            ORDER BY c.lastMessageAt DESC, c.id DESC
+            """)
+    List<ConversationSummary> findPatientInbox(@Param("patientId") UUID patientId, Pageable pageable);
+
+    @Query("""
+            SELECT c.id AS id,
+                   d.id AS doctorId, d.name AS doctorName, s.name AS doctorSpecialty, d.profileImage AS doctorAvatar,
+                   p.id AS patientId, p.name AS patientName, p.profileImage AS patientAvatar,
+                   c.lastMessage AS lastMessage, c.lastMessageAt AS lastMessageAt,
+                   c.doctorUnreadCount AS doctorUnreadCount, c.patientUnreadCount AS patientUnreadCount
+            FROM Conversation c
+            JOIN c.doctor d
+            LEFT JOIN d.specialization s
+            JOIN c.patient p
             WHERE c.patient.id = :patientId
-            ORDER BY COALESCE(c.lastMessageAt, c.createdAt) DESC
+            AND (c.lastMessageAt, c.id) < (:lastMessageAt, :id)
+            ORDER BY c.lastMessageAt DESC, c.id DESC
             """)
-    List<Conversation> findByPatientIdOrderByActivity(@Param("patientId") UUID patientId);
+    List<ConversationSummary> findPatientInboxBefore(
+            @Param("patientId") UUID patientId,
+            @Param("lastMessageAt") LocalDateTime lastMessageAt,
+            @Param("id") UUID id,
+            Pageable pageable);
 
     @Query("SELECT COALESCE(SUM(c.doctorUnreadCount), 0) FROM Conversation c WHERE c.doctor.id = :doctorId")
     long sumDoctorUnread(@Param("doctorId") UUID doctorId);
 
     @Query("SELECT COALESCE(SUM(c.patientUnreadCount), 0) FROM Conversation c WHERE c.patient.id = :patientId")
     long sumPatientUnread(@Param("patientId") UUID patientId);
+
+    // Atomic resets; bulk JPQL updates don't bump @Version (the send path increments in MessagingService)
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.doctorUnreadCount = 0 WHERE c.id = :conversationId")
+    int resetDoctorUnread(@Param("conversationId") UUID conversationId);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.patientUnreadCount = 0 WHERE c.id = :conversationId")
+    int resetPatientUnread(@Param("conversationId") UUID conversationId);
 }
\ No newline at end of file
@@ -1,16 +1,116 @@
 package com.medsyncpro.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.medsyncpro.dto.doctor.DoctorSearchRow;
 import com.medsyncpro.entity.Doctor;
 
 public interface DoctorRepository extends JpaRepository<Doctor, UUID> {
     Optional<Doctor> findByUserId(UUID userId);
+
+    List<Doctor> findByUserIdIn(Collection<UUID> userIds);
     
     long countByIsVerifiedTrueAndDeletedFalse();
 
     long countByIsVerifiedFalseAndDeletedFalse();
+
+    // ─────────────────────────────────────────────
+    // Public doctor search
+    // Verification, privacy, text filters and name sort all run in SQL.
+    // Filter params are '' when absent (Postgres can't type a bare NULL param);
+    // text params are LIKE-escaped by the caller, queryText is the raw query.
+    // Free-text matching uses only doctor_search_documents columns (tsvector + pg_trgm,
+    // see SchemaInitializer) so it can be answered from their GIN indexes; every doctor
+    // gets a document at signup (DoctorSearchIndexService).
+    // ─────────────────────────────────────────────
+
+    String SEARCH_FROM = """
+            FROM doctors d
+            JOIN users u ON u.id = d.user_id AND u.deleted = false AND u.role = 'DOCTOR'
+            LEFT JOIN doctor_settings ds ON ds.user_id = d.user_id AND ds.deleted = false
+            LEFT JOIN doctor_search_documents sd ON sd.user_id = d.user_id
+            """;
+
+    String SEARCH_WHERE = """
+            WHERE d.deleted = false
+            AND EXISTS (
+                SELECT 1 FROM verification_requests vr
+                WHERE vr.user_id = d.user_id AND vr.status = 'VERIFIED'
+            )
+            AND COALESCE(ds.profile_visible, true)
+            AND (:availableOnly = false OR ds.available_for_consultation = true)
+            AND (:specialization = '' OR ds.specialty ILIKE CONCAT('%', :specialization, '%'))
+            AND (:query = ''
+                OR sd.search_vector @@ plainto_tsquery('simple', :queryText)
+                OR :queryText <% sd.search_text
+                OR sd.search_text ILIKE CONCAT('%', :query, '%'))
+            AND (:location = ''
+                OR ds.specialty ILIKE CONCAT('%', :location, '%')
+                OR EXISTS (
+                    SELECT 1 FROM doctor_clinics c
+                    WHERE c.user_id = d.user_id AND c.deleted = false
+                    AND (c.city ILIKE CONCAT('%', :location, '%')
+                        OR c.address ILIKE CONCAT('%', :location, '%'))
+                ))
+            """;
+
+    @Query(value = """
+            SELECT d.user_id AS userId,
+                   d.name AS name,
+                   u.email AS email,
+                   u.phone AS phone,
+                   d.profile_image AS profileImage,
+                   d.bio AS bio,
+                   d.experience_years AS experienceYears,
+                   ds.specialty AS specialty,
+                   ds.qualifications AS qualifications,
+                   ds.consultation_fee AS consultationFee,
+                   ds.available_for_consultation AS availableForConsultation,
+                   ds.online_consultation_enabled AS onlineConsultationEnabled,
+                   pc.clinic_name AS primaryClinicName,
+                   pc.city AS primaryClinicCity,
+                   COUNT(*) OVER () AS totalCount
+            """ + SEARCH_FROM + """
+            LEFT JOIN LATERAL (
+                SELECT c.clinic_name, c.city FROM doctor_clinics c
+                WHERE c.user_id = d.user_id AND c.deleted = false AND c.is_primary = true
+                ORDER BY c.created_at
+                LIMIT 1
+            ) pc ON true
+            """ + SEARCH_WHERE + """
+            ORDER BY
+                CASE WHEN :rankByRelevance = true THEN
+                    ts_rank(sd.search_vector, plainto_tsquery('simple', :queryText))
+                    + word_similarity(:queryText, sd.search_text)
+                END DESC NULLS LAST,
+                CASE WHEN :nameDesc = false THEN LOWER(d.name) END ASC,
+                CASE WHEN :nameDesc = true THEN LOWER(d.name) END DESC,
+                d.user_id
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<DoctorSearchRow> searchVerifiedDoctors(
+            @Param("query") String query,
+            @Param("queryText") String queryText,
+            @Param("specialization") String specialization,
+            @Param("location") String location,
+            @Param("availableOnly") boolean availableOnly,
+            @Param("rankByRelevance") boolean rankByRelevance,
+            @Param("nameDesc") boolean nameDesc,
+            @Param("limit") int limit,
+            @Param("offset") long offset);
+
+    @Query(value = "SELECT COUNT(*) " + SEARCH_FROM + SEARCH_WHERE, nativeQuery = true)
+    long countVerifiedDoctors(
+            @Param("query") String query,
+            @Param("queryText") String queryText,
+            @Param("specialization") String specialization,
+            @Param("location") String location,
+            @Param("availableOnly") boolean availableOnly);
 }
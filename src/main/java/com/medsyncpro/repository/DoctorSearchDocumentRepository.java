@@ -0,0 +1,18 @@
+package com.medsyncpro.repository;
+
+import com.medsyncpro.entity.DoctorSearchDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface DoctorSearchDocumentRepository extends JpaRepository<DoctorSearchDocument, UUID> {
+
+    @Query(value = """
+            SELECT d.user_id FROM doctors d
+            WHERE d.deleted = false
+            AND NOT EXISTS (SELECT 1 FROM doctor_search_documents sd WHERE sd.user_id = d.user_id)
+            """, nativeQuery = true)
+    List<UUID> findUnindexedDoctorUserIds();
+}
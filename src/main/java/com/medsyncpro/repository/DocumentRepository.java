@@ -4,8 +4,11 @@ import com.medsyncpro.entity.Document;
 import com.medsyncpro.entity.DocumentType;
 import com.medsyncpro.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,6 +17,9 @@ import java.util.UUID;
 public interface DocumentRepository extends JpaRepository<Document, UUID> {
     
     List<Document> findByUser(User user);
+
+    @Query("SELECT d FROM Document d JOIN FETCH d.documentType WHERE d.user.id IN :userIds")
+    List<Document> findWithTypeByUserIdIn(@Param("userIds") Collection<UUID> userIds);
     
     Optional<Document> findByUserAndDocumentType(User user, DocumentType documentType);
     
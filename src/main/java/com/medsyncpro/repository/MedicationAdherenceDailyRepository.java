@@ -0,0 +1,41 @@
+package com.medsyncpro.repository;
+
+import com.medsyncpro.entity.MedicationAdherenceDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MedicationAdherenceDailyRepository extends JpaRepository<MedicationAdherenceDaily, UUID> {
+
+    interface AdherenceTotals {
+        UUID getPatientId();
+        long getTaken();
+        long getMissed();
+        long getPending();
+    }
+
+    @Query("SELECT r.patientId AS patientId, SUM(r.taken) AS taken, SUM(r.missed) AS missed, " +
+            "SUM(r.pending) AS pending " +
+            "FROM MedicationAdherenceDaily r " +
+            "WHERE r.patientId = :patientId AND r.doseDate BETWEEN :from AND :to " +
+            "GROUP BY r.patientId")
+    List<AdherenceTotals> sumForPatient(@Param("patientId") UUID patientId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Totals for every patient that currently has an active schedule.
+     */
+    @Query("SELECT r.patientId AS patientId, SUM(r.taken) AS taken, SUM(r.missed) AS missed, " +
+            "SUM(r.pending) AS pending " +
+            "FROM MedicationAdherenceDaily r " +
+            "WHERE r.doseDate BETWEEN :from AND :to " +
+            "AND r.patientId IN (SELECT s.patient.id FROM MedicationSchedule s WHERE s.active = true) " +
+            "GROUP BY r.patientId")
+    List<AdherenceTotals> sumForActivePatients(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,11 +1,13 @@
 package com.medsyncpro.repository;
 
-import com.medsyncpro.entity.DoseStatus;
 import com.medsyncpro.entity.MedicationDoseLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,22 +17,111 @@ import java.util.UUID;
 @Repository
 public interface MedicationDoseLogRepository extends JpaRepository<MedicationDoseLog, UUID> {
 
-    boolean existsByScheduleIdAndScheduledAt(UUID scheduleId, LocalDateTime scheduledAt);
-
     Optional<MedicationDoseLog> findByIdAndPatientId(UUID id, UUID patientId);
 
     List<MedicationDoseLog> findByPatientIdAndScheduledAtBetweenOrderByScheduledAtDesc(
             UUID patientId, LocalDateTime from, LocalDateTime to);
 
-    Page<MedicationDoseLog> findByPatientIdOrderByScheduledAtDesc(UUID patientId, Pageable pageable);
-
-    List<MedicationDoseLog> findByStatusAndScheduledAtBefore(DoseStatus status, LocalDateTime before);
+    Page<MedicationDoseLog> findByPatientIdAndScheduledAtLessThanEqualOrderByScheduledAtDesc(
+            UUID patientId, LocalDateTime until, Pageable pageable);
 
-    List<MedicationDoseLog> findByStatusAndSnoozedUntilLessThanEqual(DoseStatus status, LocalDateTime time);
+    /**
+     * Mark up to {@code limit} PENDING doses scheduled before {@code before}, for patients in
+     * the given scheduler partition (see SchedulerCoordinator), as MISSED and
+     * move them from pending to missed in medication_adherence_daily, in one statement.
+     * Returns doses updated; call repeatedly until it returns less than {@code limit}.
+     * Each call commits on its own unless a transaction is already active.
+     */
+    @Transactional
+    @Query(value = """
+            WITH missed AS (
+                UPDATE medication_dose_logs SET status = 'MISSED', updated_at = now(), version = version + 1
+                WHERE status = 'PENDING' AND id IN (
+                    SELECT id FROM medication_dose_logs
+                    WHERE status = 'PENDING' AND scheduled_at < :before AND deleted = false
+                    AND (hashtext(CAST(patient_id AS text)) & 2147483647) % :partitions = :partition
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING patient_id, CAST(scheduled_at AS date) AS dose_date
+            ), rollup AS (
+                INSERT INTO medication_adherence_daily (id, patient_id, dose_date, taken, missed, pending)
+                SELECT gen_random_uuid(), patient_id, dose_date, 0, count(*), -count(*)
+                FROM missed GROUP BY patient_id, dose_date
+                ON CONFLICT (patient_id, dose_date) DO UPDATE SET
+                    missed = medication_adherence_daily.missed + EXCLUDED.missed,
+                    pending = medication_adherence_daily.pending + EXCLUDED.pending
+            )
+            SELECT count(*) FROM missed
+            """, nativeQuery = true)
+    long markMissedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit,
+            @Param("partition") int partition, @Param("partitions") int partitions);
 
-    long countByPatientIdAndScheduledAtBetweenAndStatus(
-            UUID patientId, LocalDateTime from, LocalDateTime to, DoseStatus status);
+    /**
+     * Put up to {@code limit} SNOOZED doses whose snooze ended back in the queue as PENDING at {@code now},
+     * unsent, so the reminder cycle fires them again. Limited to the given scheduler partition. Their pending count moves to the new day in
+     * medication_adherence_daily when the requeue crosses midnight.
+     * (schedule_id, scheduled_at) is unique, so at most one dose per schedule moves to a given {@code now},
+     * and none where that schedule already has a dose at {@code now}; the rest wait for a later minute.
+     */
+    @Transactional
+    @Query(value = """
+            WITH due AS (
+                SELECT id, patient_id, CAST(scheduled_at AS date) AS old_date FROM medication_dose_logs d
+                WHERE status = 'SNOOZED' AND snoozed_until <= :now AND deleted = false
+                AND (hashtext(CAST(patient_id AS text)) & 2147483647) % :partitions = :partition
+                AND d.id = (
+                    SELECT o.id FROM medication_dose_logs o
+                    WHERE o.schedule_id = d.schedule_id AND o.status = 'SNOOZED'
+                    AND o.snoozed_until <= :now AND o.deleted = false
+                    ORDER BY o.snoozed_until, o.id
+                    LIMIT 1)
+                AND NOT EXISTS (
+                    SELECT 1 FROM medication_dose_logs t
+                    WHERE t.schedule_id = d.schedule_id AND t.scheduled_at = :now AND t.deleted = false)
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ), requeued AS (
+                UPDATE medication_dose_logs d
+                SET status = 'PENDING', scheduled_at = :now, snoozed_until = NULL, reminder_sent = false,
+                    updated_at = now(), version = d.version + 1
+                FROM due WHERE d.id = due.id
+                RETURNING due.patient_id, due.old_date
+            ), rollup AS (
+                INSERT INTO medication_adherence_daily (id, patient_id, dose_date, taken, missed, pending)
+                SELECT gen_random_uuid(), patient_id, dose_date, 0, 0, sum(delta)
+                FROM (
+                    SELECT patient_id, old_date AS dose_date, -1 AS delta FROM requeued
+                    UNION ALL
+                    SELECT patient_id, CAST(:now AS date), 1 FROM requeued
+                ) moved
+                GROUP BY patient_id, dose_date
+                HAVING sum(delta) <> 0
+                ON CONFLICT (patient_id, dose_date) DO UPDATE SET
+                    pending = medication_adherence_daily.pending + EXCLUDED.pending
+            )
+            SELECT count(*) FROM requeued
+            """, nativeQuery = true)
+    long requeueSnoozedUntil(@Param("now") LocalDateTime now, @Param("limit") int limit,
+            @Param("partition") int partition, @Param("partitions") int partitions);
 
-    long countByPatientIdAndScheduledAtBetweenAndStatusIn(
-            UUID patientId, LocalDateTime from, LocalDateTime to, List<DoseStatus> statuses);
+    /**
+     * Drop materialized doses of a schedule that haven't fired yet (schedule changed or deactivated)
+     * and take them off the pending counts in medication_adherence_daily.
+     */
+    @Transactional
+    @Query(value = """
+            WITH removed AS (
+                DELETE FROM medication_dose_logs
+                WHERE schedule_id = :scheduleId AND status = 'PENDING'
+                AND reminder_sent = false AND scheduled_at >= :from
+                RETURNING patient_id, CAST(scheduled_at AS date) AS dose_date
+            ), rollup AS (
+                UPDATE medication_adherence_daily r SET pending = r.pending - c.doses
+                FROM (SELECT patient_id, dose_date, count(*) AS doses FROM removed
+                      GROUP BY patient_id, dose_date) c
+                WHERE r.patient_id = c.patient_id AND r.dose_date = c.dose_date
+            )
+            SELECT count(*) FROM removed
+            """, nativeQuery = true)
+    long deleteUnsentFrom(@Param("scheduleId") UUID scheduleId, @Param("from") LocalDateTime from);
 }
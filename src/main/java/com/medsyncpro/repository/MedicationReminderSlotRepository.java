@@ -0,0 +1,29 @@
+package com.medsyncpro.repository;
+
+import com.medsyncpro.entity.MedicationReminderSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MedicationReminderSlotRepository extends JpaRepository<MedicationReminderSlot, UUID> {
+
+    List<MedicationReminderSlot> findByScheduleIdIn(Collection<UUID> scheduleIds);
+
+    @Modifying
+    @Query("DELETE FROM MedicationReminderSlot rs WHERE rs.schedule.id = :scheduleId")
+    int deleteByScheduleId(@Param("scheduleId") UUID scheduleId);
+
+    @Query(value = """
+            SELECT ms.id FROM medication_schedules ms
+            WHERE ms.deleted = false AND ms.active = true
+            AND NOT EXISTS (SELECT 1 FROM medication_reminder_slots rs WHERE rs.schedule_id = ms.id)
+            """, nativeQuery = true)
+    List<UUID> findUnslottedActiveScheduleIds();
+}
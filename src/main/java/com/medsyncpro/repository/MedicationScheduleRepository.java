@@ -3,10 +3,8 @@ package com.medsyncpro.repository;
 import com.medsyncpro.entity.MedicationSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,10 +18,8 @@ public interface MedicationScheduleRepository extends JpaRepository<MedicationSc
 
     Optional<MedicationSchedule> findByIdAndPatientId(UUID id, UUID patientId);
 
-    @Query("SELECT ms FROM MedicationSchedule ms WHERE ms.active = true " +
-            "AND ms.startDate <= :today " +
-            "AND (ms.endDate IS NULL OR ms.endDate >= :today)")
-    List<MedicationSchedule> findActiveForDate(@Param("today") LocalDate today);
-
     List<MedicationSchedule> findByActiveTrue();
+
+    @Query("SELECT ms.id FROM MedicationSchedule ms WHERE ms.active = true")
+    List<UUID> findActiveIds();
 }
@@ -5,6 +5,8 @@ import com.medsyncpro.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +14,5 @@ import java.util.UUID;
 public interface PatientRepository extends JpaRepository<Patient, UUID> {
     Optional<Patient> findByUser(User user);
     Optional<Patient> findByUserId(UUID userId);
+    List<Patient> findByUserIdIn(Collection<UUID> userIds);
 }
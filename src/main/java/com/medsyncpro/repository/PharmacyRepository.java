@@ -1,5 +1,7 @@
 package com.medsyncpro.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,6 +24,8 @@ public interface PharmacyRepository extends JpaRepository<Pharmacy, UUID> {
 
     Optional<Pharmacy> findByUserId(UUID userId);
 
+    List<Pharmacy> findByUserIdIn(Collection<UUID> userIds);
+
     @Query("""
             SELECT p FROM Pharmacy p
             WHERE p.isVerified = true
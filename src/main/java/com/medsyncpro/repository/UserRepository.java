@@ -1,6 +1,7 @@
 package com.medsyncpro.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,8 +12,10 @@ import com.medsyncpro.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
 
@@ -96,4 +99,30 @@ public interface UserRepository extends JpaRepository<User, UUID> {
                             """)
        List<User> findEmailVerifiedNonAdmins();
 
-}
\ No newline at end of file
+       /**
+        * Id of the user's Doctor / Patient / Pharmacy / Agent row, if any.
+        */
+       @Query(value = """
+                     SELECT id FROM doctors WHERE user_id = :userId
+                     UNION ALL SELECT id FROM patients WHERE user_id = :userId
+                     UNION ALL SELECT id FROM pharmacies WHERE user_id = :userId
+                     UNION ALL SELECT id FROM agents WHERE user_id = :userId
+                     LIMIT 1
+                            """, nativeQuery = true)
+       Optional<UUID> findProfileIdByUserId(@Param("userId") UUID userId);
+
+       // ─────────────────────────────────────────────
+       // Push tokens
+       // ─────────────────────────────────────────────
+
+       @Modifying
+       @Transactional
+       @Query("UPDATE User u SET u.fcmToken = NULL WHERE u.fcmToken IN :tokens")
+       int clearFcmTokens(@Param("tokens") Collection<String> tokens);
+
+       @Modifying
+       @Transactional
+       @Query("UPDATE User u SET u.fcmToken = :token WHERE u.id = :userId")
+       int updateFcmToken(@Param("userId") UUID userId, @Param("token") String token);
+
+}
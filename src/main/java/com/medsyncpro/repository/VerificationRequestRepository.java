@@ -6,6 +6,7 @@ import com.medsyncpro.entity.VerificationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,4 +28,6 @@ public interface VerificationRequestRepository
     Optional<VerificationRequest> findTopByUserOrderByCreatedAtDesc(User user);
 
     Optional<VerificationRequest> findByUserId(UUID userId);
+
+    List<VerificationRequest> findByUserIdIn(Collection<UUID> userIds);
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import com.medsyncpro.event.VerificationResubmitEvent;
 import com.medsyncpro.exception.ResourceNotFoundException;
 import com.medsyncpro.repository.*;
 import com.medsyncpro.response.ApiResponse;
+import com.medsyncpro.utils.UserProfileHelper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,8 +25,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -38,8 +40,8 @@ public class AdminService {
         private final DocumentTypeRepository documentTypeRepository;
         private final AuditLogService auditLogService;
         private final UserRepository userRepository;
-        private final DoctorRepository doctorRepository;
         private final DocumentRepository documentRepository;
+        private final UserProfileHelper userProfileHelper;
 
         // ─────────────────────────────────────────────
         // USER LISTING
@@ -55,8 +57,22 @@ public class AdminService {
                                 ? userRepository.findByRoleAndEmailContainingIgnoreCase(role, search.trim(), pageable)
                                 : userRepository.findByRole(role, pageable);
 
-                List<AdminUserListResponse> content = userPage.getContent().stream()
-                                .map(user -> buildResponse(user, role))
+                List<User> users = userPage.getContent();
+                List<UUID> userIds = users.stream().map(User::getId).toList();
+
+                // Batch-load profile data, verification status and documents for the whole page
+                Map<UUID, UserProfileHelper.Profile> profiles = userProfileHelper.resolveProfiles(users);
+                Map<UUID, List<DocumentResponse>> documentsByUser = userIds.isEmpty()
+                                ? Map.of()
+                                : documentRepository.findWithTypeByUserIdIn(userIds).stream()
+                                                .collect(Collectors.groupingBy(d -> d.getUser().getId(),
+                                                                Collectors.mapping(DocumentResponse::from,
+                                                                                Collectors.toList())));
+
+                List<AdminUserListResponse> content = users.stream()
+                                .map(user -> buildResponse(user,
+                                                profiles.get(user.getId()),
+                                                documentsByUser.getOrDefault(user.getId(), List.of())))
                                 .toList();
 
                 return PagedResponse.<AdminUserListResponse>builder()
@@ -68,43 +84,29 @@ public class AdminService {
                                 .build();
         }
 
-        private AdminUserListResponse buildResponse(User user, Role role) {
-                String name = null;
-                String profileImageUrl = null;
-
-                if (role == Role.DOCTOR) {
-                        Optional<Doctor> doctorOpt = doctorRepository.findByUserId(user.getId());
-                        if (doctorOpt.isPresent()) {
-                                Doctor d = doctorOpt.get();
-                                name = d.getName();
-                                profileImageUrl = d.getProfileImage();
-                        }
-                }
-
-                List<DocumentResponse> documents = documentRepository.findByUser(user)
-                                .stream().map(DocumentResponse::from).toList();
-
+        private AdminUserListResponse buildResponse(User user, UserProfileHelper.Profile profile,
+                        List<DocumentResponse> documents) {
                 return AdminUserListResponse.builder()
                                 .id(user.getId().toString())
-                                .name(name)
+                                .name(profile != null ? profile.name() : null)
                                 .email(user.getEmail())
                                 .phone(user.getPhone())
                                 .role(user.getRole())
                                 .emailVerified(user.isEmailVerified())
                                 .deleted(false)
-                                .profileImageUrl(profileImageUrl)
+                                .profileImageUrl(profile != null ? profile.profileImage() : null)
                                 .createdAt(user.getCreatedAt())
                                 .updatedAt(user.getUpdatedAt())
                                 .documents(documents)
-                                .professionalVerificationStatus(deriveVerificationStatus(user))
+                                .professionalVerificationStatus(deriveVerificationStatus(user, profile))
                                 .build();
         }
 
-        private String deriveVerificationStatus(User user) {
-                return verificationRequestRepository
-                                .findTopByUserOrderByCreatedAtDesc(user)
-                                .map(r -> r.getStatus().name())
-                                .orElse(user.isEmailVerified() ? "EMAIL_VERIFIED" : "UNVERIFIED");
+        private String deriveVerificationStatus(User user, UserProfileHelper.Profile profile) {
+                if (profile != null && profile.verificationStatus() != null) {
+                        return profile.verificationStatus().name();
+                }
+                return user.isEmailVerified() ? "EMAIL_VERIFIED" : "UNVERIFIED";
         }
 
         // ─────────────────────────────────────────────
@@ -0,0 +1,52 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.entity.Appointment;
+import com.medsyncpro.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Makes "check for conflicts, then write" on a doctor's schedule race-free.
+ *
+ * Callers take {@link #lockDoctorSchedule} (a transaction-scoped Postgres advisory lock, so it
+ * holds across instances) before running findConflicting, then persist through
+ * {@link #saveAppointment}. The ex_appt_doctor_no_overlap exclusion constraint
+ * (SchemaInitializer) is the backstop for any writer that skips the lock.
+ */
+@Component
+@RequiredArgsConstructor
+public class AppointmentBookingGuard {
+
+    // Advisory lock namespace for doctor schedules ("APPT")
+    private static final int LOCK_NAMESPACE = 0x41505054;
+
+    private static final String OVERLAP_CONSTRAINT = "ex_appt_doctor_no_overlap";
+
+    private final AppointmentRepository appointmentRepository;
+
+    /**
+     * Block until no other transaction is booking/rescheduling for this doctor.
+     * Must be called inside a transaction; released at commit/rollback.
+     */
+    public void lockDoctorSchedule(UUID doctorId) {
+        appointmentRepository.lockDoctorSchedule(LOCK_NAMESPACE, doctorId.hashCode());
+    }
+
+    /**
+     * Save and flush so an overlap rejected by the database surfaces here as a booking error.
+     */
+    public Appointment saveAppointment(Appointment appointment, String conflictMessage) {
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            String cause = e.getMostSpecificCause().getMessage();
+            if (cause != null && cause.contains(OVERLAP_CONSTRAINT)) {
+                throw new IllegalArgumentException(conflictMessage);
+            }
+            throw e;
+        }
+    }
+}
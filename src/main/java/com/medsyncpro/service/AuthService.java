@@ -43,6 +43,7 @@ public class AuthService {
     private final PharmacyRepository pharmacyRepository;
     private final AgentRepository agentRepository;
     private final AuditLogService auditLogService;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Value("${jwt.access-expiration:900000}")
     private long accessExpiration;
@@ -223,8 +224,10 @@ public class AuthService {
                 break;
 
             case ADMIN:
-                break;
+                return;
         }
+        // A principal cached before the profile existed would carry a null profileId
+        userPrincipalCache.evict(user);
     }
 
     public ApiResponse<LoginResponse> refreshToken(HttpServletRequest request, HttpServletResponse response) {
@@ -0,0 +1,178 @@
+package com.medsyncpro.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Brevo transactional-email API over one shared, keep-alive HTTP client.
+ *
+ * Requests that fail with 429, 5xx or an I/O error are retried with exponential backoff
+ * (plus jitter) up to {@code brevo.retry.max-attempts}; other 4xx responses are not retried.
+ * {@link #sendBatch} sends many emails per request using Brevo's messageVersions, in requests
+ * of up to {@code brevo.batch.max-size}.
+ * {@code brevo.api.base-url} can point at a local stub server.
+ */
+@Component
+@Slf4j
+public class BrevoEmailClient {
+
+    public record OutgoingEmail(String to, String subject, String htmlContent) {
+    }
+
+    private static final String SEND_PATH = "/v3/smtp/email";
+
+    private final RestClient restClient;
+    private final Map<String, Object> sender;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int maxBatchSize;
+
+    public BrevoEmailClient(
+            @Value("${brevo.api.base-url:https://api.brevo.com}") String baseUrl,
+            @Value("${brevo.api.key}") String apiKey,
+            @Value("${brevo.from.email}") String fromEmail,
+            @Value("${brevo.from.name}") String fromName,
+            @Value("${brevo.http.connect-timeout-ms:5000}") long connectTimeoutMillis,
+            @Value("${brevo.http.read-timeout-ms:10000}") long readTimeoutMillis,
+            @Value("${brevo.retry.max-attempts:3}") int maxAttempts,
+            @Value("${brevo.retry.initial-backoff-ms:500}") long initialBackoffMillis,
+            @Value("${brevo.retry.max-backoff-ms:5000}") long maxBackoffMillis,
+            @Value("${brevo.batch.max-size:100}") int maxBatchSize) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+
+        this.restClient = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .defaultHeader("api-key", apiKey)
+                .build();
+        this.sender = Map.of("name", fromName, "email", fromEmail);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    public boolean send(OutgoingEmail email) {
+        return send(email, null);
+    }
+
+    /**
+     * @param idempotencyKey passed to Brevo so a retried request isn't delivered twice; may be null
+     */
+    public boolean send(OutgoingEmail email, String idempotencyKey) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sender", sender);
+        body.put("to", List.of(Map.of("email", email.to())));
+        body.put("subject", email.subject());
+        body.put("htmlContent", email.htmlContent());
+        if (idempotencyKey != null) {
+            body.put("headers", Map.of("idempotencyKey", idempotencyKey));
+        }
+        return post(body, "'" + email.subject() + "' → " + email.to());
+    }
+
+    /**
+     * Send the emails in chunks of up to {@code brevo.batch.max-size}, one request per chunk;
+     * each email becomes a message version with its own recipient, subject and body. The base
+     * subject/body are the chunk's first email's (Brevo requires them).
+     *
+     * @param idempotencyKey chunk n is sent with key "idempotencyKey-n"; may be null
+     * @return for each email, in order, whether the request carrying it was accepted
+     */
+    public List<Boolean> sendBatch(List<OutgoingEmail> emails, String idempotencyKey) {
+        List<Boolean> accepted = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i += maxBatchSize) {
+            List<OutgoingEmail> chunk = emails.subList(i, Math.min(i + maxBatchSize, emails.size()));
+            String chunkKey = idempotencyKey != null ? idempotencyKey + "-" + (i / maxBatchSize) : null;
+            boolean sent = sendChunk(chunk, chunkKey);
+            chunk.forEach(email -> accepted.add(sent));
+        }
+        return accepted;
+    }
+
+    private boolean sendChunk(List<OutgoingEmail> emails, String idempotencyKey) {
+        if (emails.size() == 1) {
+            return send(emails.get(0), idempotencyKey);
+        }
+        List<Map<String, Object>> versions = new ArrayList<>(emails.size());
+        for (OutgoingEmail email : emails) {
+            versions.add(Map.of(
+                    "to", List.of(Map.of("email", email.to())),
+                    "subject", email.subject(),
+                    "htmlContent", email.htmlContent()));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sender", sender);
+        body.put("subject", emails.get(0).subject());
+        body.put("htmlContent", emails.get(0).htmlContent());
+        body.put("messageVersions", versions);
+        if (idempotencyKey != null) {
+            body.put("headers", Map.of("idempotencyKey", idempotencyKey));
+        }
+        return post(body, "batch of " + emails.size());
+    }
+
+    private boolean post(Map<String, Object> body, String description) {
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                restClient.post()
+                        .uri(SEND_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body)
+                        .retrieve()
+                        .toBodilessEntity();
+                log.info("[Email] Sent {}", description);
+                return true;
+            } catch (RestClientResponseException e) {
+                int status = e.getStatusCode().value();
+                boolean retryable = status == 429 || status >= 500;
+                if (!retryable || attempt >= maxAttempts) {
+                    log.error("[Email] Failed to send {} (HTTP {}, attempt {}): {}",
+                            description, status, attempt, e.getResponseBodyAsString());
+                    return false;
+                }
+                log.warn("[Email] HTTP {} sending {}, retrying (attempt {})", status, description, attempt);
+            } catch (ResourceAccessException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("[Email] Failed to send {} after {} attempts: {}", description, attempt, e.getMessage());
+                    return false;
+                }
+                log.warn("[Email] I/O error sending {}, retrying (attempt {}): {}", description, attempt, e.getMessage());
+            }
+            if (!sleep(backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1))) {
+                return false;
+            }
+            backoff = Math.min(backoff * 2, maxBackoffMillis);
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
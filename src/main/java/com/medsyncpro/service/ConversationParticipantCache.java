@@ -0,0 +1,119 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.entity.Role;
+import com.medsyncpro.exception.ResourceNotFoundException;
+import com.medsyncpro.repository.ConversationRepository;
+import com.medsyncpro.repository.ConversationRepository.ConversationParticipants;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-based cache of a conversation's participants (user ids, display names, avatars),
+ * so the chat hot path can authorize and address a message without loading the conversation,
+ * doctor, patient and user rows. The doctor and patient of a conversation never change;
+ * the TTL only bounds how stale display names can get.
+ */
+@Service
+public class ConversationParticipantCache {
+
+    public record Participants(UUID doctorUserId, UUID patientUserId,
+            String doctorName, String patientName,
+            String doctorAvatar, String patientAvatar,
+            String doctorEmail, String patientEmail) {
+
+        /** The caller's role in this conversation, or null if they aren't a participant. */
+        public Role roleOf(UUID userId) {
+            if (doctorUserId.equals(userId)) {
+                return Role.DOCTOR;
+            }
+            if (patientUserId.equals(userId)) {
+                return Role.PATIENT;
+            }
+            return null;
+        }
+    }
+
+    private record Entry(Participants participants, long expiresAtMillis) {
+    }
+
+    private final ConversationRepository conversationRepository;
+    private final long ttlMillis;
+    private final int maxSize;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ConversationParticipantCache(ConversationRepository conversationRepository,
+            MeterRegistry meterRegistry,
+            @Value("${messaging.participant-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${messaging.participant-cache.max-size:10000}") int maxSize) {
+        this.conversationRepository = conversationRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxSize = maxSize;
+
+        FunctionCounter.builder("messaging.participant.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("messaging.participant.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("messaging.participant.cache.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Participants of a conversation, loading them in one query on a miss.
+     *
+     * @throws ResourceNotFoundException if the conversation doesn't exist
+     */
+    public Participants get(UUID conversationId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(conversationId);
+        if (entry != null && entry.expiresAtMillis() > now) {
+            hits.incrementAndGet();
+            return entry.participants();
+        }
+
+        misses.incrementAndGet();
+        ConversationParticipants row = conversationRepository.findParticipants(conversationId)
+                .orElseThrow(() -> {
+                    entries.remove(conversationId);
+                    return new ResourceNotFoundException("Conversation not found");
+                });
+        Participants participants = new Participants(
+                row.getDoctorUserId(), row.getPatientUserId(),
+                row.getDoctorName(), row.getPatientName(),
+                row.getDoctorAvatar(), row.getPatientAvatar(),
+                row.getDoctorEmail(), row.getPatientEmail());
+
+        if (entries.size() >= maxSize) {
+            trim(now);
+        }
+        entries.put(conversationId, new Entry(participants, now + ttlMillis));
+        return participants;
+    }
+
+    /**
+     * Drop expired entries; if still at capacity, drop arbitrary entries down to 90% of the bound.
+     */
+    private void trim(long now) {
+        entries.values().removeIf(e -> e.expiresAtMillis() <= now);
+        int target = (int) (maxSize * 0.9);
+        Iterator<UUID> it = entries.keySet().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.dto.doctor.DoctorSettingsView;
+import com.medsyncpro.entity.Doctor;
+import com.medsyncpro.entity.DoctorClinic;
+import com.medsyncpro.entity.DoctorSearchDocument;
+import com.medsyncpro.entity.DoctorSettings;
+import com.medsyncpro.entity.Role;
+import com.medsyncpro.entity.VerificationStatus;
+import com.medsyncpro.event.UserSignupEvent;
+import com.medsyncpro.event.VerificationDecisionEvent;
+import com.medsyncpro.repository.DoctorClinicRepository;
+import com.medsyncpro.repository.DoctorRepository;
+import com.medsyncpro.repository.DoctorSearchDocumentRepository;
+import com.medsyncpro.repository.DoctorSettingsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains {@link DoctorSearchDocument} rows used by the full-text doctor search.
+ * Every doctor gets a document when their signup commits; call {@link #reindexDoctor}
+ * whenever a doctor's searchable fields change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorSearchIndexService {
+
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    private final DoctorSearchDocumentRepository searchDocumentRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorSettingsRepository doctorSettingsRepository;
+    private final DoctorClinicRepository doctorClinicRepository;
+    private final DoctorSettingsViewCache settingsViewCache;
+
+    @Transactional
+    public void reindexDoctor(UUID userId) {
+        reindexDoctors(List.of(userId));
+    }
+
+    /**
+     * Doctors are searchable by name from the moment they sign up.
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onSignup(UserSignupEvent event) {
+        if (event.getUser().getRole() == Role.DOCTOR) {
+            reindexDoctors(List.of(event.getUser().getId()));
+        }
+    }
+
+    /**
+     * Verification is what puts a doctor into search results; refresh the document then too.
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onVerificationDecision(VerificationDecisionEvent event) {
+        if (event.getUser().getRole() == Role.DOCTOR && event.getDecision() == VerificationStatus.VERIFIED) {
+            reindexDoctors(List.of(event.getUser().getId()));
+        }
+    }
+
+    /**
+     * Repair pass: index doctors that still have no document (registered before search
+     * documents existed, or whose after-commit indexing failed).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillMissing() {
+        List<UUID> missing = searchDocumentRepository.findUnindexedDoctorUserIds();
+        for (int i = 0; i < missing.size(); i += BACKFILL_BATCH_SIZE) {
+            reindexDoctors(missing.subList(i, Math.min(i + BACKFILL_BATCH_SIZE, missing.size())));
+        }
+        if (!missing.isEmpty()) {
+            log.info("Indexed {} doctors for search", missing.size());
+        }
+    }
+
+    private void reindexDoctors(List<UUID> userIds) {
+        Map<UUID, Doctor> doctors = doctorRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(d -> d.getUser().getId(), d -> d));
+        Map<UUID, DoctorSettings> settings = doctorSettingsRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(s -> s.getUser().getId(), s -> s));
+        Map<UUID, List<DoctorClinic>> clinics = doctorClinicRepository
+                .findByUserIdInOrderByIsPrimaryDescCreatedAtAsc(userIds).stream()
+                .collect(Collectors.groupingBy(c -> c.getUser().getId()));
+
+        List<DoctorSearchDocument> documents = new ArrayList<>();
+        for (UUID userId : userIds) {
+            Doctor doctor = doctors.get(userId);
+            if (doctor == null) {
+                continue;
+            }
+            DoctorSearchDocument doc = new DoctorSearchDocument();
+            doc.setUserId(userId);
+            doc.setSearchText(buildSearchText(doctor, settings.get(userId), clinics.getOrDefault(userId, List.of())));
+            doc.setUpdatedAt(LocalDateTime.now());
+            documents.add(doc);
+        }
+        searchDocumentRepository.saveAll(documents);
+    }
+
+    private String buildSearchText(Doctor doctor, DoctorSettings settings, List<DoctorClinic> clinics) {
+        List<String> parts = new ArrayList<>();
+        parts.add(doctor.getName());
+        if (settings != null) {
+            parts.add(settings.getSpecialty());
+            parts.add(settings.getQualifications());
+            DoctorSettingsView view = settingsViewCache.get(settings);
+            parts.addAll(view.expertise());
+            parts.addAll(view.languages());
+        }
+        for (DoctorClinic clinic : clinics) {
+            parts.add(clinic.getClinicName());
+            parts.add(clinic.getCity());
+            parts.add(clinic.getAddress());
+        }
+        return parts.stream()
+                .filter(p -> p != null && !p.isBlank())
+                .map(String::trim)
+                .collect(Collectors.joining(" "));
+    }
+}
@@ -1,7 +1,5 @@
 package com.medsyncpro.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medsyncpro.dto.doctor.*;
 import com.medsyncpro.entity.*;
 import com.medsyncpro.exception.ResourceNotFoundException;
@@ -25,8 +23,8 @@ public class DoctorSearchService {
     private final UserProfileHelper userProfileHelper;
     private final DoctorSettingsRepository doctorSettingsRepository;
     private final DoctorClinicRepository doctorClinicRepository;
-
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DoctorRepository doctorRepository;
+    private final DoctorSettingsViewCache settingsViewCache;
 
     // ══════════════════════════════════════════════════════════════
     // SEARCH DOCTORS
@@ -40,79 +38,44 @@ public class DoctorSearchService {
             boolean availableOnly,
             Pageable pageable) {
 
-        // 1. Intercept and remove the "name" sort from the DB query
-        Pageable dbPageable = pageable;
-        boolean sortByName = false;
-        Sort.Direction nameDirection = Sort.Direction.ASC;
-
-        if (pageable.getSort().isSorted()) {
-            for (Sort.Order order : pageable.getSort()) {
-                if ("name".equalsIgnoreCase(order.getProperty())) {
-                    sortByName = true;
-                    nameDirection = order.getDirection();
-                    break;
-                }
+        // "relevance" ranks full-text/trigram matches first (only meaningful with a query);
+        // name is always the secondary order, direction taken from the request
+        boolean relevance = false;
+        boolean nameDesc = false;
+        for (Sort.Order order : pageable.getSort()) {
+            if ("relevance".equalsIgnoreCase(order.getProperty())) {
+                relevance = true;
+            } else if ("name".equalsIgnoreCase(order.getProperty())) {
+                nameDesc = order.isDescending();
             }
         }
 
-        if (sortByName) {
-            // Strip the sort property to prevent Hibernate UnknownPathException
-            dbPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
-        }
-
-        // Fetch all doctors (role-based) using the safe pageable
-        Page<User> doctorPage = userRepository.findByRoleAndDeletedFalse(Role.DOCTOR, dbPageable);
+        String q = toLikeParam(query);
+        String queryText = query == null ? "" : query.trim();
+        boolean rankByRelevance = relevance && !queryText.isEmpty();
+        String spec = toLikeParam(specialization);
+        String loc = toLikeParam(location);
 
-        List<User> doctors = doctorPage.getContent();
+        // One round trip: filters, sort, page window and total (COUNT(*) OVER ()) in SQL
+        List<DoctorSearchRow> rows = doctorRepository.searchVerifiedDoctors(
+                q, queryText, spec, loc, availableOnly, rankByRelevance, nameDesc,
+                pageable.getPageSize(), pageable.getOffset());
 
-        if (doctors.isEmpty()) {
-            return Page.empty(pageable);
+        long total;
+        if (!rows.isEmpty()) {
+            total = rows.get(0).getTotalCount();
+        } else if (pageable.getOffset() == 0) {
+            total = 0;
+        } else {
+            // Page past the end carries no window count
+            total = doctorRepository.countVerifiedDoctors(q, queryText, spec, loc, availableOnly);
         }
 
-        List<UUID> doctorIds = doctors.stream().map(User::getId).collect(Collectors.toList());
-
-        Map<UUID, DoctorSettings> settingsMap = buildSettingsMap(doctorIds);
-        Map<UUID, List<DoctorClinic>> clinicsMap = buildClinicsMap(doctorIds);
-
-        List<DoctorSearchResult> results = doctors.stream()
-                // Only VERIFIED doctors
-                .filter(u -> userProfileHelper.getVerificationStatus(u) == VerificationStatus.VERIFIED)
-                // Only visible profiles
-                .filter(u -> isProfileVisible(settingsMap.get(u.getId())))
-                // Search filtering
-                .filter(u -> matchesQuery(
-                        u,
-                        settingsMap.get(u.getId()),
-                        clinicsMap.get(u.getId()),
-                        query))
-                .filter(u -> matchesSpecialization(settingsMap.get(u.getId()), specialization))
-                .filter(u -> matchesLocation(
-                        u,
-                        settingsMap.get(u.getId()),
-                        clinicsMap.get(u.getId()),
-                        location))
-                .filter(u -> !availableOnly || Boolean.TRUE.equals(settingsMap.get(u.getId()) != null
-                        ? settingsMap.get(u.getId()).getAvailableForConsultation()
-                        : false))
-                .map(u -> toSearchResult(
-                        u,
-                        settingsMap.get(u.getId()),
-                        clinicsMap.getOrDefault(u.getId(), List.of())))
+        List<DoctorSearchResult> results = rows.stream()
+                .map(this::toSearchResult)
                 .collect(Collectors.toList());
 
-        // 2. Re-apply the alphabetical name sort in-memory
-        if (sortByName) {
-            Comparator<DoctorSearchResult> comp = Comparator.comparing(
-                    d -> d.getName() == null ? "" : d.getName().toLowerCase());
-            if (nameDirection == Sort.Direction.DESC) {
-                comp = comp.reversed();
-            }
-            results.sort(comp);
-        }
-
-        // Return the modified results while preserving the original frontend pagination
-        // state
-        return new PageImpl<>(results, pageable, doctorPage.getTotalElements());
+        return new PageImpl<>(results, pageable, total);
     }
 
     // ══════════════════════════════════════════════════════════════
@@ -129,7 +92,10 @@ public class DoctorSearchService {
             throw new ResourceNotFoundException("Doctor not found");
         }
 
-        if (userProfileHelper.getVerificationStatus(doctor) != VerificationStatus.VERIFIED) {
+        // One doctors + one verification_requests query instead of a lookup per field
+        UserProfileHelper.Profile profile = userProfileHelper.resolveProfile(doctor);
+
+        if (profile.verificationStatus() != VerificationStatus.VERIFIED) {
             throw new ResourceNotFoundException("Doctor not found");
         }
 
@@ -143,28 +109,28 @@ public class DoctorSearchService {
         List<DoctorClinic> clinics = doctorClinicRepository
                 .findByUserIdOrderByIsPrimaryDescCreatedAtAsc(doctor.getId());
 
-        boolean showContact = getPrivacyFlag(settings, "showContact", false);
+        DoctorSettingsView settingsView = settingsViewCache.get(settings);
+        boolean showContact = settingsView.privacyFlag("showContact", false);
 
         return DoctorPublicProfile.builder()
                 .id(doctor.getId().toString())
-                .name(userProfileHelper.getName(doctor))
+                .name(profile.name())
                 .email(showContact ? doctor.getEmail() : null)
                 .phone(showContact ? doctor.getPhone() : null)
-                .profileImageUrl(userProfileHelper.getProfileImage(doctor))
-                .bio(userProfileHelper.getBio(doctor))
-                .gender(userProfileHelper.getGender(doctor) != null
-                        ? userProfileHelper.getGender(doctor).name()
+                .profileImageUrl(profile.profileImage())
+                .bio(profile.bio())
+                .gender(profile.gender() != null
+                        ? profile.gender().name()
                         : null)
                 .city(userProfileHelper.getCity(doctor))
                 .state(userProfileHelper.getState(doctor))
-                .verificationStatus(
-                        userProfileHelper.getVerificationStatus(doctor).name())
+                .verificationStatus(profile.verificationStatus().name())
                 .specialty(settings.getSpecialty())
                 .qualifications(settings.getQualifications())
-                .experienceYears(userProfileHelper.getExperienceYears(doctor))
+                .experienceYears(profile.experienceYears())
                 .consultationFee(settings.getConsultationFee())
-                .languages(parseJsonList(settings.getLanguages()))
-                .expertise(parseJsonList(settings.getExpertise()))
+                .languages(settingsView.languages())
+                .expertise(settingsView.expertise())
                 .clinics(clinics.stream()
                         .map(c -> ClinicResponse.builder()
                                 .id(String.valueOf(c.getId()))
@@ -185,25 +151,6 @@ public class DoctorSearchService {
     // HELPERS
     // ══════════════════════════════════════════════════════════════
 
-    private Map<UUID, DoctorSettings> buildSettingsMap(List<UUID> ids) {
-        Map<UUID, DoctorSettings> map = new HashMap<>();
-        for (UUID id : ids) {
-            doctorSettingsRepository.findByUserId(id)
-                    .ifPresent(s -> map.put(id, s));
-        }
-        return map;
-    }
-
-    private Map<UUID, List<DoctorClinic>> buildClinicsMap(List<UUID> ids) {
-        Map<UUID, List<DoctorClinic>> map = new HashMap<>();
-        for (UUID id : ids) {
-            map.put(id,
-                    doctorClinicRepository
-                            .findByUserIdOrderByIsPrimaryDescCreatedAtAsc(id));
-        }
-        return map;
-    }
-
     private boolean isProfileVisible(DoctorSettings settings) {
         return getPrivacyFlag(settings, "profileVisible", true);
     }
@@ -211,132 +158,38 @@ public class DoctorSearchService {
     private boolean getPrivacyFlag(DoctorSettings settings,
             String key,
             boolean defaultValue) {
-        if (settings == null || settings.getPrivacySettings() == null)
-            return defaultValue;
-
-        try {
-            Map<String, Boolean> privacy = objectMapper.readValue(settings.getPrivacySettings(),
-                    new TypeReference<>() {
-                    });
-            return privacy.getOrDefault(key, defaultValue);
-        } catch (Exception e) {
-            return defaultValue;
-        }
-    }
-
-    private boolean matchesQuery(User user,
-            DoctorSettings settings,
-            List<DoctorClinic> clinics,
-            String query) {
-
-        if (query == null || query.isBlank())
-            return true;
-
-        String q = query.toLowerCase();
-
-        if (userProfileHelper.getName(user) != null &&
-                userProfileHelper.getName(user).toLowerCase().contains(q))
-            return true;
-
-        if (settings != null) {
-            if (settings.getSpecialty() != null &&
-                    settings.getSpecialty().toLowerCase().contains(q))
-                return true;
-            if (settings.getQualifications() != null &&
-                    settings.getQualifications().toLowerCase().contains(q))
-                return true;
-        }
-
-        if (clinics != null) {
-            for (DoctorClinic clinic : clinics) {
-                if (clinic.getClinicName() != null &&
-                        clinic.getClinicName().toLowerCase().contains(q))
-                    return true;
-            }
-        }
-
-        return false;
+        return settingsViewCache.get(settings).privacyFlag(key, defaultValue);
     }
 
-    private boolean matchesSpecialization(DoctorSettings settings, String specialization) {
-        if (specialization == null || specialization.isBlank()) {
-            return true;
-        }
-        if (settings == null || settings.getSpecialty() == null) {
-            return false;
-        }
-        return settings.getSpecialty().toLowerCase().contains(specialization.toLowerCase());
-    }
-
-    private boolean matchesLocation(User user, DoctorSettings settings, List<DoctorClinic> clinics, String location) {
-        if (location == null || location.isBlank()) {
-            return true;
-        }
-        String q = location.toLowerCase();
-
-        if (userProfileHelper.getCity(user) != null && userProfileHelper.getCity(user).toLowerCase().contains(q)) {
-            return true;
-        }
-        if (userProfileHelper.getState(user) != null && userProfileHelper.getState(user).toLowerCase().contains(q)) {
-            return true;
-        }
-        if (clinics != null) {
-            for (DoctorClinic clinic : clinics) {
-                if (clinic.getCity() != null && clinic.getCity().toLowerCase().contains(q)) {
-                    return true;
-                }
-                if (clinic.getAddress() != null && clinic.getAddress().toLowerCase().contains(q)) {
-                    return true;
-                }
-            }
-        }
-        if (settings != null && settings.getSpecialty() != null && settings.getSpecialty().toLowerCase().contains(q)) {
-            return true;
-        }
-
-        return false;
-    }
-
-    private DoctorSearchResult toSearchResult(User user,
-            DoctorSettings settings,
-            List<DoctorClinic> clinics) {
-
-        DoctorClinic primary = clinics.stream()
-                .filter(c -> Boolean.TRUE.equals(c.getIsPrimary()))
-                .findFirst()
-                .orElse(null);
-
+    private DoctorSearchResult toSearchResult(DoctorSearchRow row) {
         return DoctorSearchResult.builder()
-                .id(user.getId().toString())
-                .name(userProfileHelper.getName(user))
-                .email(user.getEmail())
-                .phone(user.getPhone())
-                .profileImageUrl(userProfileHelper.getProfileImage(user))
-                .bio(userProfileHelper.getBio(user))
-                .specialty(settings != null ? settings.getSpecialty() : null)
-                .qualifications(settings != null ? settings.getQualifications() : null)
-                .experienceYears(userProfileHelper.getExperienceYears(user))
-                .consultationFee(settings != null ? settings.getConsultationFee() : null)
-                .verificationStatus(
-                        userProfileHelper.getVerificationStatus(user).name())
-                .primaryClinicName(primary != null ? primary.getClinicName() : null)
-                .primaryClinicCity(primary != null ? primary.getCity() : null)
-                .availableForConsultation(
-                        settings != null ? settings.getAvailableForConsultation() : null)
-                .onlineConsultationEnabled(
-                        settings != null ? settings.getOnlineConsultationEnabled() : null)
+                .id(row.getUserId().toString())
+                .name(row.getName())
+                .email(row.getEmail())
+                .phone(row.getPhone())
+                .profileImageUrl(row.getProfileImage())
+                .bio(row.getBio())
+                .specialty(row.getSpecialty())
+                .qualifications(row.getQualifications())
+                .experienceYears(row.getExperienceYears())
+                .consultationFee(row.getConsultationFee())
+                .verificationStatus(VerificationStatus.VERIFIED.name())
+                .primaryClinicName(row.getPrimaryClinicName())
+                .primaryClinicCity(row.getPrimaryClinicCity())
+                .availableForConsultation(row.getAvailableForConsultation())
+                .onlineConsultationEnabled(row.getOnlineConsultationEnabled())
                 .build();
     }
 
-    private List<String> parseJsonList(String json) {
-        if (json == null || json.isBlank())
-            return List.of();
-        try {
-            return objectMapper.readValue(json,
-                    new TypeReference<List<String>>() {
-                    });
-        } catch (Exception e) {
-            return List.of();
-        }
+    /**
+     * Blank → '' (filter disabled); otherwise escape LIKE wildcards so input matches literally.
+     */
+    private String toLikeParam(String value) {
+        if (value == null || value.isBlank())
+            return "";
+        return value.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 }
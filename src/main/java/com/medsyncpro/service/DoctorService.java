@@ -18,7 +18,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medsyncpro.dto.request.AppointmentRescheduleRequest;
 import com.medsyncpro.dto.request.DoctorDocumentUploadRequest;
 import com.medsyncpro.dto.response.AppointmentResponse;
@@ -31,6 +30,7 @@ import com.medsyncpro.event.AppointmentCancelledEvent;
 import com.medsyncpro.exception.ResourceNotFoundException;
 import com.medsyncpro.repository.*;
 import com.medsyncpro.response.ApiResponse;
+import com.medsyncpro.utils.JsonColumns;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -54,8 +54,10 @@ public class DoctorService {
         private final PatientRepository patientRepository;
 
         private final FileStorageService fileStorageService;
+        private final SlotAvailabilityService slotAvailabilityService;
+        private final AppointmentBookingGuard bookingGuard;
 
-        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final JsonColumns jsonColumns;
 
         // ─── Profile ─────────────────────────────────────────────────────────────
 
@@ -99,8 +101,12 @@ public class DoctorService {
         public Page<AppointmentResponse> getDoctorAppointments(UUID doctorUserId, Pageable pageable) {
                 Page<Appointment> page = appointmentRepository
                                 .findByDoctorUserIdOrderByScheduledDateDescScheduledTimeDesc(doctorUserId, pageable);
+                // Every row has the same doctor: resolve the settings specialty once, not per appointment
+                Map<UUID, String> settingsSpecialties = new HashMap<>();
+                doctorSettingsRepository.findByUserIdIn(List.of(doctorUserId))
+                                .forEach(s -> settingsSpecialties.put(s.getUser().getId(), s.getSpecialty()));
                 List<AppointmentResponse> responses = page.getContent().stream()
-                                .map(this::toAppointmentResponse)
+                                .map(a -> toAppointmentResponse(a, settingsSpecialties))
                                 .collect(Collectors.toList());
                 return new PageImpl<>(responses, pageable, page.getTotalElements());
         }
@@ -255,9 +261,7 @@ public class DoctorService {
                         // Safely parse the JSON medicines array
                         try {
                                 if (p.getMedicines() != null && !p.getMedicines().isBlank()) {
-                                        List<Map<String, Object>> meds = objectMapper.readValue(p.getMedicines(),
-                                                        new com.fasterxml.jackson.core.type.TypeReference<List<Map<String, Object>>>() {
-                                                        });
+                                        List<Map<String, Object>> meds = jsonColumns.readObjectList(p.getMedicines());
                                         map.put("medicines", meds);
                                 } else {
                                         map.put("medicines", new ArrayList<>());
@@ -305,6 +309,7 @@ public class DoctorService {
                 appointment.setStatus(AppointmentStatus.REJECTED);
                 appointment.setCancellationReason(reason);
                 appointmentRepository.save(appointment);
+                slotAvailabilityService.invalidate(doctorUserId);
                 eventPublisher.publishEvent(new AppointmentCancelledEvent(this, appointment, "DOCTOR"));
                 return toAppointmentResponse(appointment);
         }
@@ -328,6 +333,7 @@ public class DoctorService {
                 int slotDuration = settings != null ? settings.getSlotDurationMinutes() : 30;
                 java.time.LocalTime newEndTime = request.getScheduledTime().plusMinutes(slotDuration);
 
+                bookingGuard.lockDoctorSchedule(appointment.getDoctor().getId());
                 List<Appointment> conflicts = appointmentRepository.findConflicting(
                                 appointment.getDoctor().getId(),
                                 request.getScheduledDate(),
@@ -350,7 +356,8 @@ public class DoctorService {
                         appointment.setDoctorNotes(existing + "Rescheduled reason: " + request.getReason());
                 }
 
-                appointmentRepository.save(appointment);
+                bookingGuard.saveAppointment(appointment, "Requested reschedule slot is already booked");
+                slotAvailabilityService.invalidate(doctorUserId);
 
                 notificationDispatchService.notifyUser(
                                 appointment.getPatient().getUser(),
@@ -388,6 +395,7 @@ public class DoctorService {
                 appointment.setStatus(AppointmentStatus.CANCELLED);
                 appointment.setCancellationReason(reason != null ? reason : "Cancelled by doctor");
                 appointmentRepository.save(appointment);
+                slotAvailabilityService.invalidate(doctorUserId);
                 eventPublisher.publishEvent(new AppointmentCancelledEvent(this, appointment, "DOCTOR"));
                 return toAppointmentResponse(appointment);
         }
@@ -411,7 +419,7 @@ public class DoctorService {
                         Map<String, Object> body) {
                 Appointment appointment = getAndValidateAppointment(doctorUserId, appointmentId);
                 try {
-                        String prescriptionJson = objectMapper.writeValueAsString(body);
+                        String prescriptionJson = jsonColumns.write(body);
                         appointment.setPrescription(prescriptionJson);
                         if (body.containsKey("diagnosis"))
                                 appointment.setDiagnosis(String.valueOf(body.get("diagnosis")));
@@ -426,7 +434,7 @@ public class DoctorService {
                                                         .build());
 
                         String medicinesJson = body.containsKey("medicines")
-                                        ? objectMapper.writeValueAsString(body.get("medicines"))
+                                        ? jsonColumns.write(body.get("medicines"))
                                         : prescriptionJson;
 
                         prescriptionEntity.setMedicines(medicinesJson);
@@ -650,6 +658,10 @@ public class DoctorService {
         }
 
         private AppointmentResponse toAppointmentResponse(Appointment appt) {
+                return toAppointmentResponse(appt, null);
+        }
+
+        private AppointmentResponse toAppointmentResponse(Appointment appt, Map<UUID, String> settingsSpecialties) {
                 Doctor doctor = appt.getDoctor();
                 Patient patient = appt.getPatient();
                 User doctorUser = doctor.getUser();
@@ -658,6 +670,8 @@ public class DoctorService {
                 String specialtyName = null;
                 if (doctor.getSpecialization() != null) {
                         specialtyName = doctor.getSpecialization().getName();
+                } else if (settingsSpecialties != null) {
+                        specialtyName = settingsSpecialties.get(doctorUser.getId());
                 } else {
                         DoctorSettings settings = doctorSettingsRepository
                                         .findByUserId(doctorUser.getId()).orElse(null);
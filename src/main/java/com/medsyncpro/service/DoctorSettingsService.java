@@ -1,6 +1,5 @@
 package com.medsyncpro.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.medsyncpro.dto.doctor.*;
 import com.medsyncpro.entity.Doctor;
 import com.medsyncpro.entity.DoctorClinic;
@@ -12,6 +11,7 @@ import com.medsyncpro.repository.DoctorClinicRepository;
 import com.medsyncpro.repository.DoctorRepository;
 import com.medsyncpro.repository.DoctorSettingsRepository;
 import com.medsyncpro.repository.UserRepository;
+import com.medsyncpro.utils.JsonColumns;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -31,8 +31,12 @@ public class DoctorSettingsService {
     private final DoctorClinicRepository clinicRepo;
     private final UserRepository userRepo;
     private final PasswordEncoder passwordEncoder;
-    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper = new com.fasterxml.jackson.databind.ObjectMapper();
+    private final UserPrincipalCache userPrincipalCache;
+    private final JsonColumns jsonColumns;
     private final DoctorRepository doctorRepository;
+    private final DoctorSearchIndexService searchIndexService;
+    private final DoctorSettingsViewCache settingsViewCache;
+    private final SlotAvailabilityService slotAvailabilityService;
 
     // ── Helper: get-or-create settings row ──
     private DoctorSettings getOrCreateSettings(UUID userId) {
@@ -50,36 +54,18 @@ public class DoctorSettingsService {
     }
 
     // ── JSON helpers ──
-    private List<String> parseJsonList(String json) {
-        if (json == null || json.isBlank()) return List.of();
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
-        } catch (Exception e) {
-            return List.of();
-        }
-    }
-
     private String toJsonList(List<String> list) {
         if (list == null) return "[]";
         try {
-            return objectMapper.writeValueAsString(list);
+            return jsonColumns.write(list);
         } catch (Exception e) {
             return "[]";
         }
     }
 
-    private Map<String, Boolean> parseJsonBoolMap(String json) {
-        if (json == null || json.isBlank()) return Map.of();
-        try {
-            return objectMapper.readValue(json, new TypeReference<Map<String, Boolean>>() {});
-        } catch (Exception e) {
-            return Map.of();
-        }
-    }
-
     private String toJson(Object obj) {
         try {
-            return objectMapper.writeValueAsString(obj);
+            return jsonColumns.write(obj);
         } catch (Exception e) {
             return "{}";
         }
@@ -91,6 +77,7 @@ public class DoctorSettingsService {
 
     public ProfessionalInfoResponse getProfessionalInfo(UUID userId) {
         DoctorSettings ds = getOrCreateSettings(userId);
+        DoctorSettingsView view = settingsViewCache.get(ds);
         Doctor doctor = doctorRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor profile not found"));
 
@@ -100,8 +87,8 @@ public class DoctorSettingsService {
                 .experienceYears(doctor.getExperienceYears())
                 .medRegNumber(ds.getMedRegNumber())
                 .consultationFee(ds.getConsultationFee())
-                .languages(parseJsonList(ds.getLanguages()))
-                .expertise(parseJsonList(ds.getExpertise()))
+                .languages(view.languages())
+                .expertise(view.expertise())
                 .build();
     }
 
@@ -123,6 +110,7 @@ public class DoctorSettingsService {
         doctor.setUpdatedAt(LocalDateTime.now());
         settingsRepo.save(ds);
         doctorRepository.save(doctor);
+        searchIndexService.reindexDoctor(userId);
 
         return getProfessionalInfo(userId);
     }
@@ -160,6 +148,7 @@ public class DoctorSettingsService {
         }
 
         clinic = clinicRepo.save(clinic);
+        searchIndexService.reindexDoctor(clinic.getUser().getId());
         return ClinicResponse.builder()
                 .id(clinic.getId().toString())
                 .clinicName(clinic.getClinicName())
@@ -189,6 +178,7 @@ public class DoctorSettingsService {
         }
 
         clinic = clinicRepo.save(clinic);
+        searchIndexService.reindexDoctor(clinic.getUser().getId());
         return ClinicResponse.builder()
                 .id(clinic.getId().toString())
                 .clinicName(clinic.getClinicName())
@@ -206,6 +196,7 @@ public class DoctorSettingsService {
             throw new BusinessException("FORBIDDEN", "Not your clinic");
         }
         clinicRepo.delete(clinic);
+        searchIndexService.reindexDoctor(UUID.fromString(userId));
     }
 
     // ═══════════════════════════════════════════
@@ -217,15 +208,8 @@ public class DoctorSettingsService {
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("availableForConsultation", ds.getAvailableForConsultation());
 
-        if (ds.getWeeklySchedule() != null && !ds.getWeeklySchedule().isBlank()) {
-            try {
-                result.put("weeklySchedule", objectMapper.readValue(ds.getWeeklySchedule(), Object.class));
-            } catch (Exception e) {
-                result.put("weeklySchedule", getDefaultSchedule());
-            }
-        } else {
-            result.put("weeklySchedule", getDefaultSchedule());
-        }
+        Map<String, Object> weeklySchedule = settingsViewCache.get(ds).weeklySchedule();
+        result.put("weeklySchedule", weeklySchedule != null ? weeklySchedule : getDefaultSchedule());
         return result;
     }
 
@@ -236,6 +220,7 @@ public class DoctorSettingsService {
         if (req.getWeeklySchedule() != null) ds.setWeeklySchedule(toJson(req.getWeeklySchedule()));
         ds.setUpdatedAt(LocalDateTime.now());
         settingsRepo.save(ds);
+        slotAvailabilityService.invalidate(userId);
         return getAvailability(userId);
     }
 
@@ -284,6 +269,7 @@ public class DoctorSettingsService {
         if (req.getOnlineConsultationEnabled() != null) ds.setOnlineConsultationEnabled(req.getOnlineConsultationEnabled());
         ds.setUpdatedAt(LocalDateTime.now());
         settingsRepo.save(ds);
+        slotAvailabilityService.invalidate(userId);
         return getConsultationSettings(userId);
     }
 
@@ -303,7 +289,7 @@ public class DoctorSettingsService {
 
     public Map<String, Boolean> getNotificationPrefs(UUID userId) {
         DoctorSettings ds = getOrCreateSettings(userId);
-        Map<String, Boolean> stored = parseJsonBoolMap(ds.getNotificationPrefs());
+        Map<String, Boolean> stored = settingsViewCache.get(ds).notificationPrefs();
         if (stored.isEmpty()) return new LinkedHashMap<>(DEFAULT_NOTIF_PREFS);
         // Merge with defaults (in case new keys added)
         Map<String, Boolean> merged = new LinkedHashMap<>(DEFAULT_NOTIF_PREFS);
@@ -335,7 +321,7 @@ public class DoctorSettingsService {
 
     public Map<String, Boolean> getPrivacySettings(UUID userId) {
         DoctorSettings ds = getOrCreateSettings(userId);
-        Map<String, Boolean> stored = parseJsonBoolMap(ds.getPrivacySettings());
+        Map<String, Boolean> stored = settingsViewCache.get(ds).privacySettings();
         if (stored.isEmpty()) return new LinkedHashMap<>(DEFAULT_PRIVACY);
         Map<String, Boolean> merged = new LinkedHashMap<>(DEFAULT_PRIVACY);
         merged.putAll(stored);
@@ -348,6 +334,7 @@ public class DoctorSettingsService {
         Map<String, Boolean> current = getPrivacySettings(userId);
         if (req.getSettings() != null) current.putAll(req.getSettings());
         ds.setPrivacySettings(toJson(current));
+        ds.setProfileVisible(!Boolean.FALSE.equals(current.get("profileVisible")));
         ds.setUpdatedAt(LocalDateTime.now());
         settingsRepo.save(ds);
         return current;
@@ -372,6 +359,7 @@ public class DoctorSettingsService {
         user.setTokenVersion(user.getTokenVersion() + 1); // Invalidate existing sessions
         user.setUpdatedAt(LocalDateTime.now());
         userRepo.save(user);
+        userPrincipalCache.evict(user);
         log.info("Password changed for user {}", userId);
     }
 
@@ -417,6 +405,7 @@ public class DoctorSettingsService {
         user.setDeleted(true);
         user.setUpdatedAt(LocalDateTime.now());
         userRepo.save(user);
+        userPrincipalCache.evict(user);
         log.info("Account deactivated for user {}", userId);
     }
 
@@ -426,6 +415,7 @@ public class DoctorSettingsService {
         user.setDeleted(true);
         user.setUpdatedAt(LocalDateTime.now());
         userRepo.save(user);
+        userPrincipalCache.evict(user);
         log.info("Account deletion requested for user {}", userId);
     }
 }
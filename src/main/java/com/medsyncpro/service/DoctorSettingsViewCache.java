@@ -0,0 +1,130 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.dto.doctor.DoctorSettingsView;
+import com.medsyncpro.entity.DoctorSettings;
+import com.medsyncpro.utils.JsonColumns;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses the JSON columns of a DoctorSettings row once per entity version and
+ * serves the typed view from memory afterwards, so hot paths (search, profile,
+ * slot generation) never touch Jackson for settings.
+ *
+ * An entry is reused only if the row's @Version and the raw JSON strings both match,
+ * which also covers in-transaction edits that haven't been flushed (version unchanged).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorSettingsViewCache {
+
+    private static final int MAX_ENTRIES = 20_000;
+
+    private static final DoctorSettingsView EMPTY = new DoctorSettingsView(Map.of(), Map.of(), List.of(), List.of(), null);
+
+    private record Entry(Long version, String privacy, String notifications, String languages,
+            String expertise, String weeklySchedule, DoctorSettingsView view) {
+
+        boolean matches(DoctorSettings ds) {
+            return Objects.equals(version, ds.getVersion())
+                    && Objects.equals(privacy, ds.getPrivacySettings())
+                    && Objects.equals(notifications, ds.getNotificationPrefs())
+                    && Objects.equals(languages, ds.getLanguages())
+                    && Objects.equals(expertise, ds.getExpertise())
+                    && Objects.equals(weeklySchedule, ds.getWeeklySchedule());
+        }
+    }
+
+    // settings id → parsed entry
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private final JsonColumns jsonColumns;
+
+    public DoctorSettingsView get(DoctorSettings ds) {
+        if (ds == null) {
+            return EMPTY;
+        }
+        // Transient (never saved) settings have no id/version to key on
+        if (ds.getId() == null || ds.getVersion() == null) {
+            return parse(ds);
+        }
+
+        Entry entry = entries.get(ds.getId());
+        if (entry != null && entry.matches(ds)) {
+            return entry.view();
+        }
+
+        DoctorSettingsView view = parse(ds);
+        if (entries.size() >= MAX_ENTRIES) {
+            Iterator<UUID> it = entries.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        entries.put(ds.getId(), new Entry(ds.getVersion(), ds.getPrivacySettings(), ds.getNotificationPrefs(),
+                ds.getLanguages(), ds.getExpertise(), ds.getWeeklySchedule(), view));
+        return view;
+    }
+
+    private DoctorSettingsView parse(DoctorSettings ds) {
+        return new DoctorSettingsView(
+                readBoolMap(ds.getPrivacySettings()),
+                readBoolMap(ds.getNotificationPrefs()),
+                readStringList(ds.getLanguages()),
+                readStringList(ds.getExpertise()),
+                readSchedule(ds.getWeeklySchedule()));
+    }
+
+    private Map<String, Boolean> readBoolMap(String json) {
+        if (json == null || json.isBlank()) return Map.of();
+        try {
+            Map<String, Boolean> parsed = jsonColumns.readBooleanMap(json);
+            return Collections.unmodifiableMap(new LinkedHashMap<>(parsed));
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+
+    private List<String> readStringList(String json) {
+        if (json == null || json.isBlank()) return List.of();
+        try {
+            List<String> parsed = jsonColumns.readStringList(json);
+            return Collections.unmodifiableList(new ArrayList<>(parsed));
+        } catch (Exception e) {
+            return List.of();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readSchedule(String json) {
+        if (json == null || json.isBlank()) return null;
+        try {
+            Map<String, Object> parsed = jsonColumns.readObjectMap(json);
+            return (Map<String, Object>) freeze(parsed);
+        } catch (Exception e) {
+            log.warn("Failed to parse weekly schedule: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Deep read-only copy of a Jackson Map/List tree
+    private Object freeze(Object node) {
+        if (node instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(k, freeze(v)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (node instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(v -> copy.add(freeze(v)));
+            return Collections.unmodifiableList(copy);
+        }
+        return node;
+    }
+}
@@ -1,37 +1,27 @@
 package com.medsyncpro.service;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    @Value("${brevo.api.key}")
-    private String brevoApiKey;
+    private final BrevoEmailClient brevoEmailClient;
 
     @Value("${app.frontend.url}")
     private String frontendUrl;
 
-    @Value("${brevo.from.email}")
-    private String fromEmail;
-
-    @Value("${brevo.from.name}")
-    private String fromName;
-
     // ─── Email-address verification (existing) ────────────────────────────────
 
-    @Async
+    @Async("emailExecutor")
     public void sendVerificationEmail(String email, String token) {
         String html = """
                 <div style="font-family:sans-serif;max-width:560px;margin:0 auto">
@@ -52,7 +42,7 @@ public class EmailService {
 
     // ─── Verification approved ────────────────────────────────────────────────
 
-    @Async
+    @Async("emailExecutor")
     public void sendVerificationApprovedEmail(String email, String name) {
         String displayName = (name != null && !name.isBlank()) ? name : "Doctor";
         String html = """
@@ -80,7 +70,7 @@ public class EmailService {
     }
 
     // ─── Verification rejected ────────────────────────────────────────────────
-    @Async
+    @Async("emailExecutor")
     public void sendVerificationRejectedEmail(String email, String name, String reason) {
         String displayName = (name != null && !name.isBlank()) ? name : "Doctor";
         String reasonText = (reason != null && !reason.isBlank()) ? reason : "No specific reason was provided.";
@@ -115,7 +105,7 @@ public class EmailService {
 
     // ─── Document re-upload request ───────────────────────────────────────────
 
-    @Async
+    @Async("emailExecutor")
     public void sendResubmitRequestEmail(String email,
             String name,
             List<String> documentTypeNames,
@@ -165,10 +155,10 @@ public class EmailService {
         send(email, "⚠️ MedSyncPro — Please Re-upload Your Documents", html);
     }
 
-    // ─── Private helper ───────────────────────────────────────────────────────
+    // ─── Generic notification (sent in batches by NotificationOutboxRelay) ────
 
-    @Async
-    public void sendGenericNotificationEmail(String email, String displayName, String subject, String message) {
+    public BrevoEmailClient.OutgoingEmail renderGenericNotificationEmail(
+            String email, String displayName, String subject, String message) {
         String safeName = (displayName != null && !displayName.isBlank()) ? displayName : "User";
         String html = """
                 <div style="font-family:sans-serif;max-width:560px;margin:0 auto">
@@ -180,27 +170,12 @@ public class EmailService {
                   </p>
                 </div>
                 """.formatted(subject, safeName, message);
-        send(email, subject, html);
+        return new BrevoEmailClient.OutgoingEmail(email, subject, html);
     }
+
+    // ─── Private helper ───────────────────────────────────────────────────────
+
     private void send(String toEmail, String subject, String htmlContent) {
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("api-key", brevoApiKey);
-
-            Map<String, Object> body = Map.of(
-                    "sender", Map.of("name", fromName, "email", fromEmail),
-                    "to", List.of(Map.of("email", toEmail)),
-                    "subject", subject,
-                    "htmlContent", htmlContent);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
-            restTemplate.postForEntity("https://api.brevo.com/v3/smtp/email", request, String.class);
-            log.info("[Email] Sent '{}' → {}", subject, toEmail);
-        } catch (Exception e) {
-            log.error("[Email] Failed to send '{}' → {}: {}", subject, toEmail, e.getMessage(), e);
-        }
+        brevoEmailClient.send(new BrevoEmailClient.OutgoingEmail(toEmail, subject, htmlContent));
     }
 }
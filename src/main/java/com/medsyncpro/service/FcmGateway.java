@@ -0,0 +1,31 @@
+package com.medsyncpro.service;
+
+import com.google.firebase.messaging.MessagingErrorCode;
+
+import java.util.List;
+
+/**
+ * The FCM call used by {@link FirebasePushService}, so push batching can be tested
+ * offline against a fake instead of a Firebase project.
+ */
+public interface FcmGateway {
+
+    /** FCM accepts at most this many messages per sendEach call. */
+    int MAX_BATCH_SIZE = 500;
+
+    record PushMessage(String token, String title, String body) {
+    }
+
+    /**
+     * Outcome of one message. {@code errorCode} is null on success or when the failure
+     * was not an FCM error.
+     */
+    record Result(boolean success, MessagingErrorCode errorCode, String error) {
+    }
+
+    /**
+     * Send up to {@link #MAX_BATCH_SIZE} messages; results are in message order.
+     * Throws if the whole request failed.
+     */
+    List<Result> sendEach(List<PushMessage> messages) throws Exception;
+}
@@ -0,0 +1,40 @@
+package com.medsyncpro.service;
+
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class FirebaseFcmGateway implements FcmGateway {
+
+    @Override
+    public List<Result> sendEach(List<PushMessage> messages) throws FirebaseMessagingException {
+        List<Message> fcmMessages = messages.stream()
+                .map(m -> Message.builder()
+                        .setToken(m.token())
+                        .setNotification(Notification.builder()
+                                .setTitle(m.title())
+                                .setBody(m.body())
+                                .build())
+                        .build())
+                .toList();
+        BatchResponse response = FirebaseMessaging.getInstance().sendEach(fcmMessages);
+        return response.getResponses().stream()
+                .map(FirebaseFcmGateway::toResult)
+                .toList();
+    }
+
+    private static Result toResult(SendResponse response) {
+        if (response.isSuccessful()) {
+            return new Result(true, null, null);
+        }
+        FirebaseMessagingException e = response.getException();
+        return new Result(false, e != null ? e.getMessagingErrorCode() : null, e != null ? e.getMessage() : null);
+    }
+}
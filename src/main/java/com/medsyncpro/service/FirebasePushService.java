@@ -1,34 +1,123 @@
 package com.medsyncpro.service;
 
-import com.google.firebase.messaging.FirebaseMessaging;
-import com.google.firebase.messaging.Message;
-import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.medsyncpro.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Push delivery over FCM. {@link #sendBatch} sends up to 500 messages per FCM sendEach call
+ * and clears {@code User.fcmToken} for tokens FCM reports as no longer registered.
+ *
+ * Metrics: push.batch.size, push.batch.duration, push.messages (tag outcome).
+ */
 @Service
 @Slf4j
 public class FirebasePushService {
 
+    public enum Outcome {
+        SENT,
+        /** Transient failure; worth retrying. */
+        FAILED,
+        /** The token is dead and has been cleared; retrying won't help. */
+        INVALID_TOKEN
+    }
+
+    private static final Set<MessagingErrorCode> INVALID_TOKEN_CODES =
+            EnumSet.of(MessagingErrorCode.UNREGISTERED, MessagingErrorCode.SENDER_ID_MISMATCH);
+
+    private final FcmGateway fcmGateway;
+    private final UserRepository userRepository;
+    private final DistributionSummary batchSize;
+    private final Timer batchDuration;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter invalidCounter;
+
+    public FirebasePushService(FcmGateway fcmGateway, UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.fcmGateway = fcmGateway;
+        this.userRepository = userRepository;
+        this.batchSize = DistributionSummary.builder("push.batch.size").register(meterRegistry);
+        this.batchDuration = Timer.builder("push.batch.duration").register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("push.messages", "outcome", "sent");
+        this.failedCounter = meterRegistry.counter("push.messages", "outcome", "failed");
+        this.invalidCounter = meterRegistry.counter("push.messages", "outcome", "invalid-token");
+    }
+
+    @Async("pushExecutor")
     public void sendPushNotification(String fcmToken, String title, String body) {
+        send(fcmToken, title, body);
+    }
+
+    /**
+     * Send on the calling thread. Returns false if FCM rejected the message or the call failed.
+     */
+    public boolean send(String fcmToken, String title, String body) {
         if (fcmToken == null || fcmToken.isEmpty()) {
             log.warn("FCM token is empty, cannot send notification.");
-            return;
+            return false;
+        }
+        return sendBatch(List.of(new FcmGateway.PushMessage(fcmToken, title, body))).get(0) == Outcome.SENT;
+    }
+
+    /**
+     * Send on the calling thread in FCM batches. Outcomes are in message order.
+     */
+    public List<Outcome> sendBatch(List<FcmGateway.PushMessage> messages) {
+        List<Outcome> outcomes = new ArrayList<>(messages.size());
+        Set<String> invalidTokens = new LinkedHashSet<>();
+
+        for (int i = 0; i < messages.size(); i += FcmGateway.MAX_BATCH_SIZE) {
+            List<FcmGateway.PushMessage> chunk =
+                    messages.subList(i, Math.min(i + FcmGateway.MAX_BATCH_SIZE, messages.size()));
+            batchSize.record(chunk.size());
+
+            List<FcmGateway.Result> results;
+            long start = System.nanoTime();
+            try {
+                results = fcmGateway.sendEach(chunk);
+            } catch (Exception e) {
+                log.error("FCM batch of {} messages failed: {}", chunk.size(), e.getMessage());
+                chunk.forEach(m -> outcomes.add(Outcome.FAILED));
+                failedCounter.increment(chunk.size());
+                continue;
+            } finally {
+                batchDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            for (int j = 0; j < chunk.size(); j++) {
+                FcmGateway.Result result = results.get(j);
+                if (result.success()) {
+                    outcomes.add(Outcome.SENT);
+                    sentCounter.increment();
+                } else if (result.errorCode() != null && INVALID_TOKEN_CODES.contains(result.errorCode())) {
+                    outcomes.add(Outcome.INVALID_TOKEN);
+                    invalidTokens.add(chunk.get(j).token());
+                    invalidCounter.increment();
+                } else {
+                    outcomes.add(Outcome.FAILED);
+                    failedCounter.increment();
+                    log.warn("FCM rejected message ({}): {}", result.errorCode(), result.error());
+                }
+            }
         }
 
-        try {
-            Message message = Message.builder()
-                    .setToken(fcmToken)
-                    .setNotification(Notification.builder()
-                            .setTitle(title)
-                            .setBody(body)
-                            .build())
-                    .build();
-
-            String response = FirebaseMessaging.getInstance().send(message);
-            log.info("Successfully sent message: " + response);
-        } catch (Exception e) {
-            log.error("Error sending push notification to " + fcmToken, e);
+        if (!invalidTokens.isEmpty()) {
+            int cleared = userRepository.clearFcmTokens(invalidTokens);
+            log.info("Cleared {} unregistered FCM tokens", cleared);
         }
+        return outcomes;
     }
 }
@@ -3,15 +3,21 @@ package com.medsyncpro.service;
 import com.medsyncpro.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class JwtService {
@@ -22,6 +28,28 @@ public class JwtService {
     @Value("${jwt.access-expiration:900000}")
     private long accessExpiration;
     
+    @Value("${jwt.verified-claims-cache-size:10000}")
+    private int verifiedClaimsCacheSize;
+    
+    // Built once from the secret; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    // token → claims already verified by signature; entries are dropped once the token expires.
+    // A ConcurrentHashMap rather than an access-ordered LinkedHashMap, which needs a lock on every get.
+    private final Map<String, Claims> verifiedClaims = new ConcurrentHashMap<>();
+    
+    // one thread trims at a time; the others keep going and may overshoot the bound briefly
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+    
     /**
      * Generate access token with JTI, tokenVersion, and short expiry.
      */
@@ -35,19 +63,54 @@ public class JwtService {
                 .claim("deviceInfo", deviceInfo)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + accessExpiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
     /**
      * Parse and validate token. Throws on invalid/expired/tampered tokens.
+     * Tokens verified earlier are served from a bounded cache until they expire,
+     * skipping HMAC verification and JSON parsing on repeat requests.
      */
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims cached = verifiedClaims.get(token);
+        if (cached != null) {
+            Date expiration = cached.getExpiration();
+            if (expiration == null || expiration.getTime() > System.currentTimeMillis()) {
+                return cached;
+            }
+            // Expired: drop it and let the parser raise ExpiredJwtException
+            verifiedClaims.remove(token);
+        }
+        
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (verifiedClaims.size() >= verifiedClaimsCacheSize) {
+            trimVerifiedClaims();
+        }
+        verifiedClaims.put(token, claims);
+        return claims;
+    }
+    
+    /**
+     * Drop expired entries; if still at capacity, drop arbitrary entries down to 90% of the bound.
+     */
+    private void trimVerifiedClaims() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            verifiedClaims.values().removeIf(c -> c.getExpiration() != null && c.getExpiration().getTime() <= now);
+            
+            int target = (int) (verifiedClaimsCacheSize * 0.9);
+            Iterator<String> it = verifiedClaims.keySet().iterator();
+            while (verifiedClaims.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            trimming.set(false);
+        }
     }
     
     /**
@@ -84,8 +147,4 @@ public class JwtService {
     public long getAccessExpiration() {
         return accessExpiration;
     }
-    
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
-    }
 }
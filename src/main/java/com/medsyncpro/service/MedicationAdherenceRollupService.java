@@ -0,0 +1,85 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.entity.DoseStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Keeps the medication_adherence_daily rollup in step with dose-log status changes made
+ * through JPA (materialized doses, taken, snoozed). The bulk statements in
+ * MedicationDoseLogRepository adjust the rollup themselves in the same SQL statement.
+ *
+ * All writes are relative increments, so they must run in the transaction that changes the dose.
+ * The rollup is seeded from the dose logs once per database by SchemaInitializer.
+ */
+@Service
+@RequiredArgsConstructor
+public class MedicationAdherenceRollupService {
+
+    private static final String UPSERT_DELTA_SQL = """
+            INSERT INTO medication_adherence_daily (id, patient_id, dose_date, taken, missed, pending)
+            VALUES (gen_random_uuid(), CAST(? AS uuid), CAST(? AS date), ?, ?, ?)
+            ON CONFLICT (patient_id, dose_date) DO UPDATE SET
+                taken = medication_adherence_daily.taken + EXCLUDED.taken,
+                missed = medication_adherence_daily.missed + EXCLUDED.missed,
+                pending = medication_adherence_daily.pending + EXCLUDED.pending
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private record Key(UUID patientId, LocalDate doseDate) {
+    }
+
+    /**
+     * Count newly materialized PENDING doses, given as (patientId, doseDate) per dose.
+     */
+    public void recordScheduled(List<Map.Entry<UUID, LocalDate>> doses) {
+        Map<Key, int[]> deltas = new HashMap<>();
+        for (Map.Entry<UUID, LocalDate> dose : doses) {
+            deltas.computeIfAbsent(new Key(dose.getKey(), dose.getValue()), k -> new int[3])[2]++;
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Move one dose between counters after its status changed in the current transaction.
+     */
+    public void recordStatusChange(UUID patientId, LocalDate doseDate, DoseStatus from, DoseStatus to) {
+        int fromSlot = slot(from);
+        int toSlot = slot(to);
+        if (fromSlot == toSlot) {
+            return;
+        }
+        int[] delta = new int[3];
+        delta[fromSlot]--;
+        delta[toSlot]++;
+        apply(Map.of(new Key(patientId, doseDate), delta));
+    }
+
+    // 0 = taken, 1 = missed, 2 = pending (PENDING and SNOOZED)
+    private static int slot(DoseStatus status) {
+        return switch (status) {
+            case TAKEN -> 0;
+            case MISSED -> 1;
+            case PENDING, SNOOZED -> 2;
+        };
+    }
+
+    private void apply(Map<Key, int[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Fixed row order so concurrent writers lock rollup rows in the same sequence
+        List<Object[]> rows = deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(
+                        Comparator.comparing(Key::patientId).thenComparing(Key::doseDate)))
+                .map(e -> new Object[] {
+                        e.getKey().patientId(), e.getKey().doseDate(), e.getValue()[0], e.getValue()[1], e.getValue()[2] })
+                .toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(UPSERT_DELTA_SQL, rows);
+    }
+}
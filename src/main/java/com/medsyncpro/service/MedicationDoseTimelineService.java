@@ -0,0 +1,231 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.entity.MedicationReminderSlot;
+import com.medsyncpro.entity.MedicationSchedule;
+import com.medsyncpro.entity.ReminderScheduleType;
+import com.medsyncpro.event.MedicationRemindersDueEvent.DueReminder;
+import com.medsyncpro.repository.MedicationDoseLogRepository;
+import com.medsyncpro.repository.MedicationReminderSlotRepository;
+import com.medsyncpro.repository.MedicationScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-materializes PENDING dose logs for the next {@code medication.dose-timeline.horizon-days}
+ * days of every active schedule, so the per-minute reminder cycle only flips
+ * {@code reminder_sent} on rows that already exist.
+ *
+ * The timeline is extended nightly (MedicationReminderScheduler) and rebuilt from "now"
+ * for a single schedule whenever it is created, edited or deactivated.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MedicationDoseTimelineService {
+
+    public static final String LEASE_NAME = "medication-dose-timeline";
+
+    private static final int SCHEDULE_BATCH_SIZE = 500;
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    // Rows that missed their minute (restart, slow cycle) still fire if this recent
+    private static final int CATCH_UP_MINUTES = 10;
+
+    private static final String INSERT_DOSE_SQL = """
+            INSERT INTO medication_dose_logs
+                (id, schedule_id, patient_id, doctor_id, scheduled_at, status, reminder_sent,
+                 created_at, updated_at, deleted, version)
+            VALUES (gen_random_uuid(), CAST(? AS uuid), CAST(? AS uuid), CAST(? AS uuid),
+                    CAST(? AS timestamp), 'PENDING', false, now(), now(), false, 0)
+            ON CONFLICT (schedule_id, scheduled_at) WHERE deleted = false DO NOTHING
+            """;
+
+    private static final String FIRE_DUE_SQL = """
+            WITH fired AS (
+                UPDATE medication_dose_logs d
+                SET reminder_sent = true, updated_at = now(), version = d.version + 1
+                WHERE d.status = 'PENDING' AND d.reminder_sent = false AND d.deleted = false
+                AND d.scheduled_at > CAST(:from AS timestamp)
+                AND d.scheduled_at <= CAST(:minute AS timestamp)
+                AND (hashtext(CAST(d.patient_id AS text)) & 2147483647) % :partitions = :partition
+                RETURNING d.id, d.schedule_id
+            )
+            SELECT f.id AS dose_log_id, p.user_id, ms.medicine_name, ms.dosage,
+                   ms.reminder_in_app, ms.reminder_email, ms.reminder_push
+            FROM fired f
+            JOIN medication_schedules ms ON ms.id = f.schedule_id
+            JOIN patients p ON p.id = ms.patient_id
+            """;
+
+    private final MedicationScheduleRepository scheduleRepository;
+    private final MedicationReminderSlotRepository slotRepository;
+    private final MedicationDoseLogRepository doseLogRepository;
+    private final MedicationReminderSlotService reminderSlotService;
+    private final MedicationAdherenceRollupService adherenceRollupService;
+    private final SchedulerCoordinator schedulerCoordinator;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${medication.dose-timeline.horizon-days:7}")
+    private int horizonDays;
+
+    @Value("${scheduler.lease.dose-timeline-minutes:60}")
+    private long leaseMinutes;
+
+    /**
+     * First deploy / restart: slot schedules that have none, then fill the horizon.
+     * Shares the nightly cycle's lease so instances starting together don't both materialize.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (!schedulerCoordinator.tryAcquire(LEASE_NAME, Duration.ofMinutes(leaseMinutes))) {
+            return;
+        }
+        reminderSlotService.backfillMissing();
+        materializeAll();
+    }
+
+    /**
+     * Extend every active schedule's timeline to the horizon. Idempotent.
+     */
+    @Transactional
+    public void materializeAll() {
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        List<UUID> ids = scheduleRepository.findActiveIds();
+        int inserted = 0;
+        for (int i = 0; i < ids.size(); i += SCHEDULE_BATCH_SIZE) {
+            List<MedicationSchedule> batch = scheduleRepository
+                    .findAllById(ids.subList(i, Math.min(i + SCHEDULE_BATCH_SIZE, ids.size())));
+            Map<UUID, List<MedicationReminderSlot>> slots = slotRepository
+                    .findByScheduleIdIn(batch.stream().map(MedicationSchedule::getId).toList()).stream()
+                    .collect(Collectors.groupingBy(s -> s.getSchedule().getId()));
+
+            List<Object[]> rows = new ArrayList<>();
+            for (MedicationSchedule schedule : batch) {
+                addOccurrences(rows, schedule, slots.getOrDefault(schedule.getId(), List.of()), from);
+            }
+            inserted += insertBatch(rows);
+        }
+        log.info("Dose timeline materialized: {} new doses for {} active schedules", inserted, ids.size());
+    }
+
+    /**
+     * Re-derive slots and future doses after a schedule was created, edited or deactivated.
+     * Doses that already fired (or were acted on) are kept.
+     */
+    @Transactional
+    public void scheduleChanged(MedicationSchedule schedule) {
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        // A just-created schedule must be in the database before JDBC inserts reference it
+        scheduleRepository.flush();
+        List<MedicationReminderSlot> slots = reminderSlotService.rebuildSlots(schedule);
+        doseLogRepository.deleteUnsentFrom(schedule.getId(), from);
+        if (Boolean.TRUE.equals(schedule.getActive())) {
+            List<Object[]> rows = new ArrayList<>();
+            addOccurrences(rows, schedule, slots, from);
+            insertBatch(rows);
+        }
+    }
+
+    /**
+     * Mark doses due up to {@code minute} in this node's partition as reminded and return who
+     * to notify. Must run inside the caller's transaction.
+     */
+    public List<DueReminder> fireDueReminders(LocalDateTime minute, SchedulerCoordinator.Partition partition) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", minute.minusMinutes(CATCH_UP_MINUTES))
+                .addValue("minute", minute)
+                .addValue("partition", partition.index())
+                .addValue("partitions", partition.count());
+
+        return jdbcTemplate.query(FIRE_DUE_SQL, params, (rs, rowNum) -> new DueReminder(
+                rs.getObject("dose_log_id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getString("medicine_name"),
+                rs.getString("dosage"),
+                rs.getBoolean("reminder_in_app"),
+                rs.getBoolean("reminder_email"),
+                rs.getBoolean("reminder_push")));
+    }
+
+    private void addOccurrences(List<Object[]> rows, MedicationSchedule schedule,
+            List<MedicationReminderSlot> slots, LocalDateTime from) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        UUID scheduleId = schedule.getId();
+        UUID patientId = schedule.getPatient().getId();
+        UUID doctorId = schedule.getDoctor() != null ? schedule.getDoctor().getId() : null;
+
+        LocalDate firstDay = from.toLocalDate();
+        for (int d = 0; d < horizonDays; d++) {
+            LocalDate date = firstDay.plusDays(d);
+            if (!isDueOn(schedule, date)) {
+                continue;
+            }
+            int dayBit = MedicationReminderSlot.dayBit(date.getDayOfWeek());
+            for (MedicationReminderSlot slot : slots) {
+                if ((slot.getDayMask() & dayBit) == 0) {
+                    continue;
+                }
+                LocalDateTime at = date.atStartOfDay().plusMinutes(slot.getMinuteOfDay());
+                if (at.isBefore(from)) {
+                    continue;
+                }
+                rows.add(new Object[] { scheduleId, patientId, doctorId, at });
+            }
+        }
+    }
+
+    private boolean isDueOn(MedicationSchedule schedule, LocalDate date) {
+        if (date.isBefore(schedule.getStartDate())) {
+            return false;
+        }
+        if (schedule.getEndDate() != null && date.isAfter(schedule.getEndDate())) {
+            return false;
+        }
+        if (schedule.getScheduleType() == ReminderScheduleType.ALTERNATE_DAY) {
+            return ChronoUnit.DAYS.between(schedule.getStartDate(), date) % 2 == 0;
+        }
+        return true;
+    }
+
+    private int insertBatch(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<UUID, LocalDate>> inserted = new ArrayList<>();
+        int[][] counts = jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_DOSE_SQL, rows, INSERT_BATCH_SIZE,
+                (ps, row) -> {
+                    for (int i = 0; i < row.length; i++) {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                });
+        // A dose that already exists (uk_med_dose_schedule_time) reports 0 and isn't counted again
+        for (int b = 0; b < counts.length; b++) {
+            for (int i = 0; i < counts[b].length; i++) {
+                if (counts[b][i] > 0) {
+                    Object[] row = rows.get(b * INSERT_BATCH_SIZE + i);
+                    inserted.add(Map.entry((UUID) row[1], ((LocalDateTime) row[3]).toLocalDate()));
+                }
+            }
+        }
+        adherenceRollupService.recordScheduled(inserted);
+        return inserted.size();
+    }
+}
@@ -2,28 +2,59 @@ package com.medsyncpro.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
+/**
+ * The per-minute reminder cycle runs on every node, each on its own hash partition of patients;
+ * the nightly timeline and 15-minute alert cycles run on whichever node takes the lease.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class MedicationReminderScheduler {
 
     private final MedicationWorkflowService medicationWorkflowService;
+    private final MedicationDoseTimelineService medicationDoseTimelineService;
+    private final SchedulerCoordinator schedulerCoordinator;
+
+    @Value("${scheduler.lease.dose-timeline-minutes:60}")
+    private long doseTimelineLeaseMinutes;
+
+    @Value("${scheduler.lease.adherence-alert-minutes:10}")
+    private long adherenceAlertLeaseMinutes;
 
     @Scheduled(cron = "0 * * * * *")
     public void runReminderCycle() {
         try {
-            medicationWorkflowService.processDueReminders();
-            medicationWorkflowService.reconcileMissedDoses();
+            SchedulerCoordinator.Partition partition = schedulerCoordinator.partition();
+            medicationWorkflowService.processDueReminders(partition);
+            medicationWorkflowService.reconcileMissedDoses(partition);
         } catch (Exception e) {
             log.error("Medication reminder cycle failed: {}", e.getMessage(), e);
         }
     }
 
+    @Scheduled(cron = "${medication.dose-timeline.cron:0 30 0 * * *}")
+    public void runDoseTimelineCycle() {
+        if (!schedulerCoordinator.tryAcquire(MedicationDoseTimelineService.LEASE_NAME, Duration.ofMinutes(doseTimelineLeaseMinutes))) {
+            return;
+        }
+        try {
+            medicationDoseTimelineService.materializeAll();
+        } catch (Exception e) {
+            log.error("Medication dose timeline cycle failed: {}", e.getMessage(), e);
+        }
+    }
+
     @Scheduled(cron = "0 */15 * * * *")
     public void runAdherenceAlertCycle() {
+        if (!schedulerCoordinator.tryAcquire("medication-adherence-alerts", Duration.ofMinutes(adherenceAlertLeaseMinutes))) {
+            return;
+        }
         try {
             medicationWorkflowService.processAdherenceAlerts();
         } catch (Exception e) {
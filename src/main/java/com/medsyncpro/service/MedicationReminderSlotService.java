@@ -0,0 +1,149 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.entity.MedicationReminderSlot;
+import com.medsyncpro.entity.MedicationSchedule;
+import com.medsyncpro.entity.ReminderScheduleType;
+import com.medsyncpro.repository.MedicationReminderSlotRepository;
+import com.medsyncpro.repository.MedicationScheduleRepository;
+import com.medsyncpro.utils.JsonColumns;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Keeps {@link MedicationReminderSlot} rows in step with medication schedules.
+ * The slots drive dose-log materialization in MedicationDoseTimelineService.
+ *
+ * Slots are written with ON CONFLICT on uk_med_slot_schedule_minute (see SchemaInitializer),
+ * so a rebuild racing the startup backfill, or two instances backfilling, can't duplicate one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MedicationReminderSlotService {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private static final String UPSERT_SLOT_SQL = """
+            INSERT INTO medication_reminder_slots (id, schedule_id, minute_of_day, day_mask)
+            VALUES (gen_random_uuid(), :scheduleId, :minuteOfDay, :dayMask)
+            ON CONFLICT (schedule_id, minute_of_day) DO UPDATE SET day_mask = EXCLUDED.day_mask
+            """;
+
+    private static final String INSERT_MISSING_SLOT_SQL = """
+            INSERT INTO medication_reminder_slots (id, schedule_id, minute_of_day, day_mask)
+            VALUES (gen_random_uuid(), :scheduleId, :minuteOfDay, :dayMask)
+            ON CONFLICT (schedule_id, minute_of_day) DO NOTHING
+            """;
+
+    private final MedicationReminderSlotRepository slotRepository;
+    private final MedicationScheduleRepository scheduleRepository;
+    private final JsonColumns jsonColumns;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Replace the schedule's slots with ones derived from its current reminderTimes/reminderDays.
+     */
+    @Transactional
+    public List<MedicationReminderSlot> rebuildSlots(MedicationSchedule schedule) {
+        slotRepository.deleteByScheduleId(schedule.getId());
+        List<MedicationReminderSlot> slots = buildSlots(schedule);
+        writeSlots(UPSERT_SLOT_SQL, slots);
+        return slots;
+    }
+
+    /**
+     * Slot active schedules that predate the slot table (first deploy) or were missed.
+     */
+    @Transactional
+    public void backfillMissing() {
+        List<UUID> missing = slotRepository.findUnslottedActiveScheduleIds();
+        for (int i = 0; i < missing.size(); i += BACKFILL_BATCH_SIZE) {
+            List<MedicationSchedule> batch = scheduleRepository
+                    .findAllById(missing.subList(i, Math.min(i + BACKFILL_BATCH_SIZE, missing.size())));
+            List<MedicationReminderSlot> slots = new ArrayList<>();
+            for (MedicationSchedule schedule : batch) {
+                slots.addAll(buildSlots(schedule));
+            }
+            writeSlots(INSERT_MISSING_SLOT_SQL, slots);
+        }
+        if (!missing.isEmpty()) {
+            log.info("Built reminder slots for {} medication schedules", missing.size());
+        }
+    }
+
+    private void writeSlots(String sql, List<MedicationReminderSlot> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] rows = slots.stream()
+                .map(slot -> new MapSqlParameterSource()
+                        .addValue("scheduleId", slot.getSchedule().getId())
+                        .addValue("minuteOfDay", slot.getMinuteOfDay())
+                        .addValue("dayMask", slot.getDayMask()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    private List<MedicationReminderSlot> buildSlots(MedicationSchedule schedule) {
+        int dayMask = dayMask(schedule);
+        List<MedicationReminderSlot> slots = new ArrayList<>();
+        for (int minuteOfDay : minutesOfDay(schedule.getReminderTimes())) {
+            slots.add(MedicationReminderSlot.builder()
+                    .schedule(schedule)
+                    .minuteOfDay(minuteOfDay)
+                    .dayMask(dayMask)
+                    .build());
+        }
+        return slots;
+    }
+
+    private int dayMask(MedicationSchedule schedule) {
+        if (schedule.getScheduleType() != ReminderScheduleType.CUSTOM) {
+            return MedicationReminderSlot.ALL_DAYS;
+        }
+        int mask = 0;
+        for (String day : readList(schedule.getReminderDays())) {
+            try {
+                mask |= MedicationReminderSlot.dayBit(DayOfWeek.valueOf(day.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalid reminder day '{}' on schedule {}", day, schedule.getId());
+            }
+        }
+        // No days selected means every day
+        return mask == 0 ? MedicationReminderSlot.ALL_DAYS : mask;
+    }
+
+    private SortedSet<Integer> minutesOfDay(String reminderTimesJson) {
+        SortedSet<Integer> minutes = new TreeSet<>();
+        for (String time : readList(reminderTimesJson)) {
+            try {
+                LocalTime parsed = LocalTime.parse(time.trim());
+                minutes.add(parsed.getHour() * 60 + parsed.getMinute());
+            } catch (Exception e) {
+                log.warn("Ignoring invalid reminder time '{}': {}", time, e.getMessage());
+            }
+        }
+        return minutes;
+    }
+
+    private List<String> readList(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return jsonColumns.readStringList(json);
+        } catch (Exception e) {
+            log.warn("Invalid JSON list '{}': {}", json, e.getMessage());
+            return List.of();
+        }
+    }
+}
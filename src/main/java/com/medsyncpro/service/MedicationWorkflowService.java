@@ -1,7 +1,5 @@
 package com.medsyncpro.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medsyncpro.dto.request.CreateMedicationScheduleRequest;
 import com.medsyncpro.dto.request.DoseActionRequest;
 import com.medsyncpro.dto.request.UpdateMedicationScheduleRequest;
@@ -10,19 +8,26 @@ import com.medsyncpro.dto.response.MedicationAdherenceSummaryResponse;
 import com.medsyncpro.dto.response.MedicationDoseLogResponse;
 import com.medsyncpro.dto.response.MedicationScheduleResponse;
 import com.medsyncpro.entity.*;
+import com.medsyncpro.event.MedicationRemindersDueEvent;
 import com.medsyncpro.exception.ResourceNotFoundException;
 import com.medsyncpro.repository.*;
+import com.medsyncpro.utils.JsonColumns;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +35,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class MedicationWorkflowService {
 
+    private static final int ADHERENCE_ALERT_WINDOW_DAYS = 30;
+
     private final UserRepository userRepository;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
@@ -38,8 +45,14 @@ public class MedicationWorkflowService {
     private final MedicationDoseLogRepository medicationDoseLogRepository;
     private final MedicationAdherenceAlertRepository medicationAdherenceAlertRepository;
     private final NotificationDispatchService notificationDispatchService;
+    private final MedicationDoseTimelineService doseTimelineService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final MedicationAdherenceRollupService adherenceRollupService;
+    private final MedicationAdherenceDailyRepository adherenceDailyRepository;
+    private final TransactionTemplate transactionTemplate;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonColumns jsonColumns;
 
     @Value("${medication.adherence.default-threshold:80.0}")
     private double defaultAdherenceThreshold;
@@ -47,6 +60,9 @@ public class MedicationWorkflowService {
     @Value("${medication.missed-dose-grace-minutes:120}")
     private int missedDoseGraceMinutes;
 
+    @Value("${medication.bulk-update.chunk-size:1000}")
+    private int bulkChunkSize;
+
     @Transactional
     public MedicationScheduleResponse createSchedule(UUID patientUserId, CreateMedicationScheduleRequest request) {
         Patient patient = getPatientByUserId(patientUserId);
@@ -92,6 +108,7 @@ public class MedicationWorkflowService {
                 .build();
 
         schedule = medicationScheduleRepository.save(schedule);
+        doseTimelineService.scheduleChanged(schedule);
         return toScheduleResponse(schedule);
     }
 
@@ -159,7 +176,9 @@ public class MedicationWorkflowService {
         validateScheduleRequest(schedule.getScheduleType(), parseJsonList(schedule.getReminderTimes()),
                 parseJsonList(schedule.getReminderDays()), schedule.getStartDate(), schedule.getEndDate());
 
-        return toScheduleResponse(medicationScheduleRepository.save(schedule));
+        schedule = medicationScheduleRepository.save(schedule);
+        doseTimelineService.scheduleChanged(schedule);
+        return toScheduleResponse(schedule);
     }
 
     @Transactional
@@ -169,12 +188,16 @@ public class MedicationWorkflowService {
                 .orElseThrow(() -> new ResourceNotFoundException("Medication schedule not found"));
         schedule.setActive(false);
         medicationScheduleRepository.save(schedule);
+        doseTimelineService.scheduleChanged(schedule);
     }
 
     @Transactional(readOnly = true)
     public Page<MedicationDoseLogResponse> getDoseLogs(UUID patientUserId, Pageable pageable) {
         Patient patient = getPatientByUserId(patientUserId);
-        return medicationDoseLogRepository.findByPatientIdOrderByScheduledAtDesc(patient.getId(), pageable)
+        // Future doses are pre-materialized; only list ones whose time has come
+        return medicationDoseLogRepository
+                .findByPatientIdAndScheduledAtLessThanEqualOrderByScheduledAtDesc(
+                        patient.getId(), LocalDateTime.now(), pageable)
                 .map(this::toDoseLogResponse);
     }
 
@@ -184,6 +207,8 @@ public class MedicationWorkflowService {
         MedicationDoseLog doseLog = medicationDoseLogRepository.findByIdAndPatientId(doseLogId, patient.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Dose log not found"));
 
+        adherenceRollupService.recordStatusChange(patient.getId(), doseLog.getScheduledAt().toLocalDate(),
+                doseLog.getStatus(), DoseStatus.TAKEN);
         doseLog.setStatus(DoseStatus.TAKEN);
         doseLog.setTakenAt(LocalDateTime.now());
         if (request != null && request.getNote() != null) {
@@ -203,6 +228,8 @@ public class MedicationWorkflowService {
                 ? request.getSnoozeMinutes()
                 : 15;
 
+        adherenceRollupService.recordStatusChange(patient.getId(), doseLog.getScheduledAt().toLocalDate(),
+                doseLog.getStatus(), DoseStatus.SNOOZED);
         doseLog.setStatus(DoseStatus.SNOOZED);
         doseLog.setSnoozedUntil(LocalDateTime.now().plusMinutes(snoozeMinutes));
         if (request != null && request.getNote() != null) {
@@ -215,7 +242,12 @@ public class MedicationWorkflowService {
     @Transactional(readOnly = true)
     public MedicationAdherenceSummaryResponse getAdherenceSummary(UUID patientUserId, int days) {
         Patient patient = getPatientByUserId(patientUserId);
-        return calculateAdherenceForPatient(patient, Math.max(days, 1));
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(Math.max(days, 1) - 1L);
+        return toAdherenceSummary(patient.getId(), from,
+                adherenceDailyRepository.sumForPatient(patient.getId(), from, today).stream()
+                        .findFirst()
+                        .orElse(null));
     }
 
     @Transactional(readOnly = true)
@@ -236,69 +268,34 @@ public class MedicationWorkflowService {
                 .toList();
     }
 
-    @Transactional
-    public void processDueReminders() {
+    /**
+     * Not transactional: requeue chunks commit separately like reconcileMissedDoses. Only
+     * firing and publishing share a transaction, so listeners run after the doses are marked sent.
+     */
+    public void processDueReminders(SchedulerCoordinator.Partition partition) {
         LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
 
-        processSnoozedReminderQueue(now);
-
-        List<MedicationSchedule> activeSchedules = medicationScheduleRepository.findActiveForDate(now.toLocalDate());
-        for (MedicationSchedule schedule : activeSchedules) {
-            if (!Boolean.TRUE.equals(schedule.getActive())) {
-                continue;
-            }
-            if (!isScheduleDueToday(schedule, now.toLocalDate())) {
-                continue;
-            }
-
-            List<LocalTime> times = parseTimes(schedule.getReminderTimes());
-            for (LocalTime time : times) {
-                if (time.getHour() != now.getHour() || time.getMinute() != now.getMinute()) {
-                    continue;
-                }
-                LocalDateTime scheduledAt = now.toLocalDate().atTime(time);
-                if (medicationDoseLogRepository.existsByScheduleIdAndScheduledAt(schedule.getId(), scheduledAt)) {
-                    continue;
-                }
-
-                MedicationDoseLog logEntry = MedicationDoseLog.builder()
-                        .schedule(schedule)
-                        .patient(schedule.getPatient())
-                        .doctor(schedule.getDoctor())
-                        .scheduledAt(scheduledAt)
-                        .status(DoseStatus.PENDING)
-                        .reminderSent(true)
-                        .build();
-                medicationDoseLogRepository.save(logEntry);
-
-                String title = "Medication Reminder";
-                String message = "Time to take " + schedule.getMedicineName()
-                        + (schedule.getDosage() != null ? " (" + schedule.getDosage() + ")" : "");
+        // Snoozes that ended come back as unsent PENDING doses at "now" and fire below
+        runInChunks("requeue_snoozed", limit -> (int) medicationDoseLogRepository.requeueSnoozedUntil(
+                now, limit, partition.index(), partition.count()));
 
-                notificationDispatchService.notifyUser(
-                        schedule.getPatient().getUser(),
-                        "MEDICATION_REMINDER",
-                        title,
-                        message,
-                        logEntry.getId().toString(),
-                        Boolean.TRUE.equals(schedule.getReminderInApp()),
-                        Boolean.TRUE.equals(schedule.getReminderEmail()),
-                        Boolean.TRUE.equals(schedule.getReminderPush()));
+        transactionTemplate.executeWithoutResult(status -> {
+            List<MedicationRemindersDueEvent.DueReminder> due = doseTimelineService.fireDueReminders(now, partition);
+            if (!due.isEmpty()) {
+                eventPublisher.publishEvent(new MedicationRemindersDueEvent(this, due));
+                log.info("Firing {} medication reminders for {}", due.size(), now);
             }
-        }
+        });
     }
 
-    @Transactional
-    public void reconcileMissedDoses() {
+    /**
+     * Not transactional: each chunk commits separately so a large backlog
+     * never holds one long transaction.
+     */
+    public void reconcileMissedDoses(SchedulerCoordinator.Partition partition) {
         LocalDateTime threshold = LocalDateTime.now().minusMinutes(Math.max(missedDoseGraceMinutes, 5));
-        List<MedicationDoseLog> overdue = medicationDoseLogRepository.findByStatusAndScheduledAtBefore(
-                DoseStatus.PENDING, threshold);
-        for (MedicationDoseLog doseLog : overdue) {
-            doseLog.setStatus(DoseStatus.MISSED);
-        }
-        if (!overdue.isEmpty()) {
-            medicationDoseLogRepository.saveAll(overdue);
-        }
+        runInChunks("reconcile_missed", limit -> (int) medicationDoseLogRepository.markMissedBefore(
+                threshold, limit, partition.index(), partition.count()));
     }
 
     @Transactional
@@ -307,13 +304,20 @@ public class MedicationWorkflowService {
         Map<UUID, List<MedicationSchedule>> groupedByPatient = schedules.stream()
                 .collect(Collectors.groupingBy(s -> s.getPatient().getId()));
 
-        for (List<MedicationSchedule> patientSchedules : groupedByPatient.values()) {
-            if (patientSchedules.isEmpty()) {
-                continue;
-            }
-
-            Patient patient = patientSchedules.get(0).getPatient();
-            MedicationAdherenceSummaryResponse adherence = calculateAdherenceForPatient(patient, 30);
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(ADHERENCE_ALERT_WINDOW_DAYS - 1L);
+        Map<UUID, MedicationAdherenceDailyRepository.AdherenceTotals> totals = adherenceDailyRepository
+                .sumForActivePatients(from, today).stream()
+                .collect(Collectors.toMap(MedicationAdherenceDailyRepository.AdherenceTotals::getPatientId, t -> t));
+        Set<String> recentlyAlerted = medicationAdherenceAlertRepository
+                .findByAlertedAtAfter(LocalDateTime.now().minusHours(24)).stream()
+                .map(a -> alertKey(a.getPatient().getId(), a.getDoctor().getId()))
+                .collect(Collectors.toSet());
+
+        for (Map.Entry<UUID, List<MedicationSchedule>> entry : groupedByPatient.entrySet()) {
+            List<MedicationSchedule> patientSchedules = entry.getValue();
+            MedicationAdherenceSummaryResponse adherence =
+                    toAdherenceSummary(entry.getKey(), from, totals.get(entry.getKey()));
             double threshold = patientSchedules.stream()
                     .map(MedicationSchedule::getAdherenceAlertThreshold)
                     .filter(Objects::nonNull)
@@ -329,8 +333,9 @@ public class MedicationWorkflowService {
                     .filter(Objects::nonNull)
                     .collect(Collectors.toSet());
 
+            Patient patient = patientSchedules.get(0).getPatient();
             for (Doctor doctor : doctors) {
-                if (shouldSkipDuplicateAlert(patient.getId(), doctor.getId())) {
+                if (!recentlyAlerted.add(alertKey(patient.getId(), doctor.getId()))) {
                     continue;
                 }
 
@@ -360,63 +365,50 @@ public class MedicationWorkflowService {
         }
     }
 
-    private void processSnoozedReminderQueue(LocalDateTime now) {
-        List<MedicationDoseLog> snoozed = medicationDoseLogRepository
-                .findByStatusAndSnoozedUntilLessThanEqual(DoseStatus.SNOOZED, now);
-
-        for (MedicationDoseLog doseLog : snoozed) {
-            doseLog.setStatus(DoseStatus.PENDING);
-            doseLog.setScheduledAt(now);
-            doseLog.setSnoozedUntil(null);
-            medicationDoseLogRepository.save(doseLog);
-
-            MedicationSchedule schedule = doseLog.getSchedule();
-            String title = "Medication Reminder (Snoozed)";
-            String message = "Reminder: take " + schedule.getMedicineName();
-            notificationDispatchService.notifyUser(
-                    schedule.getPatient().getUser(),
-                    "MEDICATION_REMINDER",
-                    title,
-                    message,
-                    doseLog.getId().toString(),
-                    Boolean.TRUE.equals(schedule.getReminderInApp()),
-                    Boolean.TRUE.equals(schedule.getReminderEmail()),
-                    Boolean.TRUE.equals(schedule.getReminderPush()));
-        }
+    /**
+     * Repeat a bounded bulk update until it touches fewer rows than the chunk size,
+     * recording rows affected and total duration under {@code medication.dose.bulk.*}.
+     */
+    private int runInChunks(String operation, IntUnaryOperator chunk) {
+        long start = System.nanoTime();
+        int total = 0;
+        int updated;
+        do {
+            updated = chunk.applyAsInt(bulkChunkSize);
+            total += updated;
+        } while (updated >= bulkChunkSize);
+
+        meterRegistry.timer("medication.dose.bulk.duration", "operation", operation)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("medication.dose.bulk.rows", "operation", operation).increment(total);
+        if (total > 0) {
+            log.info("Medication dose bulk {}: {} rows", operation, total);
+        }
+        return total;
     }
 
-    private boolean shouldSkipDuplicateAlert(UUID patientId, UUID doctorId) {
-        Optional<MedicationAdherenceAlert> latest = medicationAdherenceAlertRepository
-                .findTopByPatientIdAndDoctorIdOrderByAlertedAtDesc(patientId, doctorId);
-        if (latest.isEmpty()) {
-            return false;
-        }
-        return latest.get().getAlertedAt().isAfter(LocalDateTime.now().minusHours(24));
+    private static String alertKey(UUID patientId, UUID doctorId) {
+        return patientId + ":" + doctorId;
     }
 
-    private MedicationAdherenceSummaryResponse calculateAdherenceForPatient(Patient patient, int days) {
-        LocalDateTime to = LocalDateTime.now();
-        LocalDateTime from = to.minusDays(days);
-
-        long taken = medicationDoseLogRepository.countByPatientIdAndScheduledAtBetweenAndStatus(
-                patient.getId(), from, to, DoseStatus.TAKEN);
-        long missed = medicationDoseLogRepository.countByPatientIdAndScheduledAtBetweenAndStatus(
-                patient.getId(), from, to, DoseStatus.MISSED);
-        long pending = medicationDoseLogRepository.countByPatientIdAndScheduledAtBetweenAndStatusIn(
-                patient.getId(), from, to, List.of(DoseStatus.PENDING, DoseStatus.SNOOZED));
+    private MedicationAdherenceSummaryResponse toAdherenceSummary(
+            UUID patientId, LocalDate from, MedicationAdherenceDailyRepository.AdherenceTotals totals) {
+        long taken = totals != null ? totals.getTaken() : 0;
+        long missed = totals != null ? totals.getMissed() : 0;
+        long pending = totals != null ? totals.getPending() : 0;
 
         long evaluated = taken + missed;
         double adherence = evaluated == 0 ? 100.0 : ((double) taken * 100.0) / evaluated;
 
         return MedicationAdherenceSummaryResponse.builder()
-                .patientId(patient.getId())
+                .patientId(patientId)
                 .adherencePercentage(Math.round(adherence * 100.0) / 100.0)
                 .takenDoses(taken)
                 .missedDoses(missed)
                 .pendingDoses(pending)
                 .totalEvaluatedDoses(evaluated)
-                .from(from)
-                .to(to)
+                .from(from.atStartOfDay())
+                .to(LocalDateTime.now())
                 .build();
     }
 
@@ -480,43 +472,12 @@ public class MedicationWorkflowService {
                 .toList();
     }
 
-    private boolean isScheduleDueToday(MedicationSchedule schedule, LocalDate date) {
-        if (date.isBefore(schedule.getStartDate())) {
-            return false;
-        }
-        if (schedule.getEndDate() != null && date.isAfter(schedule.getEndDate())) {
-            return false;
-        }
-
-        if (schedule.getScheduleType() == ReminderScheduleType.DAILY) {
-            return true;
-        }
-        if (schedule.getScheduleType() == ReminderScheduleType.ALTERNATE_DAY) {
-            long daysSinceStart = ChronoUnit.DAYS.between(schedule.getStartDate(), date);
-            return daysSinceStart % 2 == 0;
-        }
-
-        List<String> days = parseJsonList(schedule.getReminderDays());
-        if (days.isEmpty()) {
-            return true;
-        }
-        return days.contains(date.getDayOfWeek().name());
-    }
-
-    private List<LocalTime> parseTimes(String json) {
-        return parseJsonList(json).stream()
-                .map(LocalTime::parse)
-                .sorted()
-                .toList();
-    }
-
     private List<String> parseJsonList(String json) {
         if (json == null || json.isBlank()) {
             return List.of();
         }
         try {
-            return objectMapper.readValue(json, new TypeReference<List<String>>() {
-            });
+            return jsonColumns.readStringList(json);
         } catch (Exception e) {
             log.warn("Invalid JSON list '{}': {}", json, e.getMessage());
             return List.of();
@@ -525,7 +486,7 @@ public class MedicationWorkflowService {
 
     private String toJsonList(List<String> list) {
         try {
-            return objectMapper.writeValueAsString(list == null ? List.of() : list);
+            return jsonColumns.write(list == null ? List.of() : list);
         } catch (Exception e) {
             throw new IllegalArgumentException("Unable to serialize schedule metadata");
         }
@@ -1,18 +1,27 @@
 package com.medsyncpro.service;
 
+import com.medsyncpro.dto.response.ChatMessagePageResponse;
 import com.medsyncpro.dto.response.ChatMessageResponse;
+import com.medsyncpro.dto.response.ConversationPageResponse;
 import com.medsyncpro.dto.response.ConversationResponse;
 import com.medsyncpro.entity.*;
+import com.medsyncpro.event.ChatMessageSentEvent;
 import com.medsyncpro.exception.ResourceNotFoundException;
 import com.medsyncpro.repository.*;
+import com.medsyncpro.repository.ConversationRepository.ConversationSummary;
+import com.medsyncpro.service.ConversationParticipantCache.Participants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
@@ -20,13 +29,34 @@ import java.util.*;
 @Slf4j
 public class MessagingService {
 
+    // Message insert and conversation preview / unread update in one round trip.
+    // Bulk update: no @Version bump, so concurrent senders never conflict on the row.
+    private static final String SEND_MESSAGE_SQL = """
+            WITH inserted AS (
+                INSERT INTO chat_messages (id, conversation_id, sender_id, sender_role, content, is_read,
+                                           created_at, updated_at, deleted, version)
+                VALUES (CAST(:id AS uuid), CAST(:conversationId AS uuid), CAST(:senderId AS uuid), :senderRole,
+                        :content, false, CAST(:sentAt AS timestamp), CAST(:sentAt AS timestamp), false, 0)
+                RETURNING conversation_id
+            )
+            UPDATE conversations c
+            SET doctor_unread_count  = c.doctor_unread_count  + CASE WHEN CAST(:toDoctor AS boolean) THEN 1 ELSE 0 END,
+                patient_unread_count = c.patient_unread_count + CASE WHEN CAST(:toDoctor AS boolean) THEN 0 ELSE 1 END,
+                last_message    = CASE WHEN c.last_message_at IS NULL OR c.last_message_at <= CAST(:sentAt AS timestamp)
+                                       THEN :preview ELSE c.last_message END,
+                last_message_at = CASE WHEN c.last_message_at IS NULL OR c.last_message_at <= CAST(:sentAt AS timestamp)
+                                       THEN CAST(:sentAt AS timestamp) ELSE c.last_message_at END
+            FROM inserted
+            WHERE c.id = inserted.conversation_id
+            """;
+
     private final ConversationRepository conversationRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
-    private final UserRepository userRepository;
-    private final SseEmitterService sseEmitterService;
-    private final NotificationDispatchService notificationDispatchService;
+    private final ConversationParticipantCache participantCache;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ─────────────────────────────────────────────────────────────────────────
     // Get or create a conversation
@@ -49,7 +79,8 @@ public class MessagingService {
         Conversation conv = conversationRepository
                 .findByDoctorIdAndPatientId(doctor.getId(), patient.getId())
                 .orElseGet(() -> conversationRepository.save(
-                        Conversation.builder().doctor(doctor).patient(patient).build()));
+                        Conversation.builder().doctor(doctor).patient(patient)
+                                .lastMessageAt(LocalDateTime.now()).build()));
 
         return mapConversation(conv, Role.PATIENT);
     }
@@ -71,7 +102,8 @@ public class MessagingService {
         Conversation conv = conversationRepository
                 .findByDoctorIdAndPatientId(doctor.getId(), patient.getId())
                 .orElseGet(() -> conversationRepository.save(
-                        Conversation.builder().doctor(doctor).patient(patient).build()));
+                        Conversation.builder().doctor(doctor).patient(patient)
+                                .lastMessageAt(LocalDateTime.now()).build()));
 
         return mapConversation(conv, Role.DOCTOR);
     }
@@ -80,139 +112,200 @@ public class MessagingService {
     // List conversations
     // ─────────────────────────────────────────────────────────────────────────
 
+    /**
+     * One inbox page for a patient, read in a single query.
+     *
+     * @param patientEntityId Patient.id of the caller (AuthenticatedUser.profileId)
+     * @param before          nextCursor of the previous page, or null for the first page
+     */
     @Transactional(readOnly = true)
-    public List<ConversationResponse> getConversationsForPatient(UUID patientUserId) {
-        Patient patient = patientRepository.findByUserId(patientUserId)
-                .orElseThrow(() -> new ResourceNotFoundException("Patient profile not found"));
-
-        return conversationRepository
-                .findByPatientIdOrderByActivity(patient.getId())
-                .stream()
-                .map(c -> mapConversation(c, Role.PATIENT))
-                .toList();
+    public ConversationPageResponse getConversationsForPatient(UUID patientEntityId, String before, int size) {
+        if (patientEntityId == null) {
+            throw new ResourceNotFoundException("Patient profile not found");
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ConversationSummary> rows;
+        if (before == null || before.isBlank()) {
+            rows = conversationRepository.findPatientInbox(patientEntityId, limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            rows = conversationRepository.findPatientInboxBefore(patientEntityId, cursor.at(), cursor.id(), limit);
+        }
+        return toConversationPage(rows, size, Role.PATIENT);
     }
 
+    /**
+     * One inbox page for a doctor, read in a single query.
+     *
+     * @param doctorEntityId Doctor.id of the caller (AuthenticatedUser.profileId)
+     * @param before         nextCursor of the previous page, or null for the first page
+     */
     @Transactional(readOnly = true)
-    public List<ConversationResponse> getConversationsForDoctor(UUID doctorUserId) {
-        Doctor doctor = doctorRepository.findByUserId(doctorUserId)
-                .orElseThrow(() -> new ResourceNotFoundException("Doctor profile not found"));
-
-        return conversationRepository
-                .findByDoctorIdOrderByActivity(doctor.getId())
-                .stream()
-                .map(c -> mapConversation(c, Role.DOCTOR))
-                .toList();
+    public ConversationPageResponse getConversationsForDoctor(UUID doctorEntityId, String before, int size) {
+        if (doctorEntityId == null) {
+            throw new ResourceNotFoundException("Doctor profile not found");
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ConversationSummary> rows;
+        if (before == null || before.isBlank()) {
+            rows = conversationRepository.findDoctorInbox(doctorEntityId, limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            rows = conversationRepository.findDoctorInboxBefore(doctorEntityId, cursor.at(), cursor.id(), limit);
+        }
+        return toConversationPage(rows, size, Role.DOCTOR);
     }
 
     // ─────────────────────────────────────────────────────────────────────────
-    // Fetch messages (paginated)
+    // Fetch messages (keyset pagination)
     // ─────────────────────────────────────────────────────────────────────────
 
+    /**
+     * History window ending just before {@code before} (or the newest messages when null).
+     * Cost depends only on the page size, and messages arriving meanwhile don't shift pages.
+     */
     @Transactional(readOnly = true)
-    public Page<ChatMessageResponse> getMessages(UUID conversationId, UUID callerUserId, Pageable pageable) {
+    public ChatMessagePageResponse getMessages(UUID conversationId, UUID callerUserId, String before, int size) {
         Conversation conv = findConversation(conversationId);
         assertParticipant(conv, callerUserId);
-        return chatMessageRepository
-                .findByConversationIdOrderByCreatedAtAsc(conversationId, pageable)
-                .map(this::mapMessage);
+
+        List<ChatMessage> rows;
+        if (before == null || before.isBlank()) {
+            rows = chatMessageRepository.findLatest(conversationId, size + 1);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            rows = chatMessageRepository.findBefore(conversationId, cursor.at(), cursor.id(), size + 1);
+        }
+
+        boolean hasMoreOlder = rows.size() > size;
+        List<ChatMessage> page = new ArrayList<>(rows.subList(0, Math.min(size, rows.size())));
+        Collections.reverse(page);
+
+        return ChatMessagePageResponse.builder()
+                .messages(page.stream().map(this::mapMessage).toList())
+                .olderCursor(hasMoreOlder ? KeysetCursor.of(page.get(0)).encode() : null)
+                .newerCursor(page.isEmpty() ? null : KeysetCursor.of(page.get(page.size() - 1)).encode())
+                .hasMoreOlder(hasMoreOlder)
+                .hasMoreNewer(before != null && !before.isBlank())
+                .build();
+    }
+
+    /**
+     * Messages sent after {@code after}, oldest first — for clients catching up after a reconnect.
+     * Call again with the returned newerCursor while hasMoreNewer is true.
+     */
+    @Transactional(readOnly = true)
+    public ChatMessagePageResponse syncMessages(UUID conversationId, UUID callerUserId, String after, int size) {
+        Conversation conv = findConversation(conversationId);
+        assertParticipant(conv, callerUserId);
+
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        List<ChatMessage> rows = chatMessageRepository.findAfter(
+                conversationId, cursor.at(), cursor.id(), size + 1);
+
+        boolean hasMoreNewer = rows.size() > size;
+        List<ChatMessage> page = rows.subList(0, Math.min(size, rows.size()));
+
+        return ChatMessagePageResponse.builder()
+                .messages(page.stream().map(this::mapMessage).toList())
+                .olderCursor(after)
+                .newerCursor(page.isEmpty() ? after : KeysetCursor.of(page.get(page.size() - 1)).encode())
+                .hasMoreOlder(true)
+                .hasMoreNewer(hasMoreNewer)
+                .build();
     }
 
     // ─────────────────────────────────────────────────────────────────────────
     // Send a message
     // ─────────────────────────────────────────────────────────────────────────
 
+    /**
+     * Hot path: authorizes from the participant cache, stores the message and updates the
+     * conversation in one statement, and leaves SSE / push to ChatMessageEventListener after
+     * commit. No conversation, profile or user rows are loaded.
+     *
+     * @param senderRole the caller's role from their AuthenticatedUser
+     */
     @Transactional
-    public ChatMessageResponse sendMessage(UUID conversationId, UUID senderUserId, String content) {
-
-        Conversation conv = findConversation(conversationId);
-        User sender = userRepository.findById(senderUserId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        Role senderRole = sender.getRole();
-        assertParticipant(conv, senderUserId);
-
+    public ChatMessageResponse sendMessage(UUID conversationId, UUID senderUserId, Role senderRole, String content) {
         if (content == null || content.isBlank()) {
             throw new IllegalArgumentException("Message content cannot be blank");
         }
 
-        // ── Persist ──────────────────────────────────────────────────────────
-        ChatMessage msg = ChatMessage.builder()
-                .conversation(conv)
-                .sender(sender)
-                .senderRole(senderRole)
-                .content(content.trim())
-                .isRead(false)
-                .build();
-        msg = chatMessageRepository.save(msg);
+        Participants participants = participantCache.get(conversationId);
+        if (senderRole == null || participants.roleOf(senderUserId) != senderRole) {
+            throw new SecurityException("Access denied — you are not a participant of this conversation");
+        }
+        boolean fromDoctor = senderRole == Role.DOCTOR;
 
-        // ── Update conversation preview + increment the RECIPIENT'S counter ──
+        // ── Persist message + update conversation preview / RECIPIENT'S counter ──
+        String text = content.trim();
         String preview = content.length() > 120 ? content.substring(0, 120) + "…" : content;
-        conv.setLastMessage(preview);
-        conv.setLastMessageAt(LocalDateTime.now());
-
-        if (senderRole == Role.DOCTOR) {
-            conv.setPatientUnreadCount(conv.getPatientUnreadCount() + 1);
-        } else {
-            conv.setDoctorUnreadCount(conv.getDoctorUnreadCount() + 1);
-        }
-        conversationRepository.save(conv);
+        UUID messageId = UUID.randomUUID();
+        // Column precision, so the cursor handed out below matches the stored row exactly
+        LocalDateTime sentAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", messageId)
+                .addValue("conversationId", conversationId)
+                .addValue("senderId", senderUserId)
+                .addValue("senderRole", senderRole.name())
+                .addValue("content", text)
+                .addValue("preview", preview)
+                .addValue("sentAt", sentAt)
+                .addValue("toDoctor", !fromDoctor);
+        jdbcTemplate.update(SEND_MESSAGE_SQL, params);
 
         // ── Resolve recipient ─────────────────────────────────────────────────
-        User recipient;
+        UUID recipientUserId;
         String senderDisplayName;
+        String senderName;
+        String senderAvatar;
 
-        if (senderRole == Role.DOCTOR) {
-            recipient = conv.getPatient().getUser();
-            senderDisplayName = conv.getDoctor().getName() != null
-                    ? "Dr. " + conv.getDoctor().getName()
-                    : sender.getEmail();
+        if (fromDoctor) {
+            recipientUserId = participants.patientUserId();
+            senderName = participants.doctorName();
+            senderAvatar = participants.doctorAvatar();
+            senderDisplayName = senderName != null ? "Dr. " + senderName : participants.doctorEmail();
         } else {
-            recipient = conv.getDoctor().getUser();
-            senderDisplayName = conv.getPatient().getName() != null
-                    ? conv.getPatient().getName()
-                    : sender.getEmail();
+            recipientUserId = participants.doctorUserId();
+            senderName = participants.patientName();
+            senderAvatar = participants.patientAvatar();
+            senderDisplayName = senderName != null ? senderName : participants.patientEmail();
         }
 
-        // ── SSE: real-time delivery ───────────────────────────────────────────
-        // The "new_message" event travels via the existing Spring Boot SSE stream.
-        // The Next.js NotificationContext proxy forwards it to the browser.
+        // ── SSE + FCM push, after commit (ChatMessageEventListener) ──────────
+        String cursor = new KeysetCursor(sentAt, messageId).encode();
         Map<String, Object> ssePayload = new LinkedHashMap<>();
         ssePayload.put("type", "NEW_MESSAGE");
-        ssePayload.put("conversationId", conv.getId().toString());
-        ssePayload.put("messageId", msg.getId().toString());
-        ssePayload.put("senderId", sender.getId().toString());
+        ssePayload.put("conversationId", conversationId.toString());
+        ssePayload.put("messageId", messageId.toString());
+        ssePayload.put("senderId", senderUserId.toString());
         ssePayload.put("senderName", senderDisplayName);
         ssePayload.put("senderRole", senderRole.name());
-        ssePayload.put("content", content.trim());
+        ssePayload.put("content", text);
         ssePayload.put("preview", preview);
-        ssePayload.put("sentAt", msg.getCreatedAt() != null
-                ? msg.getCreatedAt().toString()
-                : LocalDateTime.now().toString());
-
-        sseEmitterService.sendToUser(recipient.getId(), "new_message", ssePayload);
-
-        // ── FCM push (non-critical — swallow failures so the send never fails) ─
-        String pushTitle = "New message from " + senderDisplayName;
-        String pushBody = content.length() > 80 ? content.substring(0, 80) + "…" : content;
-        try {
-            // inApp=false → no Notification row saved (SSE is the real-time channel)
-            // email=false → no email for chat messages
-            // push=true → FCM push if device token present
-            notificationDispatchService.notifyUser(
-                    recipient, "NEW_MESSAGE", pushTitle, pushBody,
-                    conv.getId().toString(),
-                    false, // inApp — skip Notification table
-                    false, // email
-                    true // push
-            );
-        } catch (Exception e) {
-            log.warn("[Messaging] FCM push failed for user={}: {}", recipient.getId(), e.getMessage());
-        }
+        ssePayload.put("sentAt", sentAt.toString());
+        // Lets a client that was live resume with syncMessages after a reconnect
+        ssePayload.put("cursor", cursor);
+
+        eventPublisher.publishEvent(new ChatMessageSentEvent(
+                this, conversationId, recipientUserId, senderDisplayName, content, ssePayload));
 
-        log.info("[Messaging] Message sent — conv={} sender={} role={}",
+        log.debug("[Messaging] Message sent — conv={} sender={} role={}",
                 conversationId, senderUserId, senderRole);
 
-        return mapMessage(msg);
+        return ChatMessageResponse.builder()
+                .id(messageId)
+                .conversationId(conversationId)
+                .senderId(senderUserId)
+                .senderRole(senderRole)
+                .senderName(senderName)
+                .senderAvatar(senderAvatar)
+                .content(text)
+                .isRead(false)
+                .createdAt(sentAt)
+                .build();
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -221,8 +314,10 @@ public class MessagingService {
 
     @Transactional
     public void markConversationAsRead(UUID conversationId, UUID callerUserId) {
-        Conversation conv = findConversation(conversationId);
-        Role callerRole = resolveRole(conv, callerUserId);
+        Role callerRole = participantCache.get(conversationId).roleOf(callerUserId);
+        if (callerRole == null) {
+            throw new SecurityException("Access denied — you are not a participant of this conversation");
+        }
 
         // Mark messages sent by the OTHER party as read
         Role opposite = (callerRole == Role.DOCTOR) ? Role.PATIENT : Role.DOCTOR;
@@ -231,11 +326,10 @@ public class MessagingService {
 
         // Zero out the caller's unread counter
         if (callerRole == Role.DOCTOR) {
-            conv.setDoctorUnreadCount(0);
+            conversationRepository.resetDoctorUnread(conversationId);
         } else {
-            conv.setPatientUnreadCount(0);
+            conversationRepository.resetPatientUnread(conversationId);
         }
-        conversationRepository.save(conv);
 
         log.debug("[Messaging] Marked {} messages as read — conv={} caller={}",
                 updated, conversationId, callerUserId);
@@ -288,6 +382,33 @@ public class MessagingService {
                 .build();
     }
 
+    private ConversationPageResponse toConversationPage(List<ConversationSummary> rows, int size, Role callerRole) {
+        boolean hasMore = rows.size() > size;
+        List<ConversationSummary> page = rows.subList(0, Math.min(size, rows.size()));
+        ConversationSummary last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return ConversationPageResponse.builder()
+                .conversations(page.stream().map(c -> mapConversation(c, callerRole)).toList())
+                .nextCursor(hasMore ? new KeysetCursor(last.getLastMessageAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private ConversationResponse mapConversation(ConversationSummary c, Role callerRole) {
+        return ConversationResponse.builder()
+                .id(c.getId())
+                .doctorId(c.getDoctorId())
+                .doctorName(c.getDoctorName())
+                .doctorSpecialty(c.getDoctorSpecialty())
+                .doctorAvatar(c.getDoctorAvatar())
+                .patientId(c.getPatientId())
+                .patientName(c.getPatientName())
+                .patientAvatar(c.getPatientAvatar())
+                .lastMessage(c.getLastMessage())
+                .lastMessageAt(c.getLastMessageAt())
+                .unreadCount(callerRole == Role.DOCTOR ? c.getDoctorUnreadCount() : c.getPatientUnreadCount())
+                .build();
+    }
+
     private ChatMessageResponse mapMessage(ChatMessage m) {
         String senderName;
         String senderAvatar = null;
@@ -315,6 +436,39 @@ public class MessagingService {
                 .build();
     }
 
+    // ─────────────────────────────────────────────────────────────────────────
+    // Cursors
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /**
+     * Keyset position — (createdAt, id) of a message, or (lastMessageAt, id) of a conversation —
+     * sent to clients as an opaque base64url string.
+     */
+    private record KeysetCursor(LocalDateTime at, UUID id) {
+
+        // Truncated to the column's microsecond precision, like the values sendMessage stores
+        static KeysetCursor of(ChatMessage m) {
+            return new KeysetCursor(m.getCreatedAt().truncatedTo(ChronoUnit.MICROS), m.getId());
+        }
+
+        String encode() {
+            String raw = at + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static KeysetCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                return new KeysetCursor(
+                        LocalDateTime.parse(raw.substring(0, sep)),
+                        UUID.fromString(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
     // ─────────────────────────────────────────────────────────────────────────
     // Guards & helpers
     // ─────────────────────────────────────────────────────────────────────────
@@ -330,13 +484,6 @@ public class MessagingService {
         }
     }
 
-    private Role resolveRole(Conversation conv, UUID callerUserId) {
-        if (conv.getDoctor().getUser().getId().equals(callerUserId))
-            return Role.DOCTOR;
-        if (conv.getPatient().getUser().getId().equals(callerUserId))
-            return Role.PATIENT;
-        throw new SecurityException("Access denied — you are not a participant of this conversation");
-    }
 
     private boolean isParticipant(Conversation conv, UUID callerUserId) {
         return conv.getDoctor().getUser().getId().equals(callerUserId)
@@ -1,25 +1,39 @@
 package com.medsyncpro.service;
 
-import com.medsyncpro.entity.Notification;
+import com.medsyncpro.entity.NotificationChannel;
 import com.medsyncpro.entity.User;
-import com.medsyncpro.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.UUID;
 
+/**
+ * Queues in-app, email and push notifications in the notification_outbox table.
+ *
+ * Rows are written with the caller's transaction, so a rolled-back business change sends
+ * nothing and a committed one is always delivered; NotificationOutboxRelay does the actual
+ * delivery in the background (woken right after commit).
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationDispatchService {
 
-    private final NotificationRepository notificationRepository;
-    private final SseEmitterService sseEmitterService;
-    private final FirebasePushService firebasePushService;
-    private final EmailService emailService;
+    private static final String INSERT_OUTBOX_SQL = """
+            INSERT INTO notification_outbox
+                (id, idempotency_key, channel, recipient_user_id, type, title, message, reference_id,
+                 status, attempts, next_attempt_at, created_at)
+            VALUES (CAST(? AS uuid), ?, ?, CAST(? AS uuid), ?, ?, ?, ?, 'PENDING', 0, now(), now())
+            ON CONFLICT (idempotency_key) DO NOTHING
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NotificationOutboxRelay outboxRelay;
 
     public void notifyUser(
             User recipient,
@@ -46,40 +60,17 @@ public class NotificationDispatchService {
             return;
         }
 
+        List<NotificationChannel> channels = new ArrayList<>(3);
         if (inApp) {
-            Notification notification = new Notification();
-            notification.setRecipientId(recipient.getId().toString());
-            notification.setType(type);
-            notification.setReferenceId(referenceId);
-            notification.setTitle(title);
-            notification.setMessage(message);
-            notification.setIsRead(false);
-            notificationRepository.save(notification);
-
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("type", type);
-            payload.put("title", title);
-            payload.put("message", message);
-            if (referenceId != null) {
-                payload.put("referenceId", referenceId);
-            }
-            sseEmitterService.sendToUser(recipient.getId(), "notification", payload);
+            channels.add(NotificationChannel.IN_APP);
         }
-
         if (push && recipient.getFcmToken() != null && !recipient.getFcmToken().isBlank()) {
-            try {
-                firebasePushService.sendPushNotification(recipient.getFcmToken(), title, message);
-            } catch (Exception e) {
-                log.warn("Failed to send push notification to {}: {}", recipient.getId(), e.getMessage());
-            }
+            channels.add(NotificationChannel.PUSH);
         }
-
         if (email && recipient.getEmail() != null && !recipient.getEmail().isBlank()) {
-            String displayName = recipient.getEmail().contains("@")
-                    ? recipient.getEmail().split("@")[0]
-                    : recipient.getEmail();
-            emailService.sendGenericNotificationEmail(recipient.getEmail(), displayName, title, message);
+            channels.add(NotificationChannel.EMAIL);
         }
+        enqueue(recipient.getId(), channels, type, title, message, referenceId);
     }
 
     public void notifyUsers(
@@ -111,22 +102,23 @@ public class NotificationDispatchService {
     }
 
     public void notifyAdminBroadcast(String type, String title, String message, String referenceId) {
-        Notification notification = new Notification();
-        notification.setRecipientId(null);
-        notification.setType(type);
-        notification.setReferenceId(referenceId);
-        notification.setTitle(title);
-        notification.setMessage(message);
-        notification.setIsRead(false);
-        notificationRepository.save(notification);
+        enqueue(null, List.of(NotificationChannel.IN_APP), type, title, message, referenceId);
+    }
 
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("type", type);
-        payload.put("title", title);
-        payload.put("message", message);
-        if (referenceId != null) {
-            payload.put("referenceId", referenceId);
+    // One row per channel, keyed "<notification id>:<channel>" so channels retry independently
+    private void enqueue(UUID recipientUserId, List<NotificationChannel> channels,
+            String type, String title, String message, String referenceId) {
+        if (channels.isEmpty()) {
+            return;
+        }
+        UUID notificationId = UUID.randomUUID();
+        List<Object[]> rows = new ArrayList<>(channels.size());
+        for (NotificationChannel channel : channels) {
+            UUID rowId = channel == NotificationChannel.IN_APP ? notificationId : UUID.randomUUID();
+            rows.add(new Object[] { rowId, notificationId + ":" + channel, channel.name(), recipientUserId,
+                    type, title, message, referenceId });
         }
-        sseEmitterService.sendToAdmins("notification", payload);
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_OUTBOX_SQL, rows);
+        outboxRelay.wakeAfterCommit();
     }
 }
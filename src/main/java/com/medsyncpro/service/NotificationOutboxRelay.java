@@ -0,0 +1,361 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.entity.NotificationChannel;
+import com.medsyncpro.entity.User;
+import com.medsyncpro.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers notification_outbox rows written by NotificationDispatchService.
+ *
+ * Each pass claims up to {@code notifications.outbox.batch-size} due rows with
+ * FOR UPDATE SKIP LOCKED (so several instances can relay side by side), marks them
+ * IN_FLIGHT for a lease, and delivers them per channel:
+ *
+ *   IN_APP — one batched insert into notifications (the outbox id is the notification id,
+ *            so a redelivery is a no-op) committed together with marking the rows SENT,
+ *            then SSE to the connected recipients
+ *   EMAIL  — Brevo batch requests (chunked by BrevoEmailClient), with an idempotency key
+ *   PUSH   — FCM sendEach batches of up to 500
+ *
+ * Failed rows go back to PENDING with exponential backoff until max-attempts, then FAILED.
+ * A row whose instance died mid-delivery is picked up again once its lease expires.
+ */
+@Service
+@Slf4j
+public class NotificationOutboxRelay {
+
+    private record OutboxRow(UUID id, String idempotencyKey, NotificationChannel channel, UUID recipientUserId,
+            String type, String title, String message, String referenceId) {
+    }
+
+    private static final String CLAIM_SQL = """
+            UPDATE notification_outbox o
+            SET status = 'IN_FLIGHT', attempts = o.attempts + 1,
+                next_attempt_at = now() + make_interval(secs => CAST(:leaseSeconds AS double precision))
+            WHERE o.id IN (
+                SELECT id FROM notification_outbox
+                WHERE status IN ('PENDING', 'IN_FLIGHT') AND next_attempt_at <= now()
+                ORDER BY next_attempt_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            RETURNING o.id, o.idempotency_key, o.channel, o.recipient_user_id, o.type, o.title, o.message,
+                      o.reference_id
+            """;
+
+    private static final String INSERT_NOTIFICATION_SQL = """
+            INSERT INTO notifications (id, recipient_id, type, reference_id, title, message, is_read, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, false, now())
+            ON CONFLICT (id) DO NOTHING
+            """;
+
+    private static final String MARK_SENT_SQL = """
+            UPDATE notification_outbox SET status = 'SENT', sent_at = now(), last_error = NULL
+            WHERE id IN (:ids)
+            """;
+
+    private static final String MARK_FAILED_SQL = """
+            UPDATE notification_outbox
+            SET status = CASE WHEN attempts >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END,
+                next_attempt_at = now() + make_interval(secs => LEAST(
+                    CAST(:baseSeconds AS double precision) * power(2, attempts - 1),
+                    CAST(:maxSeconds AS double precision))),
+                last_error = :error
+            WHERE id IN (:ids)
+            """;
+
+    private static final String PURGE_SQL = """
+            DELETE FROM notification_outbox
+            WHERE status = 'SENT' AND sent_at < now() - make_interval(days => CAST(:days AS int))
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor executor;
+    private final UserRepository userRepository;
+    private final SseEmitterService sseEmitterService;
+    private final FirebasePushService firebasePushService;
+    private final EmailService emailService;
+    private final BrevoEmailClient brevoEmailClient;
+    private final SchedulerCoordinator schedulerCoordinator;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+
+    @Value("${notifications.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${notifications.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notifications.outbox.retry-base-seconds:5}")
+    private long retryBaseSeconds;
+
+    @Value("${notifications.outbox.retry-max-seconds:900}")
+    private long retryMaxSeconds;
+
+    @Value("${notifications.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${notifications.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public NotificationOutboxRelay(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("outboxRelayExecutor") TaskExecutor executor,
+            UserRepository userRepository,
+            SseEmitterService sseEmitterService,
+            FirebasePushService firebasePushService,
+            EmailService emailService,
+            BrevoEmailClient brevoEmailClient,
+            SchedulerCoordinator schedulerCoordinator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.userRepository = userRepository;
+        this.sseEmitterService = sseEmitterService;
+        this.firebasePushService = firebasePushService;
+        this.emailService = emailService;
+        this.brevoEmailClient = brevoEmailClient;
+        this.schedulerCoordinator = schedulerCoordinator;
+    }
+
+    /**
+     * Start a relay pass once the current transaction commits (immediately if there is none),
+     * so new notifications don't wait for the next poll.
+     */
+    public void wakeAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wake();
+    }
+
+    @Scheduled(cron = "0 20 * * * *")
+    public void purgeSent() {
+        if (!schedulerCoordinator.tryAcquire("notification-outbox-purge", Duration.ofMinutes(30))) {
+            return;
+        }
+        int purged = jdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource("days", retentionDays));
+        if (purged > 0) {
+            log.info("Purged {} delivered notification outbox rows", purged);
+        }
+    }
+
+    // Runs drain on its own single-thread executor. The running flag keeps at most one drain
+    // queued behind the one finishing, so its one-slot queue doesn't overflow in practice
+    private void wake() {
+        wakeRequested.set(true);
+        if (running.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (wakeRequested.getAndSet(false)) {
+                while (relayBatch() >= batchSize) {
+                    // keep going while full batches are being claimed
+                }
+            }
+        } catch (Exception e) {
+            log.error("Notification outbox relay failed: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+        // A wake that raced with the finally block above
+        if (wakeRequested.get() && running.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    // One claim-and-deliver pass; package-private so tests can drive the relay synchronously
+    int relayBatch() {
+        MapSqlParameterSource claim = new MapSqlParameterSource()
+                .addValue("leaseSeconds", leaseSeconds)
+                .addValue("limit", batchSize);
+        List<OutboxRow> rows = jdbcTemplate.query(CLAIM_SQL, claim, (rs, rowNum) -> new OutboxRow(
+                rs.getObject("id", UUID.class),
+                rs.getString("idempotency_key"),
+                NotificationChannel.valueOf(rs.getString("channel")),
+                rs.getObject("recipient_user_id", UUID.class),
+                rs.getString("type"),
+                rs.getString("title"),
+                rs.getString("message"),
+                rs.getString("reference_id")));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<NotificationChannel, List<OutboxRow>> byChannel = rows.stream()
+                .collect(Collectors.groupingBy(OutboxRow::channel));
+        Set<UUID> recipientIds = rows.stream()
+                .filter(r -> r.channel() != NotificationChannel.IN_APP && r.recipientUserId() != null)
+                .map(OutboxRow::recipientUserId)
+                .collect(Collectors.toSet());
+        Map<UUID, User> users = recipientIds.isEmpty() ? Map.of() : userRepository.findAllById(recipientIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        deliverInApp(byChannel.getOrDefault(NotificationChannel.IN_APP, List.of()));
+        deliverEmail(byChannel.getOrDefault(NotificationChannel.EMAIL, List.of()), users);
+        deliverPush(byChannel.getOrDefault(NotificationChannel.PUSH, List.of()), users);
+        return rows.size();
+    }
+
+    private void deliverInApp(List<OutboxRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_NOTIFICATION_SQL, rows.stream()
+                        .map(r -> new Object[] {
+                                r.id().toString(),
+                                r.recipientUserId() != null ? r.recipientUserId().toString() : null,
+                                r.type(), r.referenceId(), r.title(), r.message() })
+                        .toList());
+                markSent(ids(rows));
+            });
+        } catch (Exception e) {
+            markFailed(ids(rows), e.getMessage());
+            return;
+        }
+
+        for (OutboxRow row : rows) {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", row.type());
+            payload.put("title", row.title());
+            payload.put("message", row.message());
+            if (row.referenceId() != null) {
+                payload.put("referenceId", row.referenceId());
+            }
+            if (row.recipientUserId() == null) {
+                sseEmitterService.sendToAdmins("notification", payload);
+            } else {
+                sseEmitterService.sendToUser(row.recipientUserId(), "notification", payload);
+            }
+        }
+    }
+
+    private void deliverEmail(List<OutboxRow> rows, Map<UUID, User> users) {
+        List<UUID> skipped = new ArrayList<>();
+        List<OutboxRow> sendable = new ArrayList<>();
+        for (OutboxRow row : rows) {
+            User user = users.get(row.recipientUserId());
+            if (user == null || user.getEmail() == null || user.getEmail().isBlank()) {
+                skipped.add(row.id());
+            } else {
+                sendable.add(row);
+            }
+        }
+        markSent(skipped);
+
+        if (sendable.isEmpty()) {
+            return;
+        }
+
+        List<BrevoEmailClient.OutgoingEmail> emails = sendable.stream()
+                .map(row -> {
+                    String address = users.get(row.recipientUserId()).getEmail();
+                    String displayName = address.contains("@") ? address.split("@")[0] : address;
+                    return emailService.renderGenericNotificationEmail(address, displayName, row.title(), row.message());
+                })
+                .toList();
+        List<Boolean> accepted = brevoEmailClient.sendBatch(emails, batchKey(sendable));
+        List<UUID> done = new ArrayList<>();
+        List<UUID> failed = new ArrayList<>();
+        for (int i = 0; i < sendable.size(); i++) {
+            (accepted.get(i) ? done : failed).add(sendable.get(i).id());
+        }
+        markSent(done);
+        markFailed(failed, "Brevo send failed");
+    }
+
+    private void deliverPush(List<OutboxRow> rows, Map<UUID, User> users) {
+        List<UUID> skipped = new ArrayList<>();
+        List<OutboxRow> sendable = new ArrayList<>();
+        List<FcmGateway.PushMessage> messages = new ArrayList<>();
+        for (OutboxRow row : rows) {
+            User user = users.get(row.recipientUserId());
+            if (user == null || user.getFcmToken() == null || user.getFcmToken().isBlank()) {
+                skipped.add(row.id());
+            } else {
+                sendable.add(row);
+                messages.add(new FcmGateway.PushMessage(user.getFcmToken(), row.title(), row.message()));
+            }
+        }
+        markSent(skipped);
+        if (sendable.isEmpty()) {
+            return;
+        }
+
+        // A pruned (invalid) token will never succeed, so it counts as done rather than retried
+        List<FirebasePushService.Outcome> outcomes = firebasePushService.sendBatch(messages);
+        List<UUID> done = new ArrayList<>();
+        List<UUID> failed = new ArrayList<>();
+        for (int i = 0; i < sendable.size(); i++) {
+            (outcomes.get(i) == FirebasePushService.Outcome.FAILED ? failed : done).add(sendable.get(i).id());
+        }
+        markSent(done);
+        markFailed(failed, "FCM send failed");
+    }
+
+    private void markSent(List<UUID> ids) {
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update(MARK_SENT_SQL, new MapSqlParameterSource("ids", ids));
+        }
+    }
+
+    private void markFailed(List<UUID> ids, String error) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        log.warn("Notification outbox: {} deliveries failed, will retry: {}", ids.size(), error);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("maxAttempts", maxAttempts)
+                .addValue("baseSeconds", retryBaseSeconds)
+                .addValue("maxSeconds", retryMaxSeconds)
+                .addValue("error", error);
+        jdbcTemplate.update(MARK_FAILED_SQL, params);
+    }
+
+    private static List<UUID> ids(List<OutboxRow> rows) {
+        return rows.stream().map(OutboxRow::id).toList();
+    }
+
+    // Same rows → same key, so a Brevo-side retry of this exact batch is deduplicated
+    private static String batchKey(List<OutboxRow> rows) {
+        String joined = rows.stream().map(OutboxRow::idempotencyKey).sorted().collect(Collectors.joining(","));
+        return UUID.nameUUIDFromBytes(joined.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
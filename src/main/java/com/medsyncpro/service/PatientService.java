@@ -1,7 +1,5 @@
 package com.medsyncpro.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medsyncpro.dto.request.AppointmentRequest;
 import com.medsyncpro.dto.response.AppointmentResponse;
 import com.medsyncpro.dto.response.SlotResponse;
@@ -10,6 +8,7 @@ import com.medsyncpro.event.AppointmentBookedEvent;
 import com.medsyncpro.event.AppointmentCancelledEvent;
 import com.medsyncpro.exception.ResourceNotFoundException;
 import com.medsyncpro.repository.*;
+import com.medsyncpro.utils.JsonColumns;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -19,10 +18,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -38,8 +35,10 @@ public class PatientService {
     private final AppointmentRepository appointmentRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final PrescriptionRepository prescriptionRepository;
+    private final SlotAvailabilityService slotAvailabilityService;
+    private final AppointmentBookingGuard bookingGuard;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonColumns jsonColumns;
 
     // ─── Book Appointment ─────────────────────────────────────────────────
 
@@ -66,7 +65,8 @@ public class PatientService {
 
         LocalTime endTime = request.getScheduledTime().plusMinutes(slotDuration);
 
-        // Check for double-booking
+        // Check for double-booking; the lock makes check-then-insert atomic per doctor
+        bookingGuard.lockDoctorSchedule(doctor.getId());
         List<Appointment> conflicts = appointmentRepository.findConflicting(
                 doctor.getId(),
                 request.getScheduledDate(),
@@ -102,7 +102,9 @@ public class PatientService {
                 .symptoms(request.getSymptoms())
                 .build();
 
-        appointment = appointmentRepository.save(appointment);
+        appointment = bookingGuard.saveAppointment(appointment,
+                "This time slot is already booked. Please choose another slot.");
+        slotAvailabilityService.invalidate(request.getDoctorId());
 
         log.info("Appointment booked: {} by patient {} with doctor {}",
                 appointment.getId(), patientUserId, doctor.getId());
@@ -123,8 +125,9 @@ public class PatientService {
         Page<Appointment> page = appointmentRepository
                 .findByPatientIdOrderByScheduledDateDescScheduledTimeDesc(patient.getId(), pageable);
 
+        Map<UUID, String> settingsSpecialties = loadSettingsSpecialties(page.getContent());
         List<AppointmentResponse> responses = page.getContent().stream()
-                .map(this::toResponse)
+                .map(a -> toResponse(a, settingsSpecialties))
                 .collect(Collectors.toList());
 
         return new PageImpl<>(responses, pageable, page.getTotalElements());
@@ -152,6 +155,7 @@ public class PatientService {
         appointment.setStatus(AppointmentStatus.CANCELLED);
         appointment.setCancellationReason("Cancelled by patient");
         appointmentRepository.save(appointment);
+        slotAvailabilityService.invalidate(appointment.getDoctor().getUser().getId());
 
         eventPublisher.publishEvent(new AppointmentCancelledEvent(this, appointment, "PATIENT"));
 
@@ -162,143 +166,34 @@ public class PatientService {
 
     @Transactional(readOnly = true)
     public List<SlotResponse> getAvailableSlots(UUID doctorId, String type) {
-        Doctor doctor = doctorRepository.findByUserId(doctorId)
-                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found"));
-
-        DoctorSettings settings = doctorSettingsRepository.findByUserId(doctor.getUser().getId())
-                .orElse(null);
-
-        if (settings == null || !Boolean.TRUE.equals(settings.getAvailableForConsultation())) {
-            return List.of();
-        }
-
-        int slotDuration = settings.getSlotDurationMinutes();
-        Map<String, Object> weeklySchedule = parseWeeklySchedule(settings.getWeeklySchedule());
-
-        List<SlotResponse> slots = new ArrayList<>();
-        LocalDate today = LocalDate.now();
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
-        // Generate slots for the next 14 days
-        for (int dayOffset = 0; dayOffset < 14; dayOffset++) {
-            LocalDate date = today.plusDays(dayOffset);
-            DayOfWeek dayOfWeek = date.getDayOfWeek();
-            String dayKey = dayOfWeek.name().substring(0, 1) + dayOfWeek.name().substring(1).toLowerCase();
-
-            Map<String, Object> daySchedule = getDaySchedule(weeklySchedule, dayKey);
-            if (daySchedule == null || !Boolean.TRUE.equals(daySchedule.get("enabled"))) {
-                continue;
-            }
-
-            List<Map<String, String>> timeSlots = getTimeSlots(daySchedule);
-            if (timeSlots == null || timeSlots.isEmpty()) {
-                // Generate from start/end times if no explicit slots
-                String startStr = (String) daySchedule.get("start");
-                String endStr = (String) daySchedule.get("end");
-                if (startStr != null && endStr != null) {
-                    timeSlots = new ArrayList<>();
-                    Map<String, String> slot = new HashMap<>();
-                    slot.put("start", startStr);
-                    slot.put("end", endStr);
-                    timeSlots.add(slot);
-                }
-            }
-
-            if (timeSlots == null)
-                continue;
-
-            // Get existing appointments for this date
-            List<Appointment> existingAppts = appointmentRepository
-                    .findByDoctorIdAndScheduledDate(doctor.getId(), date);
-
-            Set<String> bookedTimes = existingAppts.stream()
-                    .map(a -> a.getScheduledTime().toString())
-                    .collect(Collectors.toSet());
-
-            for (Map<String, String> timeSlot : timeSlots) {
-                String start = timeSlot.get("start");
-                String end = timeSlot.get("end");
-                if (start == null || end == null)
-                    continue;
-
-                LocalTime slotStart = LocalTime.parse(start);
-                LocalTime slotEnd = LocalTime.parse(end);
-
-                while (slotStart.plusMinutes(slotDuration).compareTo(slotEnd) <= 0) {
-                    // Skip slots in the past for today
-                    if (date.equals(today) && slotStart.isBefore(LocalTime.now())) {
-                        slotStart = slotStart.plusMinutes(slotDuration);
-                        continue;
-                    }
-
-                    boolean isBooked = bookedTimes.contains(slotStart.toString());
-
-                    slots.add(SlotResponse.builder()
-                            .date(date.format(dateFormatter))
-                            .time(slotStart.toString())
-                            .available(!isBooked)
-                            .build());
-
-                    slotStart = slotStart.plusMinutes(slotDuration);
-                }
-            }
-        }
-
-        return slots;
+        return slotAvailabilityService.getAvailableSlots(doctorId);
     }
 
     // ─── Helpers ──────────────────────────────────────────────────────────
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> parseWeeklySchedule(String json) {
-        if (json == null || json.isBlank()) {
-            // Default schedule: Mon-Fri 09:00-17:00
-            Map<String, Object> defaultSchedule = new LinkedHashMap<>();
-            for (String day : new String[] { "Monday", "Tuesday", "Wednesday", "Thursday", "Friday" }) {
-                Map<String, Object> dayMap = new LinkedHashMap<>();
-                dayMap.put("enabled", true);
-                dayMap.put("start", "09:00");
-                dayMap.put("end", "17:00");
-                defaultSchedule.put(day, dayMap);
-            }
-            for (String day : new String[] { "Saturday", "Sunday" }) {
-                Map<String, Object> dayMap = new LinkedHashMap<>();
-                dayMap.put("enabled", false);
-                defaultSchedule.put(day, dayMap);
-            }
-            return defaultSchedule;
-        }
-        try {
-            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {
-            });
-        } catch (Exception e) {
-            log.warn("Failed to parse weekly schedule: {}", e.getMessage());
-            return Map.of();
+    /**
+     * Settings specialty per doctor userId for appointments whose doctor has no
+     * specialization set, loaded in one query for the whole page.
+     */
+    private Map<UUID, String> loadSettingsSpecialties(List<Appointment> appointments) {
+        Set<UUID> doctorUserIds = appointments.stream()
+                .map(Appointment::getDoctor)
+                .filter(d -> d.getSpecialization() == null)
+                .map(d -> d.getUser().getId())
+                .collect(Collectors.toSet());
+        Map<UUID, String> specialties = new HashMap<>();
+        if (!doctorUserIds.isEmpty()) {
+            doctorSettingsRepository.findByUserIdIn(doctorUserIds)
+                    .forEach(s -> specialties.put(s.getUser().getId(), s.getSpecialty()));
         }
+        return specialties;
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> getDaySchedule(Map<String, Object> schedule, String dayKey) {
-        Object val = schedule.get(dayKey);
-        if (val instanceof Map)
-            return (Map<String, Object>) val;
-        // Try lowercase
-        val = schedule.get(dayKey.toLowerCase());
-        if (val instanceof Map)
-            return (Map<String, Object>) val;
-        return null;
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<Map<String, String>> getTimeSlots(Map<String, Object> daySchedule) {
-        Object slots = daySchedule.get("slots");
-        if (slots instanceof List) {
-            return (List<Map<String, String>>) slots;
-        }
-        return null;
+    private AppointmentResponse toResponse(Appointment appt) {
+        return toResponse(appt, null);
     }
 
-    private AppointmentResponse toResponse(Appointment appt) {
+    private AppointmentResponse toResponse(Appointment appt, Map<UUID, String> settingsSpecialties) {
         Doctor doctor = appt.getDoctor();
         Patient patient = appt.getPatient();
         User doctorUser = doctor.getUser();
@@ -307,6 +202,8 @@ public class PatientService {
         String specialtyName = null;
         if (doctor.getSpecialization() != null) {
             specialtyName = doctor.getSpecialization().getName();
+        } else if (settingsSpecialties != null) {
+            specialtyName = settingsSpecialties.get(doctorUser.getId());
         } else {
             DoctorSettings settings = doctorSettingsRepository.findByUserId(doctorUser.getId()).orElse(null);
             if (settings != null)
@@ -376,9 +273,7 @@ public class PatientService {
             try {
                 String raw = rx.getMedicines();
                 if (raw != null && !raw.isBlank()) {
-                    List<Map<String, Object>> meds = objectMapper.readValue(
-                            raw, new TypeReference<List<Map<String, Object>>>() {
-                            });
+                    List<Map<String, Object>> meds = jsonColumns.readObjectList(raw);
                     map.put("medicines", meds);
                 } else {
                     map.put("medicines", List.of());
@@ -22,6 +22,7 @@ import java.util.UUID;
 public class RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
     private static final long REFRESH_EXPIRY_DAYS = 7;
 
@@ -93,6 +94,7 @@ public class RefreshTokenService {
 
     public void revokeAllUserTokens(User user) {
         refreshTokenRepository.deleteByUser(user);
+        userPrincipalCache.evict(user);
     }
 
     // ─────────────────────────────────────────────
@@ -0,0 +1,152 @@
+package com.medsyncpro.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Divides scheduled work between application instances through two Postgres tables.
+ *
+ * scheduler_nodes: every instance heartbeats its row; the live rows, sorted by node id,
+ * give each instance a {@link Partition} (its index among n live nodes). Per-patient jobs
+ * only touch rows where {@code (hashtext(CAST(patient_id AS text)) & 2147483647) % n = index}.
+ * While membership changes, two nodes can briefly claim the same patients; the partitioned
+ * statements re-check status under row locks, so the overlap never double-processes a dose.
+ *
+ * scheduler_leases: jobs that must run on one node per tick call {@link #tryAcquire}; a lease
+ * is kept until it expires so a node with a slightly late clock can't run the same tick again.
+ * All times come from the database clock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerCoordinator {
+
+    public record Partition(int index, int count) {
+
+        public static final Partition ALL = new Partition(0, 1);
+    }
+
+    private static final String HEARTBEAT_SQL = """
+            INSERT INTO scheduler_nodes (node_id, heartbeat_at) VALUES (:nodeId, now())
+            ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = EXCLUDED.heartbeat_at
+            """;
+
+    private static final String LIVE_NODES_SQL = """
+            SELECT node_id FROM scheduler_nodes
+            WHERE heartbeat_at > now() - make_interval(secs => CAST(:ttl AS double precision))
+            ORDER BY node_id
+            """;
+
+    private static final String PRUNE_NODES_SQL = """
+            DELETE FROM scheduler_nodes
+            WHERE heartbeat_at < now() - make_interval(secs => CAST(:ttl AS double precision) * 10)
+            """;
+
+    private static final String ACQUIRE_LEASE_SQL = """
+            INSERT INTO scheduler_leases (job_name, owner, expires_at)
+            VALUES (:job, :nodeId, now() + make_interval(secs => CAST(:seconds AS double precision)))
+            ON CONFLICT (job_name) DO UPDATE SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at
+            WHERE scheduler_leases.expires_at <= now()
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${scheduler.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${scheduler.node-ttl-seconds:30}")
+    private int nodeTtlSeconds;
+
+    private String nodeId;
+
+    private volatile Partition partition = Partition.ALL;
+
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            nodeId = configuredNodeId;
+            return;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        nodeId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * This node's share of per-patient work as of the last heartbeat.
+     * Falls back to everything when the node can't see itself as live (e.g. heartbeat failing).
+     */
+    public Partition partition() {
+        return partition;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Claim {@code job} for {@code leaseFor} unless another node holds an unexpired lease.
+     */
+    public boolean tryAcquire(String job, Duration leaseFor) {
+        try {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("job", job)
+                    .addValue("nodeId", nodeId)
+                    .addValue("seconds", leaseFor.toSeconds());
+            return jdbcTemplate.update(ACQUIRE_LEASE_SQL, params) > 0;
+        } catch (Exception e) {
+            log.warn("Failed to acquire scheduler lease {}: {}", job, e.getMessage());
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        try {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("nodeId", nodeId)
+                    .addValue("ttl", nodeTtlSeconds);
+            jdbcTemplate.update(HEARTBEAT_SQL, params);
+            List<String> live = jdbcTemplate.queryForList(LIVE_NODES_SQL, params, String.class);
+            jdbcTemplate.update(PRUNE_NODES_SQL, params);
+
+            int index = live.indexOf(nodeId);
+            Partition next = index < 0 ? Partition.ALL : new Partition(index, live.size());
+            if (!next.equals(partition)) {
+                log.info("Scheduler node {} now owns partition {}/{}", nodeId, next.index(), next.count());
+            }
+            partition = next;
+        } catch (Exception e) {
+            log.warn("Scheduler heartbeat failed for node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Leave the cluster on shutdown so the remaining nodes rebalance on their next heartbeat.
+     */
+    @PreDestroy
+    public void leave() {
+        try {
+            jdbcTemplate.update("DELETE FROM scheduler_nodes WHERE node_id = :nodeId",
+                    new MapSqlParameterSource("nodeId", nodeId));
+        } catch (Exception e) {
+            log.debug("Could not remove scheduler node {}: {}", nodeId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.dto.response.SlotResponse;
+import com.medsyncpro.entity.Doctor;
+import com.medsyncpro.entity.DoctorSettings;
+import com.medsyncpro.exception.ResourceNotFoundException;
+import com.medsyncpro.repository.AppointmentRepository;
+import com.medsyncpro.repository.DoctorRepository;
+import com.medsyncpro.repository.DoctorSettingsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Bookable-slot calendar for the next {@value #WINDOW_DAYS} days of a doctor.
+ *
+ * Each day is a sorted array of slot start minutes plus a BitSet of booked slot indices,
+ * built from the weekly schedule and a single appointments query for the whole window.
+ * Calendars are cached per doctor (user id) and must be invalidated through
+ * {@link #invalidate} on booking, cancellation, rejection, rescheduling and availability
+ * or slot-duration changes. The TTL only bounds staleness from writes on other instances.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotAvailabilityService {
+
+    private static final int WINDOW_DAYS = 14;
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorSettingsRepository doctorSettingsRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorSettingsViewCache settingsViewCache;
+
+    @Value("${appointments.slot-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${appointments.slot-cache.max-size:5000}")
+    private int maxSize;
+
+    private record DayCalendar(LocalDate date, String dateText, int[] startMinutes, String[] startTexts,
+            BitSet booked) {
+    }
+
+    private record Calendar(LocalDate firstDay, List<DayCalendar> days, long expiresAtMillis) {
+    }
+
+    // doctor user id → calendar
+    private final Map<UUID, Calendar> calendars = new ConcurrentHashMap<>();
+
+    // doctor user id → invalidation count; a calendar built across an invalidation is not cached
+    private final Map<UUID, Long> invalidations = new ConcurrentHashMap<>();
+
+    /**
+     * Slots for the next {@value #WINDOW_DAYS} days, skipping today's slots that already started.
+     * Call within a read-only transaction.
+     */
+    public List<SlotResponse> getAvailableSlots(UUID doctorUserId) {
+        LocalDate today = LocalDate.now();
+        long now = System.currentTimeMillis();
+
+        Calendar calendar = calendars.get(doctorUserId);
+        if (calendar == null || !calendar.firstDay().equals(today) || calendar.expiresAtMillis() <= now) {
+            long stamp = invalidations.getOrDefault(doctorUserId, 0L);
+            calendar = build(doctorUserId, today, now);
+            if (invalidations.getOrDefault(doctorUserId, 0L) == stamp) {
+                if (calendars.size() >= maxSize) {
+                    calendars.entrySet().removeIf(e -> e.getValue().expiresAtMillis() <= now);
+                }
+                if (calendars.size() < maxSize) {
+                    calendars.put(doctorUserId, calendar);
+                }
+            }
+        }
+
+        int nowMinute = minuteOfDay(LocalTime.now());
+        List<SlotResponse> slots = new ArrayList<>();
+        for (DayCalendar day : calendar.days()) {
+            boolean isToday = day.date().equals(today);
+            for (int i = 0; i < day.startMinutes().length; i++) {
+                if (isToday && day.startMinutes()[i] < nowMinute) {
+                    continue;
+                }
+                slots.add(SlotResponse.builder()
+                        .date(day.dateText())
+                        .time(day.startTexts()[i])
+                        .available(!day.booked().get(i))
+                        .build());
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Drop a doctor's cached calendar now and again after the current transaction completes,
+     * so a concurrent rebuild can't cache the pre-commit state.
+     */
+    public void invalidate(UUID doctorUserId) {
+        if (doctorUserId == null) {
+            return;
+        }
+        Runnable eviction = () -> {
+            invalidations.merge(doctorUserId, 1L, Long::sum);
+            calendars.remove(doctorUserId);
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private Calendar build(UUID doctorUserId, LocalDate today, long now) {
+        Doctor doctor = doctorRepository.findByUserId(doctorUserId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found"));
+
+        DoctorSettings settings = doctorSettingsRepository.findByUserId(doctorUserId)
+                .orElse(null);
+
+        long expiresAt = now + ttlSeconds * 1000;
+        if (settings == null || !Boolean.TRUE.equals(settings.getAvailableForConsultation())) {
+            return new Calendar(today, List.of(), expiresAt);
+        }
+
+        int slotDuration = settings.getSlotDurationMinutes();
+        Map<String, Object> weeklySchedule = settingsViewCache.get(settings).weeklySchedule();
+        if (weeklySchedule == null) {
+            // Blank → default schedule; unparseable → no working days
+            String json = settings.getWeeklySchedule();
+            weeklySchedule = json == null || json.isBlank() ? defaultWeeklySchedule() : Map.of();
+        }
+
+        LocalDate lastDay = today.plusDays(WINDOW_DAYS - 1);
+        Map<LocalDate, List<AppointmentRepository.BookedSlot>> bookedByDate = appointmentRepository
+                .findBookedSlots(doctor.getId(), today, lastDay).stream()
+                .collect(Collectors.groupingBy(AppointmentRepository.BookedSlot::getScheduledDate));
+
+        List<DayCalendar> days = new ArrayList<>(WINDOW_DAYS);
+        for (int dayOffset = 0; dayOffset < WINDOW_DAYS; dayOffset++) {
+            LocalDate date = today.plusDays(dayOffset);
+            int[] startMinutes = dayStartMinutes(weeklySchedule, date.getDayOfWeek(), slotDuration);
+            if (startMinutes.length == 0) {
+                continue;
+            }
+
+            String[] startTexts = new String[startMinutes.length];
+            for (int i = 0; i < startMinutes.length; i++) {
+                startTexts[i] = LocalTime.of(startMinutes[i] / 60, startMinutes[i] % 60).toString();
+            }
+
+            // A slot is booked if any active appointment overlaps it
+            BitSet booked = new BitSet(startMinutes.length);
+            for (AppointmentRepository.BookedSlot appt : bookedByDate.getOrDefault(date, List.of())) {
+                int apptStart = minuteOfDay(appt.getScheduledTime());
+                int apptEnd = appt.getEndTime() != null && appt.getEndTime().isAfter(appt.getScheduledTime())
+                        ? minuteOfDay(appt.getEndTime())
+                        : apptStart + slotDuration;
+                for (int i = 0; i < startMinutes.length; i++) {
+                    if (startMinutes[i] < apptEnd && startMinutes[i] + slotDuration > apptStart) {
+                        booked.set(i);
+                    }
+                }
+            }
+
+            days.add(new DayCalendar(date, date.toString(), startMinutes, startTexts, booked));
+        }
+        return new Calendar(today, days, expiresAt);
+    }
+
+    /**
+     * Start minutes of every slot that fits in the day's windows, sorted and de-duplicated.
+     */
+    private int[] dayStartMinutes(Map<String, Object> weeklySchedule, DayOfWeek dayOfWeek, int slotDuration) {
+        String dayKey = dayOfWeek.name().substring(0, 1) + dayOfWeek.name().substring(1).toLowerCase();
+        Map<String, Object> daySchedule = getDaySchedule(weeklySchedule, dayKey);
+        if (daySchedule == null || !Boolean.TRUE.equals(daySchedule.get("enabled")) || slotDuration <= 0) {
+            return new int[0];
+        }
+
+        List<Map<String, String>> timeSlots = getTimeSlots(daySchedule);
+        if (timeSlots == null || timeSlots.isEmpty()) {
+            // Generate from start/end times if no explicit slots
+            String startStr = (String) daySchedule.get("start");
+            String endStr = (String) daySchedule.get("end");
+            if (startStr == null || endStr == null) {
+                return new int[0];
+            }
+            timeSlots = List.of(Map.of("start", startStr, "end", endStr));
+        }
+
+        TreeSet<Integer> starts = new TreeSet<>();
+        for (Map<String, String> timeSlot : timeSlots) {
+            String start = timeSlot.get("start");
+            String end = timeSlot.get("end");
+            if (start == null || end == null)
+                continue;
+
+            int slotEnd = minuteOfDay(LocalTime.parse(end));
+            for (int m = minuteOfDay(LocalTime.parse(start)); m + slotDuration <= slotEnd; m += slotDuration) {
+                starts.add(m);
+            }
+        }
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private Map<String, Object> defaultWeeklySchedule() {
+        // Default schedule: Mon-Fri 09:00-17:00
+        Map<String, Object> defaultSchedule = new LinkedHashMap<>();
+        for (String day : new String[] { "Monday", "Tuesday", "Wednesday", "Thursday", "Friday" }) {
+            Map<String, Object> dayMap = new LinkedHashMap<>();
+            dayMap.put("enabled", true);
+            dayMap.put("start", "09:00");
+            dayMap.put("end", "17:00");
+            defaultSchedule.put(day, dayMap);
+        }
+        for (String day : new String[] { "Saturday", "Sunday" }) {
+            Map<String, Object> dayMap = new LinkedHashMap<>();
+            dayMap.put("enabled", false);
+            defaultSchedule.put(day, dayMap);
+        }
+        return defaultSchedule;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getDaySchedule(Map<String, Object> schedule, String dayKey) {
+        Object val = schedule.get(dayKey);
+        if (val instanceof Map)
+            return (Map<String, Object>) val;
+        // Try lowercase
+        val = schedule.get(dayKey.toLowerCase());
+        if (val instanceof Map)
+            return (Map<String, Object>) val;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, String>> getTimeSlots(Map<String, Object> daySchedule) {
+        Object slots = daySchedule.get("slots");
+        if (slots instanceof List) {
+            return (List<Map<String, String>>) slots;
+        }
+        return null;
+    }
+}
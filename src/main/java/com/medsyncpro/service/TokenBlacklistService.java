@@ -2,21 +2,84 @@ package com.medsyncpro.service;
 
 import com.medsyncpro.entity.BlacklistedToken;
 import com.medsyncpro.repository.BlacklistedTokenRepository;
+import com.medsyncpro.utils.BloomFilter;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Access-token revocation list.
+ *
+ * Lookups are answered from an in-process index: a Bloom filter gives exact negative
+ * answers (the common case — almost no JTI is ever revoked), and a bounded map of
+ * revoked JTI → expiry answers positives. The database is only consulted when the
+ * Bloom filter says "maybe" and the JTI isn't in the map (false positive or map full),
+ * and for tokens issued before the index was loaded (see {@link #isBlacklisted(String, Date)}).
+ *
+ * The index is loaded at startup, updated on {@link #blacklist}, and picks up revocations
+ * written by other instances every few seconds. The sync reads by created_at with an overlap
+ * window rather than by id, because ids are allocated before commit and can become visible
+ * out of order. Expired entries are pruned after {@link #cleanupExpired}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TokenBlacklistService {
-    
+
     private final BlacklistedTokenRepository blacklistedTokenRepository;
-    
+    private final SchedulerCoordinator schedulerCoordinator;
+
+    @Value("${auth.blacklist.bloom.expected-insertions:100000}")
+    private int bloomExpectedInsertions;
+
+    @Value("${auth.blacklist.bloom.false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+
+    @Value("${auth.blacklist.local-max-entries:50000}")
+    private int localMaxEntries;
+
+    // Longer than any revoking transaction, so rows committed late are still in the next sync's window
+    @Value("${auth.blacklist.sync-overlap-ms:120000}")
+    private long syncOverlapMillis;
+
+    private volatile BloomFilter bloomFilter;
+
+    // jti → expiry for revoked tokens; complete unless it ever hit localMaxEntries
+    private final Map<String, Instant> revokedJtis = new ConcurrentHashMap<>();
+
+    private volatile boolean revokedJtisOverflowed = false;
+
+    // newest blacklisted_tokens.created_at seen (DB clock), or the first load's start when there was none;
+    // the next sync re-reads from the overlap before it
+    private volatile Instant syncedThrough;
+
+    // when the index was last loaded from the database (app clock, like the tokens' iat)
+    private volatile Instant loadedAt;
+
+    private volatile boolean indexReady = false;
+
+    @PostConstruct
+    public void warmIndex() {
+        try {
+            loadIndex();
+            log.info("Token blacklist index warmed with {} active revocations", revokedJtis.size());
+        } catch (Exception e) {
+            // Fall back to DB lookups until the next successful load
+            log.warn("Failed to warm token blacklist index: {}", e.getMessage());
+        }
+    }
+
     /**
      * Blacklist an access token by its JTI.
      * The token stays blacklisted until it naturally expires.
@@ -26,32 +89,144 @@ public class TokenBlacklistService {
         if (jti == null || isBlacklisted(jti)) {
             return;
         }
-        
+
         BlacklistedToken blacklistedToken = new BlacklistedToken();
         blacklistedToken.setJti(jti);
         blacklistedToken.setExpiryDate(expiryDate);
         blacklistedTokenRepository.save(blacklistedToken);
+        index(jti, expiryDate);
         log.info("Blacklisted token JTI: {}", jti);
     }
-    
+
     /**
-     * Check if a token JTI is blacklisted.
+     * Check if a token JTI is blacklisted, without knowing when the token was issued.
      */
     public boolean isBlacklisted(String jti) {
+        return isBlacklisted(jti, null);
+    }
+
+    /**
+     * Check if a token JTI is blacklisted.
+     *
+     * A Bloom-filter miss is only trusted for tokens issued after the index was loaded: any
+     * revocation of such a token was written after the load and reaches the index through
+     * {@link #blacklist} or the sync. Older tokens (or an unknown issue time) are checked in the DB.
+     */
+    public boolean isBlacklisted(String jti, Date issuedAt) {
+        if (!indexReady) {
+            return blacklistedTokenRepository.existsByJti(jti);
+        }
+        if (!bloomFilter.mightContain(jti)) {
+            boolean issuedAfterLoad = issuedAt != null && issuedAt.toInstant().isAfter(loadedAt);
+            return !issuedAfterLoad && blacklistedTokenRepository.existsByJti(jti);
+        }
+        if (revokedJtis.containsKey(jti)) {
+            return true;
+        }
         return blacklistedTokenRepository.existsByJti(jti);
     }
-    
+
+    /**
+     * Pull revocations written by other instances since the last sync. The window starts
+     * {@code auth.blacklist.sync-overlap-ms} before the newest row already seen, so a row
+     * whose transaction committed after a later one is still picked up; re-indexing is idempotent.
+     */
+    @Scheduled(fixedDelayString = "${auth.blacklist.sync-interval-ms:10000}")
+    public void syncRecentRevocations() {
+        if (!indexReady) {
+            return;
+        }
+        Instant since = syncedThrough.minusMillis(syncOverlapMillis);
+        List<BlacklistedToken> recent = blacklistedTokenRepository.findByCreatedAtGreaterThanEqual(since);
+        for (BlacklistedToken token : recent) {
+            index(token.getJti(), token.getExpiryDate());
+        }
+        advanceSyncedThrough(recent);
+    }
+
     /**
      * Cleanup expired blacklisted tokens every hour.
      * Expired tokens don't need to stay in the blacklist since
      * JWT validation will reject them anyway.
+     * Only the node holding the lease deletes; every node prunes its own index.
      */
     @Scheduled(fixedRate = 3600000) // Every hour
     @Transactional
     public void cleanupExpired() {
-        int deleted = blacklistedTokenRepository.deleteAllExpiredBefore(Instant.now());
-        if (deleted > 0) {
-            log.info("Cleaned up {} expired blacklisted tokens", deleted);
+        if (schedulerCoordinator.tryAcquire("token-blacklist-cleanup", Duration.ofMinutes(30))) {
+            int deleted = blacklistedTokenRepository.deleteAllExpiredBefore(Instant.now());
+            if (deleted > 0) {
+                log.info("Cleaned up {} expired blacklisted tokens", deleted);
+            }
+        }
+        // Bloom filters can't drop entries, so rebuild one from what's left. The map holds every
+        // revocation unless it overflowed; only then is the index reloaded from the DB.
+        if (revokedJtisOverflowed || !indexReady) {
+            loadIndex();
+        } else {
+            revokedJtis.entrySet().removeIf(e -> e.getValue().isBefore(Instant.now()));
+            swapBloomFilter(List.of());
+        }
+    }
+
+    private void index(String jti, Instant expiryDate) {
+        // Map first, then filter: a concurrent rebuild copies the map after swapping filters
+        if (revokedJtis.size() < localMaxEntries) {
+            revokedJtis.put(jti, expiryDate);
+        } else if (!revokedJtis.containsKey(jti)) {
+            revokedJtisOverflowed = true;
+        }
+        BloomFilter current = bloomFilter;
+        if (current != null) {
+            current.put(jti);
+        }
+    }
+
+    private void loadIndex() {
+        Instant started = Instant.now();
+        List<BlacklistedToken> active = blacklistedTokenRepository.findByExpiryDateAfter(started);
+
+        boolean overflowed = false;
+        revokedJtis.entrySet().removeIf(e -> e.getValue().isBefore(started));
+        for (BlacklistedToken token : active) {
+            if (revokedJtis.size() < localMaxEntries) {
+                revokedJtis.put(token.getJti(), token.getExpiryDate());
+            } else if (!revokedJtis.containsKey(token.getJti())) {
+                overflowed = true;
+            }
+        }
+        swapBloomFilter(active);
+
+        revokedJtisOverflowed = overflowed;
+        advanceSyncedThrough(active);
+        if (syncedThrough == null) {
+            // No live revocations yet: start from the load instead of re-reading the whole table every
+            // sync. Clock skew against the DB is far inside the sync overlap.
+            syncedThrough = started;
+        }
+        loadedAt = started;
+        indexReady = true;
+    }
+
+    /**
+     * Replace the Bloom filter with one holding {@code extra} plus every JTI in the map. The map is
+     * copied again after the swap to catch entries indexed into the old filter meanwhile.
+     */
+    private void swapBloomFilter(List<BlacklistedToken> extra) {
+        BloomFilter fresh = new BloomFilter(
+                Math.max(bloomExpectedInsertions, (extra.size() + revokedJtis.size()) * 2), bloomFalsePositiveRate);
+        extra.forEach(token -> fresh.put(token.getJti()));
+        revokedJtis.keySet().forEach(fresh::put);
+        bloomFilter = fresh;
+        revokedJtis.keySet().forEach(fresh::put);
+    }
+
+    private void advanceSyncedThrough(List<BlacklistedToken> tokens) {
+        for (BlacklistedToken token : tokens) {
+            Instant createdAt = token.getCreatedAt();
+            if (createdAt != null && (syncedThrough == null || createdAt.isAfter(syncedThrough))) {
+                syncedThrough = createdAt;
+            }
         }
     }
 }
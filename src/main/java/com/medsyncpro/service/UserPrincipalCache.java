@@ -0,0 +1,266 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.entity.Role;
+import com.medsyncpro.entity.User;
+import com.medsyncpro.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-based cache of the user fields the JWT filter needs on every request
+ * (deleted flag, token version, role, profile id), so authenticated calls don't hit the users table.
+ *
+ * Entries are keyed by email with a userId → email index for invalidation.
+ * Any code path that changes tokenVersion, deletes a user or revokes sessions must call
+ * {@link #evict(User)} / {@link #evict(UUID)}; evictions inside a transaction are
+ * re-applied after commit so a concurrent reload can't re-cache the old row.
+ *
+ * Evictions also reach the other instances: each one is written to principal_evictions in the
+ * caller's transaction, and every instance polls that table (by created_at, with an overlap
+ * window like the token blacklist sync). A change made on another instance is therefore seen
+ * within {@code auth.principal-cache.sync-interval-ms}; the TTL only bounds staleness for
+ * changes that skip {@code evict} or while the database can't be polled.
+ */
+@Service
+@Slf4j
+public class UserPrincipalCache {
+
+    public record CachedPrincipal(UUID userId, String email, Role role, Integer tokenVersion, boolean deleted,
+            UUID profileId) {
+    }
+
+    private record Entry(CachedPrincipal principal, long expiresAtMillis) {
+    }
+
+    private static final String BROADCAST_SQL = "INSERT INTO principal_evictions (user_id) VALUES (:userId)";
+
+    private static final String RECENT_EVICTIONS_SQL = """
+            SELECT user_id, created_at FROM principal_evictions
+            WHERE created_at >= COALESCE(CAST(:since AS timestamptz), now())
+                - make_interval(secs => CAST(:overlapSeconds AS double precision))
+            """;
+
+    private static final String PURGE_SQL = """
+            DELETE FROM principal_evictions WHERE created_at < now() - interval '1 hour'
+            """;
+
+    private final UserRepository userRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final SchedulerCoordinator schedulerCoordinator;
+    private final long ttlMillis;
+    private final int maxSize;
+    private final long syncOverlapMillis;
+
+    // newest principal_evictions.created_at seen (DB clock); the next sync re-reads from the overlap before it
+    private volatile Instant syncedThrough;
+
+    // email → entry
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // userId → email (for invalidation by id)
+    private final Map<UUID, String> emailsByUserId = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserPrincipalCache(UserRepository userRepository,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            SchedulerCoordinator schedulerCoordinator,
+            MeterRegistry meterRegistry,
+            @Value("${auth.principal-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${auth.principal-cache.max-size:10000}") int maxSize,
+            @Value("${auth.principal-cache.sync-overlap-ms:120000}") long syncOverlapMillis) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.schedulerCoordinator = schedulerCoordinator;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxSize = maxSize;
+        this.syncOverlapMillis = syncOverlapMillis;
+
+        FunctionCounter.builder("auth.principal.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Principal cache lookups served from memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Principal cache lookups that loaded the user from the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache.evictions", evictions, AtomicLong::get)
+                .description("Principal cache entries removed by invalidation or size bound")
+                .register(meterRegistry);
+        Gauge.builder("auth.principal.cache.size", entries, Map::size)
+                .description("Principal cache entry count")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return the cached principal for an email, loading it from the database on a miss.
+     * Returns null if no (non-deleted) user exists for the email; absence is not cached.
+     */
+    public CachedPrincipal get(String email) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(email);
+        if (entry != null && entry.expiresAtMillis() > now) {
+            hits.incrementAndGet();
+            return entry.principal();
+        }
+
+        misses.incrementAndGet();
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            remove(email);
+            return null;
+        }
+
+        UUID profileId = user.getRole() == Role.ADMIN
+                ? null
+                : userRepository.findProfileIdByUserId(user.getId()).orElse(null);
+        CachedPrincipal principal = new CachedPrincipal(
+                user.getId(), user.getEmail(), user.getRole(), user.getTokenVersion(), user.getDeleted(), profileId);
+        put(principal, now);
+        return principal;
+    }
+
+    /**
+     * Invalidate a user's entry on every instance. Call after tokenVersion changes, deletion or
+     * session revocation, inside the transaction making the change.
+     */
+    public void evict(User user) {
+        if (user == null) {
+            return;
+        }
+        broadcast(user.getId());
+        if (user.getEmail() != null) {
+            evictAfterCommit(() -> remove(user.getEmail()));
+        } else if (user.getId() != null) {
+            evictLocally(user.getId());
+        }
+    }
+
+    public void evict(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        broadcast(userId);
+        evictLocally(userId);
+    }
+
+    /**
+     * Apply evictions written by any instance since the last sync. The window starts
+     * {@code auth.principal-cache.sync-overlap-ms} before the newest row already seen, so an
+     * eviction whose transaction committed late is still picked up; evicting twice is harmless.
+     */
+    @Scheduled(fixedDelayString = "${auth.principal-cache.sync-interval-ms:5000}")
+    public void syncEvictions() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("since", syncedThrough != null ? Timestamp.from(syncedThrough) : null)
+                .addValue("overlapSeconds", syncOverlapMillis / 1000.0);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(RECENT_EVICTIONS_SQL, params);
+        for (Map<String, Object> row : rows) {
+            evictLocally((UUID) row.get("user_id"));
+            Instant createdAt = ((Timestamp) row.get("created_at")).toInstant();
+            if (syncedThrough == null || createdAt.isAfter(syncedThrough)) {
+                syncedThrough = createdAt;
+            }
+        }
+    }
+
+    @Scheduled(cron = "0 40 * * * *")
+    public void purgeEvictions() {
+        if (schedulerCoordinator.tryAcquire("principal-eviction-purge", Duration.ofMinutes(30))) {
+            jdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource());
+        }
+    }
+
+    private void broadcast(UUID userId) {
+        if (userId != null) {
+            jdbcTemplate.update(BROADCAST_SQL, new MapSqlParameterSource("userId", userId));
+        }
+    }
+
+    private void evictLocally(UUID userId) {
+        evictAfterCommit(() -> {
+            String email = emailsByUserId.get(userId);
+            if (email != null) {
+                remove(email);
+            }
+        });
+    }
+
+    public void clear() {
+        evictions.addAndGet(entries.size());
+        entries.clear();
+        emailsByUserId.clear();
+    }
+
+    private void put(CachedPrincipal principal, long now) {
+        if (entries.size() >= maxSize) {
+            trim(now);
+        }
+        entries.put(principal.email(), new Entry(principal, now + ttlMillis));
+        emailsByUserId.put(principal.userId(), principal.email());
+    }
+
+    /**
+     * Drop expired entries; if still at capacity, drop arbitrary entries down to 90% of the bound.
+     */
+    private void trim(long now) {
+        entries.entrySet().removeIf(e -> {
+            if (e.getValue().expiresAtMillis() <= now) {
+                emailsByUserId.remove(e.getValue().principal().userId());
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        });
+
+        int target = (int) (maxSize * 0.9);
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            emailsByUserId.remove(e.getValue().principal().userId());
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(String email) {
+        Entry removed = entries.remove(email);
+        if (removed != null) {
+            emailsByUserId.remove(removed.principal().userId());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void evictAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
     
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
@@ -21,5 +22,6 @@ public class UserService {
     public void incrementTokenVersion(User user) {
         user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        userPrincipalCache.evict(user);
     }
 }
@@ -0,0 +1,59 @@
+package com.medsyncpro.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared Jackson codec for the JSON TEXT columns (settings lists/flags, weekly schedule,
+ * prescription medicines). One mapper per application and one pre-built reader per shape,
+ * so type resolution and deserializer lookup happen once instead of on every call.
+ *
+ * Readers and writers are immutable and thread-safe. Blank/null handling is left to callers.
+ */
+@Component
+public class JsonColumns {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    // ["English","Hindi"]
+    private final ObjectReader stringListReader = objectMapper.readerFor(new TypeReference<List<String>>() {});
+
+    // {"profileVisible":true,...}
+    private final ObjectReader booleanMapReader = objectMapper.readerFor(new TypeReference<Map<String, Boolean>>() {});
+
+    // [{"name":"...","dosage":"..."},...]
+    private final ObjectReader objectListReader = objectMapper.readerFor(new TypeReference<List<Map<String, Object>>>() {});
+
+    // Weekly schedule: {"Monday":{"enabled":true,"slots":[...]},...}
+    private final ObjectReader objectMapReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {});
+
+    private final ObjectWriter writer = objectMapper.writer();
+
+    public List<String> readStringList(String json) throws JsonProcessingException {
+        return stringListReader.readValue(json);
+    }
+
+    public Map<String, Boolean> readBooleanMap(String json) throws JsonProcessingException {
+        return booleanMapReader.readValue(json);
+    }
+
+    public List<Map<String, Object>> readObjectList(String json) throws JsonProcessingException {
+        return objectListReader.readValue(json);
+    }
+
+    public Map<String, Object> readObjectMap(String json) throws JsonProcessingException {
+        return objectMapReader.readValue(json);
+    }
+
+    public String write(Object value) throws JsonProcessingException {
+        return writer.writeValueAsString(value);
+    }
+}
@@ -5,6 +5,8 @@ import com.medsyncpro.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -16,6 +18,82 @@ public class UserProfileHelper {
     private final AgentRepository agentRepo;
     private final VerificationRequestRepository verificationReqRepo;
 
+    /**
+     * Profile fields for one user, resolved in bulk by {@link #resolveProfiles}.
+     * Fields that don't apply to the user's role are null; verificationStatus is
+     * null when the user has no verification request.
+     */
+    public record Profile(
+            String name,
+            String profileImage,
+            String bio,
+            Integer experienceYears,
+            String address,
+            LocalDate dob,
+            Gender gender,
+            String bloodGroup,
+            VerificationStatus verificationStatus) {
+
+        static final Profile EMPTY = new Profile(null, null, null, null, null, null, null, null, null);
+
+        Profile withVerificationStatus(VerificationStatus status) {
+            return new Profile(name, profileImage, bio, experienceYears, address, dob, gender, bloodGroup, status);
+        }
+    }
+
+    /**
+     * Resolve profiles for many users with a constant number of queries
+     * (one per role present plus one for verification requests), instead of
+     * calling the per-field getters below once per user.
+     */
+    public Map<UUID, Profile> resolveProfiles(Collection<User> users) {
+        if (users == null || users.isEmpty()) return Map.of();
+
+        Map<Role, List<UUID>> idsByRole = users.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(User::getRole,
+                        Collectors.mapping(User::getId, Collectors.toList())));
+
+        // Latest verification request per user
+        Map<UUID, VerificationRequest> latestRequests = new HashMap<>();
+        verificationReqRepo.findByUserIdIn(idsByRole.values().stream().flatMap(List::stream).toList())
+                .forEach(vr -> latestRequests.merge(vr.getUser().getId(), vr,
+                        (a, b) -> a.getCreatedAt().isAfter(b.getCreatedAt()) ? a : b));
+
+        Map<UUID, Profile> profiles = new HashMap<>();
+        idsByRole.forEach((role, ids) -> {
+            switch (role) {
+                case DOCTOR -> doctorRepo.findByUserIdIn(ids).forEach(d -> profiles.put(d.getUser().getId(),
+                        new Profile(d.getName(), d.getProfileImage(), d.getBio(), d.getExperienceYears(),
+                                d.getClinicAddress(), null, null, null, null)));
+                case PATIENT -> patientRepo.findByUserIdIn(ids).forEach(p -> profiles.put(p.getUser().getId(),
+                        new Profile(p.getName(), p.getProfileImage(), null, null,
+                                p.getAddress(), p.getDateOfBirth(), p.getGender(), p.getBloodGroup(), null)));
+                case ADMIN -> adminRepo.findByUserIdIn(ids).forEach(a -> profiles.put(a.getUser().getId(),
+                        new Profile(a.getName(), a.getProfileImage(), null, null, null, null, null, null, null)));
+                case PHARMACY -> pharmacyRepo.findByUserIdIn(ids).forEach(ph -> profiles.put(ph.getUser().getId(),
+                        new Profile(ph.getName(), ph.getProfileImage(), null, null,
+                                ph.getAddress(), null, null, null, null)));
+                case AGENT -> agentRepo.findByUserIdIn(ids).forEach(ag -> profiles.put(ag.getUser().getId(),
+                        new Profile(ag.getName(), ag.getProfileImage(), null, null,
+                                ag.getAddress(), null, null, null, null)));
+            }
+        });
+
+        Map<UUID, Profile> result = new HashMap<>();
+        idsByRole.values().forEach(ids -> ids.forEach(id -> result.put(id,
+                profiles.getOrDefault(id, Profile.EMPTY)
+                        .withVerificationStatus(latestRequests.containsKey(id)
+                                ? latestRequests.get(id).getStatus()
+                                : null))));
+        return result;
+    }
+
+    public Profile resolveProfile(User user) {
+        if (user == null) return null;
+        return resolveProfiles(List.of(user)).get(user.getId());
+    }
+
     public String getName(User user) {
         if (user == null) return null;
         return switch (user.getRole()) {
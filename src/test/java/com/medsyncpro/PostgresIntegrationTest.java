@@ -0,0 +1,32 @@
+package com.medsyncpro;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Boots the application against a throwaway Postgres container, for tests that depend on
+ * Postgres behaviour (advisory locks, exclusion constraints, SKIP LOCKED, ON CONFLICT).
+ * The container is started once and shared by every subclass and cached context.
+ */
+@SpringBootTest(properties = {
+        "FIREBASE_CONFIG_JSON={}",
+        "jwt.secret=integration-test-secret-integration-test-secret",
+        "app.frontend.url=http://localhost:3000",
+        "brevo.api.key=test",
+        "brevo.from.email=noreply@medsyncpro.test",
+        "brevo.from.name=MedSyncPro",
+        "cloudinary.cloud-name=test",
+        "cloudinary.api-key=test",
+        "cloudinary.api-secret=test",
+        "spring.jpa.show-sql=false"
+})
+public abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+}
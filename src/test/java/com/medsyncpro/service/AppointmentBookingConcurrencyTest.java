@@ -0,0 +1,161 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.PostgresIntegrationTest;
+import com.medsyncpro.dto.request.AppointmentRequest;
+import com.medsyncpro.dto.response.AppointmentResponse;
+import com.medsyncpro.entity.*;
+import com.medsyncpro.repository.DoctorRepository;
+import com.medsyncpro.repository.PatientRepository;
+import com.medsyncpro.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hundreds of simultaneous bookings for one doctor slot: exactly one may succeed, both through
+ * the advisory-locked booking path and when the lock is bypassed and only
+ * ex_appt_doctor_no_overlap stands in the way.
+ */
+class AppointmentBookingConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int ATTEMPTS = 200;
+
+    private static final String SLOT_TAKEN = "This time slot is already booked. Please choose another slot.";
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentBookingGuard bookingGuard;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User patientUser;
+    private Patient patient;
+    private User doctorUser;
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp() {
+        doctorUser = userRepository.save(User.builder()
+                .email("doctor-" + UUID.randomUUID() + "@medsyncpro.test")
+                .password("unused")
+                .role(Role.DOCTOR)
+                .build());
+        doctor = doctorRepository.save(Doctor.builder().user(doctorUser).name("Dr. Concurrency").build());
+
+        patientUser = userRepository.save(User.builder()
+                .email("patient-" + UUID.randomUUID() + "@medsyncpro.test")
+                .password("unused")
+                .role(Role.PATIENT)
+                .build());
+        patient = patientRepository.save(Patient.builder().user(patientUser).name("Pat Ient").build());
+    }
+
+    @Test
+    void parallelBookingsOfOneSlotHaveExactlyOneWinner() throws Exception {
+        AppointmentRequest request = new AppointmentRequest();
+        request.setDoctorId(doctorUser.getId());
+        request.setScheduledDate(LocalDate.now().plusDays(3));
+        request.setScheduledTime(LocalTime.of(10, 0));
+        request.setType("VIDEO");
+
+        List<Object> outcomes = runConcurrently(i -> patientService.bookAppointment(patientUser.getId(), request));
+
+        assertThat(outcomes).filteredOn(AppointmentResponse.class::isInstance).hasSize(1);
+        assertThat(outcomes).filteredOn(Throwable.class::isInstance)
+                .hasSize(ATTEMPTS - 1)
+                .allSatisfy(failure -> assertThat((Throwable) failure)
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage(SLOT_TAKEN));
+        assertThat(activeAppointments()).isEqualTo(1);
+    }
+
+    @Test
+    void exclusionConstraintRejectsOverlapsThatSkipTheLock() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(4);
+
+        // Staggered starts, so the rows overlap without being identical
+        List<Object> outcomes = runConcurrently(i -> transactionTemplate.execute(status ->
+                bookingGuard.saveAppointment(Appointment.builder()
+                        .patient(patient)
+                        .doctor(doctor)
+                        .scheduledDate(date)
+                        .scheduledTime(LocalTime.of(9, 0).plusMinutes(i % 20))
+                        .endTime(LocalTime.of(9, 30).plusMinutes(i % 20))
+                        .status(AppointmentStatus.CONFIRMED)
+                        .build(), SLOT_TAKEN)));
+
+        // Concurrent inserts that conflict on the exclusion constraint wait on each other, and
+        // Postgres may break such a wait with a deadlock error; that is a rejection too
+        assertThat(outcomes).filteredOn(Appointment.class::isInstance).hasSize(1);
+        assertThat(outcomes).filteredOn(Throwable.class::isInstance)
+                .hasSize(ATTEMPTS - 1)
+                .allSatisfy(failure -> assertThat((Throwable) failure).satisfiesAnyOf(
+                        rejected -> assertThat(rejected).hasMessage(SLOT_TAKEN),
+                        rejected -> assertThat(rejected).isInstanceOf(PessimisticLockingFailureException.class)));
+        assertThat(activeAppointments()).isEqualTo(1);
+    }
+
+    /**
+     * Run {@link #ATTEMPTS} calls released at the same instant; each outcome is the call's result
+     * or the exception it threw.
+     */
+    private List<Object> runConcurrently(IntFunction<Object> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Object>> futures = new ArrayList<>(ATTEMPTS);
+            for (int i = 0; i < ATTEMPTS; i++) {
+                int attempt = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return call.apply(attempt);
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            start.countDown();
+            List<Object> outcomes = new ArrayList<>(ATTEMPTS);
+            for (Future<Object> future : futures) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        }
+    }
+
+    private Integer activeAppointments() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM appointments WHERE doctor_id = ? AND deleted = false", Integer.class, doctor.getId());
+    }
+}
@@ -0,0 +1,147 @@
+package com.medsyncpro.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medsyncpro.service.BrevoEmailClient.OutgoingEmail;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BrevoEmailClient against a local stub of the Brevo send endpoint that answers with
+ * scripted status codes and records every request it receives.
+ */
+class BrevoEmailClientTest {
+
+    private static final long INITIAL_BACKOFF_MS = 50;
+
+    private record ReceivedRequest(long receivedAtNanos, String apiKey, JsonNode body) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Queue<Integer> scriptedStatuses = new ConcurrentLinkedQueue<>();
+
+    private final List<ReceivedRequest> received = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v3/smtp/email", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            received.add(new ReceivedRequest(System.nanoTime(),
+                    exchange.getRequestHeaders().getFirst("api-key"), objectMapper.readTree(body)));
+            Integer status = scriptedStatuses.poll();
+            byte[] response = "{\"messageId\":\"stub\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status != null ? status : 201, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void retriesTooManyRequestsAndServerErrorsWithGrowingBackoff() {
+        scriptedStatuses.addAll(List.of(429, 503));
+
+        boolean sent = client(3, 100).send(email(1));
+
+        assertThat(sent).isTrue();
+        assertThat(received).hasSize(3);
+        assertThat(received).allSatisfy(request -> assertThat(request.apiKey()).isEqualTo("test-key"));
+        assertThat(gapMillis(0, 1)).isGreaterThanOrEqualTo(INITIAL_BACKOFF_MS);
+        assertThat(gapMillis(1, 2)).isGreaterThanOrEqualTo(INITIAL_BACKOFF_MS * 2);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        scriptedStatuses.addAll(List.of(500, 502, 503, 504));
+
+        boolean sent = client(3, 100).send(email(1));
+
+        assertThat(sent).isFalse();
+        assertThat(received).hasSize(3);
+    }
+
+    @Test
+    void doesNotRetryOtherClientErrors() {
+        scriptedStatuses.addAll(List.of(400, 401));
+
+        boolean sent = client(3, 100).send(email(1));
+
+        assertThat(sent).isFalse();
+        assertThat(received).hasSize(1);
+    }
+
+    @Test
+    void sendBatchSendsOneMessageVersionsRequestPerChunk() {
+        List<OutgoingEmail> emails = IntStream.rangeClosed(1, 6).mapToObj(this::email).toList();
+
+        List<Boolean> accepted = client(3, 3).sendBatch(emails, "batch-key");
+
+        assertThat(accepted).containsExactly(true, true, true, true, true, true);
+        assertThat(received).hasSize(2);
+        assertThat(recipients(received.get(0).body()))
+                .containsExactly("user1@medsyncpro.test", "user2@medsyncpro.test", "user3@medsyncpro.test");
+        assertThat(recipients(received.get(1).body()))
+                .containsExactly("user4@medsyncpro.test", "user5@medsyncpro.test", "user6@medsyncpro.test");
+        assertThat(received.get(0).body().at("/headers/idempotencyKey").asText()).isEqualTo("batch-key-0");
+        assertThat(received.get(1).body().at("/headers/idempotencyKey").asText()).isEqualTo("batch-key-1");
+    }
+
+    @Test
+    void sendBatchReportsAcceptancePerChunk() {
+        // First chunk is rejected outright, second goes through
+        scriptedStatuses.add(400);
+        List<OutgoingEmail> emails = IntStream.rangeClosed(1, 4).mapToObj(this::email).toList();
+
+        List<Boolean> accepted = client(3, 2).sendBatch(emails, null);
+
+        assertThat(accepted).containsExactly(false, false, true, true);
+        assertThat(received).hasSize(2);
+        assertThat(received.get(1).body().has("headers")).isFalse();
+    }
+
+    private BrevoEmailClient client(int maxAttempts, int maxBatchSize) {
+        return new BrevoEmailClient(
+                "http://127.0.0.1:" + server.getAddress().getPort(),
+                "test-key", "noreply@medsyncpro.test", "MedSyncPro",
+                1000, 2000,
+                maxAttempts, INITIAL_BACKOFF_MS, 1000,
+                maxBatchSize);
+    }
+
+    private OutgoingEmail email(int n) {
+        return new OutgoingEmail("user" + n + "@medsyncpro.test", "Reminder " + n, "<p>Dose " + n + "</p>");
+    }
+
+    private long gapMillis(int first, int second) {
+        return (received.get(second).receivedAtNanos() - received.get(first).receivedAtNanos()) / 1_000_000;
+    }
+
+    private static List<String> recipients(JsonNode body) {
+        return StreamSupport.stream(body.get("messageVersions").spliterator(), false)
+                .map(version -> version.at("/to/0/email").asText())
+                .toList();
+    }
+}
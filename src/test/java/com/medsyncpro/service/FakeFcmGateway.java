@@ -0,0 +1,62 @@
+package com.medsyncpro.service;
+
+import com.google.firebase.messaging.MessagingErrorCode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Offline stand-in for FCM. Accepts every message except those whose token starts with
+ * {@code invalid-} (UNREGISTERED), {@code mismatch-} (SENDER_ID_MISMATCH) or
+ * {@code unavailable-} (UNAVAILABLE). A batch containing an {@code outage-} token fails as
+ * a whole, like a sendEach call that never reached FCM.
+ * Batches are kept in memory for inspection; {@link #onSend} runs a hook inside each call.
+ */
+public class FakeFcmGateway implements FcmGateway {
+
+    private final List<List<PushMessage>> batches = new CopyOnWriteArrayList<>();
+
+    private volatile Runnable onSend = () -> { };
+
+    @Override
+    public List<Result> sendEach(List<PushMessage> messages) throws Exception {
+        if (messages.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("FCM batch exceeds " + MAX_BATCH_SIZE + " messages");
+        }
+        batches.add(List.copyOf(messages));
+        onSend.run();
+        if (messages.stream().anyMatch(m -> m.token().startsWith("outage-"))) {
+            throw new IOException("FCM unreachable");
+        }
+
+        List<Result> results = new ArrayList<>(messages.size());
+        for (PushMessage message : messages) {
+            if (message.token().startsWith("invalid-")) {
+                results.add(new Result(false, MessagingErrorCode.UNREGISTERED, "Requested entity was not found."));
+            } else if (message.token().startsWith("mismatch-")) {
+                results.add(new Result(false, MessagingErrorCode.SENDER_ID_MISMATCH, "SenderId mismatch"));
+            } else if (message.token().startsWith("unavailable-")) {
+                results.add(new Result(false, MessagingErrorCode.UNAVAILABLE, "The service is currently unavailable."));
+            } else {
+                results.add(new Result(true, null, null));
+            }
+        }
+        return results;
+    }
+
+    public List<List<PushMessage>> getBatches() {
+        return Collections.unmodifiableList(batches);
+    }
+
+    public void onSend(Runnable hook) {
+        onSend = hook;
+    }
+
+    public void clear() {
+        batches.clear();
+        onSend = () -> { };
+    }
+}
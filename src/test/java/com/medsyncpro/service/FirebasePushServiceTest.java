@@ -0,0 +1,116 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.repository.UserRepository;
+import com.medsyncpro.service.FirebasePushService.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * FirebasePushService against {@link FakeFcmGateway}: chunking, outcome order and token pruning.
+ */
+class FirebasePushServiceTest {
+
+    private final FakeFcmGateway fcmGateway = new FakeFcmGateway();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FirebasePushService pushService;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.clearFcmTokens(any())).thenAnswer(inv -> inv.<Collection<String>>getArgument(0).size());
+        pushService = new FirebasePushService(fcmGateway, userRepository, meterRegistry);
+    }
+
+    @Test
+    void sendsAtMostFiveHundredMessagesPerFcmCall() {
+        List<FcmGateway.PushMessage> messages = IntStream.range(0, 1201)
+                .mapToObj(i -> message("token-" + i))
+                .toList();
+
+        List<Outcome> outcomes = pushService.sendBatch(messages);
+
+        assertThat(fcmGateway.getBatches()).extracting(List::size).containsExactly(500, 500, 201);
+        assertThat(fcmGateway.getBatches().get(1).get(0).token()).isEqualTo("token-500");
+        assertThat(outcomes).hasSize(1201).containsOnly(Outcome.SENT);
+        assertThat(meterRegistry.get("push.batch.size").summary().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("push.messages").tag("outcome", "sent").counter().count()).isEqualTo(1201);
+    }
+
+    @Test
+    void outcomesFollowMessageOrderAcrossChunks() {
+        List<FcmGateway.PushMessage> messages = new ArrayList<>();
+        IntStream.range(0, 499).forEach(i -> messages.add(message("token-" + i)));
+        // Straddle the chunk boundary at index 500
+        messages.add(message("unavailable-a"));
+        messages.add(message("invalid-b"));
+        messages.add(message("token-c"));
+        messages.add(message("mismatch-d"));
+
+        List<Outcome> outcomes = pushService.sendBatch(messages);
+
+        assertThat(fcmGateway.getBatches()).extracting(List::size).containsExactly(500, 3);
+        assertThat(outcomes.subList(0, 499)).containsOnly(Outcome.SENT);
+        assertThat(outcomes.subList(499, 503))
+                .containsExactly(Outcome.FAILED, Outcome.INVALID_TOKEN, Outcome.SENT, Outcome.INVALID_TOKEN);
+    }
+
+    @Test
+    void failedFcmCallFailsOnlyItsOwnChunk() {
+        List<FcmGateway.PushMessage> messages = new ArrayList<>();
+        IntStream.range(0, 500).forEach(i -> messages.add(message("token-" + i)));
+        messages.set(10, message("outage-x"));
+        messages.add(message("token-last"));
+
+        List<Outcome> outcomes = pushService.sendBatch(messages);
+
+        assertThat(outcomes.subList(0, 500)).containsOnly(Outcome.FAILED);
+        assertThat(outcomes.get(500)).isEqualTo(Outcome.SENT);
+        verify(userRepository, never()).clearFcmTokens(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clearsUnregisteredAndMismatchedTokensOnce() {
+        List<FcmGateway.PushMessage> messages = new ArrayList<>();
+        IntStream.range(0, 600).forEach(i -> messages.add(message("token-" + i)));
+        messages.set(3, message("invalid-1"));
+        messages.set(550, message("mismatch-2"));
+        messages.set(551, message("invalid-1"));
+        messages.set(552, message("unavailable-3"));
+
+        pushService.sendBatch(messages);
+
+        ArgumentCaptor<Collection<String>> tokens = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository).clearFcmTokens(tokens.capture());
+        assertThat(tokens.getValue()).containsExactly("invalid-1", "mismatch-2");
+        assertThat(meterRegistry.get("push.messages").tag("outcome", "invalid-token").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotTouchTokensWhenAllAreValid() {
+        pushService.sendBatch(List.of(message("token-1"), message("unavailable-2")));
+
+        verify(userRepository, never()).clearFcmTokens(any());
+    }
+
+    private static FcmGateway.PushMessage message(String token) {
+        return new FcmGateway.PushMessage(token, "Dose reminder", "Time for " + token);
+    }
+}
@@ -0,0 +1,161 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.PostgresIntegrationTest;
+import com.medsyncpro.dto.request.CreateMedicationScheduleRequest;
+import com.medsyncpro.dto.request.DoseActionRequest;
+import com.medsyncpro.dto.request.UpdateMedicationScheduleRequest;
+import com.medsyncpro.entity.Patient;
+import com.medsyncpro.entity.ReminderScheduleType;
+import com.medsyncpro.entity.Role;
+import com.medsyncpro.entity.User;
+import com.medsyncpro.repository.MedicationDoseLogRepository;
+import com.medsyncpro.repository.PatientRepository;
+import com.medsyncpro.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * medication_adherence_daily is maintained by deltas from every path that changes a dose
+ * (materialize, take, snooze, requeue, mark missed, schedule change). After driving each of
+ * them it must still equal a recount of medication_dose_logs.
+ */
+class MedicationAdherenceRollupTest extends PostgresIntegrationTest {
+
+    private static final SchedulerCoordinator.Partition ALL = SchedulerCoordinator.Partition.ALL;
+
+    private static final String RECOUNT_SQL = """
+            SELECT CAST(scheduled_at AS date) AS dose_date,
+                   count(*) FILTER (WHERE status = 'TAKEN') AS taken,
+                   count(*) FILTER (WHERE status = 'MISSED') AS missed,
+                   count(*) FILTER (WHERE status IN ('PENDING', 'SNOOZED')) AS pending
+            FROM medication_dose_logs
+            WHERE patient_id = ? AND deleted = false
+            GROUP BY CAST(scheduled_at AS date)
+            """;
+
+    private static final String ROLLUP_SQL = """
+            SELECT dose_date, taken, missed, pending
+            FROM medication_adherence_daily
+            WHERE patient_id = ? AND (taken <> 0 OR missed <> 0 OR pending <> 0)
+            """;
+
+    @Autowired
+    private MedicationWorkflowService medicationWorkflowService;
+
+    @Autowired
+    private MedicationDoseTimelineService doseTimelineService;
+
+    @Autowired
+    private MedicationDoseLogRepository medicationDoseLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User patientUser;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        patientUser = userRepository.save(User.builder()
+                .email("patient-" + UUID.randomUUID() + "@medsyncpro.test")
+                .password("unused")
+                .role(Role.PATIENT)
+                .build());
+        patient = patientRepository.save(Patient.builder().user(patientUser).name("Pat Rollup").build());
+    }
+
+    @Test
+    void rollupMatchesRecountAfterEveryKindOfDoseChange() {
+        CreateMedicationScheduleRequest create = new CreateMedicationScheduleRequest();
+        create.setMedicineName("Metformin");
+        create.setScheduleType(ReminderScheduleType.DAILY);
+        create.setReminderTimes(List.of("08:00", "20:00"));
+        create.setStartDate(LocalDate.now());
+        UUID scheduleId = medicationWorkflowService.createSchedule(patientUser.getId(), create).getId();
+        assertRollupMatchesRecount();
+
+        // Materializing again finds every dose already there and must not count it twice
+        doseTimelineService.materializeAll();
+        assertRollupMatchesRecount();
+
+        List<UUID> doses = doseIds(scheduleId);
+        medicationWorkflowService.markDoseTaken(patientUser.getId(), doses.get(1), null);
+        medicationWorkflowService.snoozeDose(patientUser.getId(), doses.get(0), null);
+        medicationWorkflowService.snoozeDose(patientUser.getId(), doses.get(2), null);
+        assertRollupMatchesRecount();
+
+        // The earliest snoozed dose is today or tomorrow; requeueing it two days on moves its pending count
+        LocalDateTime afterMidnight = LocalDate.now().plusDays(2).atTime(0, 5);
+        assertThat(medicationDoseLogRepository.requeueSnoozedUntil(afterMidnight, 100, ALL.index(), ALL.count()))
+                .isEqualTo(1);
+        assertThat(medicationDoseLogRepository.requeueSnoozedUntil(afterMidnight.plusMinutes(1), 100,
+                ALL.index(), ALL.count())).isEqualTo(1);
+        assertRollupMatchesRecount();
+
+        assertThat(medicationDoseLogRepository.markMissedBefore(LocalDate.now().plusDays(3).atTime(12, 0), 100,
+                ALL.index(), ALL.count())).isPositive();
+        assertRollupMatchesRecount();
+
+        UpdateMedicationScheduleRequest update = new UpdateMedicationScheduleRequest();
+        update.setReminderTimes(List.of("09:00"));
+        medicationWorkflowService.updateSchedule(patientUser.getId(), scheduleId, update);
+        assertRollupMatchesRecount();
+
+        UpdateMedicationScheduleRequest deactivate = new UpdateMedicationScheduleRequest();
+        deactivate.setActive(false);
+        medicationWorkflowService.updateSchedule(patientUser.getId(), scheduleId, deactivate);
+        assertRollupMatchesRecount();
+    }
+
+    @Test
+    void repeatedActionsOnOneDoseKeepTheRollupInStep() {
+        CreateMedicationScheduleRequest create = new CreateMedicationScheduleRequest();
+        create.setMedicineName("Atorvastatin");
+        create.setScheduleType(ReminderScheduleType.ALTERNATE_DAY);
+        create.setReminderTimes(List.of("21:00"));
+        create.setStartDate(LocalDate.now());
+        UUID scheduleId = medicationWorkflowService.createSchedule(patientUser.getId(), create).getId();
+
+        UUID dose = doseIds(scheduleId).get(0);
+        DoseActionRequest snooze = new DoseActionRequest();
+        snooze.setSnoozeMinutes(30);
+        medicationWorkflowService.markDoseTaken(patientUser.getId(), dose, null);
+        medicationWorkflowService.snoozeDose(patientUser.getId(), dose, snooze);
+        medicationWorkflowService.markDoseTaken(patientUser.getId(), dose, null);
+
+        assertRollupMatchesRecount();
+    }
+
+    private List<UUID> doseIds(UUID scheduleId) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM medication_dose_logs WHERE schedule_id = ? AND deleted = false ORDER BY scheduled_at",
+                UUID.class, scheduleId);
+    }
+
+    private void assertRollupMatchesRecount() {
+        List<String> recount = jdbcTemplate.query(RECOUNT_SQL, (rs, rowNum) -> rs.getDate("dose_date")
+                + " taken=" + rs.getLong("taken") + " missed=" + rs.getLong("missed")
+                + " pending=" + rs.getLong("pending"), patient.getId());
+        List<String> rollup = jdbcTemplate.query(ROLLUP_SQL, (rs, rowNum) -> rs.getDate("dose_date")
+                + " taken=" + rs.getLong("taken") + " missed=" + rs.getLong("missed")
+                + " pending=" + rs.getLong("pending"), patient.getId());
+
+        assertThat(recount).isNotEmpty();
+        assertThat(rollup).containsExactlyInAnyOrderElementsOf(recount);
+    }
+}
@@ -0,0 +1,157 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.PostgresIntegrationTest;
+import com.medsyncpro.dto.response.ChatMessageResponse;
+import com.medsyncpro.entity.Doctor;
+import com.medsyncpro.entity.Patient;
+import com.medsyncpro.entity.Role;
+import com.medsyncpro.entity.User;
+import com.medsyncpro.repository.DoctorRepository;
+import com.medsyncpro.repository.PatientRepository;
+import com.medsyncpro.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Both parties of a conversation sending (and reading) at once: every message must be counted
+ * in the recipient's unread counter, none may fail on the conversation row, and the preview
+ * must end up on the newest message.
+ */
+class MessagingConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int MESSAGES_PER_SIDE = 100;
+
+    @Autowired
+    private MessagingService messagingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User doctorUser;
+    private User patientUser;
+    private UUID conversationId;
+
+    @BeforeEach
+    void setUp() {
+        doctorUser = userRepository.save(User.builder()
+                .email("doctor-" + UUID.randomUUID() + "@medsyncpro.test")
+                .password("unused")
+                .role(Role.DOCTOR)
+                .build());
+        Doctor doctor = doctorRepository.save(Doctor.builder().user(doctorUser).name("Dr. Chat").build());
+
+        patientUser = userRepository.save(User.builder()
+                .email("patient-" + UUID.randomUUID() + "@medsyncpro.test")
+                .password("unused")
+                .role(Role.PATIENT)
+                .build());
+        patientRepository.save(Patient.builder().user(patientUser).name("Pat Chat").build());
+
+        conversationId = messagingService.getOrCreateConversationAsPatient(patientUser.getId(), doctor.getId()).getId();
+    }
+
+    @Test
+    void concurrentSendsFromBothSidesAreAllCounted() throws Exception {
+        List<Object> outcomes = runConcurrently(2 * MESSAGES_PER_SIDE, i -> i % 2 == 0
+                ? messagingService.sendMessage(conversationId, doctorUser.getId(), Role.DOCTOR, "from doctor " + i)
+                : messagingService.sendMessage(conversationId, patientUser.getId(), Role.PATIENT, "from patient " + i));
+
+        assertThat(outcomes).allSatisfy(outcome -> assertThat(outcome).isInstanceOf(ChatMessageResponse.class));
+
+        Map<String, Object> conversation = conversation();
+        assertThat(conversation.get("doctor_unread_count")).isEqualTo(MESSAGES_PER_SIDE);
+        assertThat(conversation.get("patient_unread_count")).isEqualTo(MESSAGES_PER_SIDE);
+
+        // The preview belongs to the newest message, whichever transaction committed last
+        Timestamp newest = jdbcTemplate.queryForObject(
+                "SELECT max(created_at) FROM chat_messages WHERE conversation_id = ?", Timestamp.class, conversationId);
+        List<String> newestContents = jdbcTemplate.queryForList(
+                "SELECT content FROM chat_messages WHERE conversation_id = ? AND created_at = ?",
+                String.class, conversationId, newest);
+        assertThat(conversation.get("last_message_at")).isEqualTo(newest);
+        assertThat(newestContents).contains((String) conversation.get("last_message"));
+    }
+
+    @Test
+    void readsRacingSendsNeitherFailNorLoseMessages() throws Exception {
+        // Even slots: the patient sends; odd slots: the doctor marks the conversation read
+        List<Object> outcomes = runConcurrently(2 * MESSAGES_PER_SIDE, i -> {
+            if (i % 2 == 0) {
+                return messagingService.sendMessage(conversationId, patientUser.getId(), Role.PATIENT, "hello " + i);
+            }
+            messagingService.markConversationAsRead(conversationId, doctorUser.getId());
+            return Boolean.TRUE;
+        });
+
+        assertThat(outcomes).noneMatch(Throwable.class::isInstance);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM chat_messages WHERE conversation_id = ?", Integer.class, conversationId))
+                .isEqualTo(MESSAGES_PER_SIDE);
+
+        // Whatever interleaving happened, one more read leaves nothing unread for the doctor
+        messagingService.markConversationAsRead(conversationId, doctorUser.getId());
+        assertThat(conversation().get("doctor_unread_count")).isEqualTo(0);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM chat_messages WHERE conversation_id = ? AND is_read = false",
+                Integer.class, conversationId))
+                .isZero();
+    }
+
+    private Map<String, Object> conversation() {
+        return jdbcTemplate.queryForMap(
+                "SELECT doctor_unread_count, patient_unread_count, last_message, last_message_at "
+                        + "FROM conversations WHERE id = ?", conversationId);
+    }
+
+    /**
+     * Run {@code count} calls released at the same instant; each outcome is the call's result
+     * or the exception it threw.
+     */
+    private static List<Object> runConcurrently(int count, IntFunction<Object> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Object>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int attempt = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return call.apply(attempt);
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            start.countDown();
+            List<Object> outcomes = new ArrayList<>(count);
+            for (Future<Object> future : futures) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        }
+    }
+}
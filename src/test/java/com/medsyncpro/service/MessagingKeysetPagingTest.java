@@ -0,0 +1,181 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.PostgresIntegrationTest;
+import com.medsyncpro.dto.response.ChatMessagePageResponse;
+import com.medsyncpro.dto.response.ChatMessageResponse;
+import com.medsyncpro.entity.Doctor;
+import com.medsyncpro.entity.Patient;
+import com.medsyncpro.entity.Role;
+import com.medsyncpro.entity.User;
+import com.medsyncpro.repository.DoctorRepository;
+import com.medsyncpro.repository.PatientRepository;
+import com.medsyncpro.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset paging of chat history over (created_at, id): walking back and catching up must see
+ * every message exactly once, also when many messages share a timestamp and while new ones arrive.
+ */
+class MessagingKeysetPagingTest extends PostgresIntegrationTest {
+
+    private static final int HISTORY = 50;
+
+    private static final int PAGE_SIZE = 7;
+
+    private static final String INSERT_MESSAGE_SQL = """
+            INSERT INTO chat_messages (id, conversation_id, sender_id, sender_role, content, is_read,
+                                       created_at, updated_at, deleted, version)
+            VALUES (?, ?, ?, 'PATIENT', ?, false, ?, ?, false, 0)
+            """;
+
+    @Autowired
+    private MessagingService messagingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User doctorUser;
+    private User patientUser;
+    private UUID conversationId;
+
+    @BeforeEach
+    void setUp() {
+        doctorUser = userRepository.save(User.builder()
+                .email("doctor-" + UUID.randomUUID() + "@medsyncpro.test")
+                .password("unused")
+                .role(Role.DOCTOR)
+                .build());
+        Doctor doctor = doctorRepository.save(Doctor.builder().user(doctorUser).name("Dr. Page").build());
+
+        patientUser = userRepository.save(User.builder()
+                .email("patient-" + UUID.randomUUID() + "@medsyncpro.test")
+                .password("unused")
+                .role(Role.PATIENT)
+                .build());
+        patientRepository.save(Patient.builder().user(patientUser).name("Pat Page").build());
+
+        conversationId = messagingService.getOrCreateConversationAsPatient(patientUser.getId(), doctor.getId()).getId();
+
+        // Groups of four messages share a microsecond-precision timestamp, so page
+        // boundaries fall inside ties and only the id orders them
+        LocalDateTime base = LocalDateTime.of(2026, 1, 5, 9, 0).plusNanos(123_456_000);
+        for (int i = 0; i < HISTORY; i++) {
+            insertMessage(base.plusSeconds(i / 4), "history " + i);
+        }
+    }
+
+    @Test
+    void walkingBackVisitsEveryMessageOnceInOrder() {
+        List<UUID> seen = walkBack(null);
+
+        assertThat(seen).doesNotHaveDuplicates().containsExactlyElementsOf(storedOrder());
+    }
+
+    @Test
+    void newMessagesDoNotShiftOlderPages() {
+        List<UUID> history = storedOrder();
+        ChatMessagePageResponse newest = messagingService.getMessages(conversationId, doctorUser.getId(), null, PAGE_SIZE);
+
+        // Arrive between page loads, one at the same timestamp as the newest message seen
+        LocalDateTime newestAt = newest.getMessages().get(newest.getMessages().size() - 1).getCreatedAt();
+        insertMessage(newestAt, "tied with newest");
+        for (int i = 0; i < 3; i++) {
+            messagingService.sendMessage(conversationId, patientUser.getId(), Role.PATIENT, "live " + i);
+        }
+
+        List<UUID> seen = new ArrayList<>(ids(newest));
+        seen.addAll(0, walkBack(newest.getOlderCursor()));
+
+        assertThat(seen).doesNotHaveDuplicates().containsExactlyElementsOf(history);
+    }
+
+    @Test
+    void syncCatchesUpOnEverythingAfterTheCursor() {
+        ChatMessagePageResponse newest = messagingService.getMessages(conversationId, doctorUser.getId(), null, PAGE_SIZE);
+        LocalDateTime newestAt = newest.getMessages().get(newest.getMessages().size() - 1).getCreatedAt();
+
+        // Same timestamp as the cursor (ordered by id, either side of it) plus live sends
+        for (int i = 0; i < 4; i++) {
+            insertMessage(newestAt, "tied " + i);
+        }
+        List<UUID> sent = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            sent.add(messagingService.sendMessage(conversationId, doctorUser.getId(), Role.DOCTOR, "live " + i).getId());
+        }
+
+        List<UUID> caughtUp = new ArrayList<>();
+        String cursor = newest.getNewerCursor();
+        ChatMessagePageResponse page;
+        do {
+            page = messagingService.syncMessages(conversationId, patientUser.getId(), cursor, 5);
+            caughtUp.addAll(ids(page));
+            cursor = page.getNewerCursor();
+        } while (page.isHasMoreNewer());
+
+        List<UUID> stored = storedOrder();
+        List<UUID> expected = stored.subList(stored.indexOf(last(newest)) + 1, stored.size());
+        assertThat(caughtUp).doesNotHaveDuplicates().containsExactlyElementsOf(expected);
+        assertThat(caughtUp).containsAll(sent);
+
+        // The cursor of a message stored by sendMessage matches the row exactly: nothing comes back again
+        assertThat(messagingService.syncMessages(conversationId, patientUser.getId(), cursor, 5).getMessages())
+                .isEmpty();
+    }
+
+    /**
+     * Page backwards from {@code before} (the newest page when null) to the first message,
+     * returning ids oldest first.
+     */
+    private List<UUID> walkBack(String before) {
+        List<List<UUID>> pages = new ArrayList<>();
+        String cursor = before;
+        ChatMessagePageResponse page;
+        do {
+            page = messagingService.getMessages(conversationId, doctorUser.getId(), cursor, PAGE_SIZE);
+            assertThat(page.getMessages()).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+            pages.add(ids(page));
+            cursor = page.getOlderCursor();
+        } while (page.isHasMoreOlder());
+
+        Collections.reverse(pages);
+        return pages.stream().flatMap(List::stream).toList();
+    }
+
+    private List<UUID> storedOrder() {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM chat_messages WHERE conversation_id = ? ORDER BY created_at, id",
+                UUID.class, conversationId);
+    }
+
+    private void insertMessage(LocalDateTime at, String content) {
+        jdbcTemplate.update(INSERT_MESSAGE_SQL, UUID.randomUUID(), conversationId, patientUser.getId(), content, at, at);
+    }
+
+    private static List<UUID> ids(ChatMessagePageResponse page) {
+        return page.getMessages().stream().map(ChatMessageResponse::getId).toList();
+    }
+
+    private static UUID last(ChatMessagePageResponse page) {
+        return page.getMessages().get(page.getMessages().size() - 1).getId();
+    }
+}
@@ -0,0 +1,290 @@
+package com.medsyncpro.service;
+
+import com.medsyncpro.PostgresIntegrationTest;
+import com.medsyncpro.entity.NotificationChannel;
+import com.medsyncpro.entity.Role;
+import com.medsyncpro.entity.User;
+import com.medsyncpro.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * NotificationOutboxRelay against Postgres, driven one {@code relayBatch()} pass at a time
+ * (the scheduled poll is pushed out of the way). Push goes through {@link FakeFcmGateway}.
+ */
+@TestPropertySource(properties = {
+        "notifications.outbox.poll-interval-ms=3600000",
+        "notifications.outbox.max-attempts=4",
+        "notifications.outbox.retry-base-seconds=5",
+        "notifications.outbox.lease-seconds=120"
+})
+class NotificationOutboxRelayTest extends PostgresIntegrationTest {
+
+    @TestConfiguration
+    static class FakeFcmConfig {
+
+        @Bean
+        @Primary
+        FakeFcmGateway fakeFcmGateway() {
+            return new FakeFcmGateway();
+        }
+    }
+
+    private static final String INSERT_OUTBOX_SQL = """
+            INSERT INTO notification_outbox
+                (id, idempotency_key, channel, recipient_user_id, type, title, message, reference_id,
+                 status, attempts, next_attempt_at, created_at)
+            VALUES (?, ?, ?, ?, 'DOSE_REMINDER', 'Dose reminder', 'Time for your dose', NULL,
+                    'PENDING', 0, now(), now())
+            """;
+
+    @Autowired
+    private NotificationOutboxRelay relay;
+
+    @Autowired
+    private FakeFcmGateway fcmGateway;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationDispatchService notificationDispatchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM notification_outbox");
+        fcmGateway.clear();
+    }
+
+    @Test
+    void pushRowsClaimedTogetherGoOutAsOneFcmBatch() {
+        // Rows enqueued by separate notifyUser calls; the claim batch is what groups them
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(enqueue(NotificationChannel.PUSH, patient("token-" + UUID.randomUUID())));
+        }
+
+        int claimed = relay.relayBatch();
+
+        assertThat(claimed).isEqualTo(30);
+        assertThat(fcmGateway.getBatches()).hasSize(1);
+        assertThat(fcmGateway.getBatches().get(0)).hasSize(30);
+        assertThat(ids).allSatisfy(id -> assertThat(status(id)).isEqualTo("SENT"));
+    }
+
+    @Test
+    void pushBatchIsBoundedByTheClaimBatchSize() {
+        for (int i = 0; i < 250; i++) {
+            enqueue(NotificationChannel.PUSH, patient("token-" + UUID.randomUUID()));
+        }
+
+        assertThat(relay.relayBatch()).isEqualTo(200);
+        assertThat(relay.relayBatch()).isEqualTo(50);
+        assertThat(relay.relayBatch()).isZero();
+
+        assertThat(fcmGateway.getBatches()).extracting(List::size).containsExactly(200, 50);
+    }
+
+    @Test
+    void pushOutcomesMapBackToTheirOwnRows() {
+        User valid = patient("token-" + UUID.randomUUID());
+        User unregistered = patient("invalid-" + UUID.randomUUID());
+        User mismatched = patient("mismatch-" + UUID.randomUUID());
+        User unavailable = patient("unavailable-" + UUID.randomUUID());
+        User noToken = patient(null);
+
+        UUID validRow = enqueue(NotificationChannel.PUSH, valid);
+        UUID unregisteredRow = enqueue(NotificationChannel.PUSH, unregistered);
+        UUID mismatchedRow = enqueue(NotificationChannel.PUSH, mismatched);
+        UUID unavailableRow = enqueue(NotificationChannel.PUSH, unavailable);
+        UUID noTokenRow = enqueue(NotificationChannel.PUSH, noToken);
+
+        relay.relayBatch();
+
+        assertThat(fcmGateway.getBatches()).hasSize(1);
+        assertThat(fcmGateway.getBatches().get(0)).hasSize(4);
+        assertThat(status(validRow)).isEqualTo("SENT");
+        assertThat(status(unregisteredRow)).isEqualTo("SENT");
+        assertThat(status(mismatchedRow)).isEqualTo("SENT");
+        assertThat(status(unavailableRow)).isEqualTo("PENDING");
+        assertThat(status(noTokenRow)).isEqualTo("SENT");
+
+        assertThat(fcmToken(valid)).isEqualTo(valid.getFcmToken());
+        assertThat(fcmToken(unregistered)).isNull();
+        assertThat(fcmToken(mismatched)).isNull();
+        assertThat(fcmToken(unavailable)).isEqualTo(unavailable.getFcmToken());
+    }
+
+    @Test
+    void claimLeasesTheRowAndCountsTheAttempt() {
+        UUID row = enqueue(NotificationChannel.PUSH, patient("token-" + UUID.randomUUID()));
+
+        // Look at the row while its delivery is in progress
+        List<Object> seen = new ArrayList<>();
+        fcmGateway.onSend(() -> {
+            seen.add(status(row));
+            seen.add(attempts(row));
+            seen.add(secondsUntilDue(row) > 100);
+        });
+        relay.relayBatch();
+
+        assertThat(seen).containsExactly("IN_FLIGHT", 1, true);
+        assertThat(status(row)).isEqualTo("SENT");
+    }
+
+    @Test
+    void inFlightRowIsReclaimedOnlyAfterItsLeaseExpires() {
+        UUID row = enqueue(NotificationChannel.PUSH, patient("token-" + UUID.randomUUID()));
+        // A relay that claimed the row and died before delivering it
+        jdbcTemplate.update("""
+                UPDATE notification_outbox SET status = 'IN_FLIGHT', attempts = 1,
+                    next_attempt_at = now() + interval '120 seconds'
+                WHERE id = ?
+                """, row);
+
+        assertThat(relay.relayBatch()).isZero();
+
+        makeDue(row);
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(status(row)).isEqualTo("SENT");
+        assertThat(attempts(row)).isEqualTo(2);
+    }
+
+    @Test
+    void failedDeliveryBacksOffExponentiallyThenGivesUp() {
+        UUID row = enqueue(NotificationChannel.PUSH, patient("unavailable-" + UUID.randomUUID()));
+
+        relay.relayBatch();
+        assertThat(status(row)).isEqualTo("PENDING");
+        assertThat(attempts(row)).isEqualTo(1);
+        assertThat(lastError(row)).isEqualTo("FCM send failed");
+        assertThat(secondsUntilDue(row)).isBetween(3.0, 5.0);
+
+        // Not due yet, so there is nothing to claim
+        assertThat(relay.relayBatch()).isZero();
+
+        makeDue(row);
+        relay.relayBatch();
+        assertThat(status(row)).isEqualTo("PENDING");
+        assertThat(secondsUntilDue(row)).isBetween(8.0, 10.0);
+
+        makeDue(row);
+        relay.relayBatch();
+        assertThat(status(row)).isEqualTo("PENDING");
+        assertThat(secondsUntilDue(row)).isBetween(18.0, 20.0);
+
+        makeDue(row);
+        relay.relayBatch();
+        assertThat(attempts(row)).isEqualTo(4);
+        assertThat(status(row)).isEqualTo("FAILED");
+
+        makeDue(row);
+        assertThat(relay.relayBatch()).isZero();
+        assertThat(fcmGateway.getBatches()).hasSize(4);
+    }
+
+    @Test
+    void inAppRedeliveryDoesNotDuplicateTheNotification() {
+        User recipient = patient(null);
+        UUID row = enqueue(NotificationChannel.IN_APP, recipient);
+
+        relay.relayBatch();
+        // Deliver the same row again, as after an expired lease
+        jdbcTemplate.update("UPDATE notification_outbox SET status = 'PENDING' WHERE id = ?", row);
+        makeDue(row);
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        assertThat(status(row)).isEqualTo("SENT");
+        // notifications keys are varchar(36), so bind them as strings
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications WHERE recipient_id = ?",
+                Long.class, recipient.getId().toString()))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications WHERE id = ?",
+                Long.class, row.toString()))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackCallerEnqueuesNothing() {
+        User recipient = patient("token-" + UUID.randomUUID());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationDispatchService.notifyUser(recipient, "DOSE_REMINDER", "Dose reminder",
+                    "Time for your dose", null, true, true);
+            assertThat(outboxRows(recipient)).isEqualTo(3);
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxRows(recipient)).isZero();
+        assertThat(relay.relayBatch()).isZero();
+        assertThat(fcmGateway.getBatches()).isEmpty();
+    }
+
+    private User patient(String fcmToken) {
+        return userRepository.save(User.builder()
+                .email("patient-" + UUID.randomUUID() + "@medsyncpro.test")
+                .password("unused")
+                .role(Role.PATIENT)
+                .fcmToken(fcmToken)
+                .build());
+    }
+
+    private UUID enqueue(NotificationChannel channel, User recipient) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update(INSERT_OUTBOX_SQL, id, "test:" + id, channel.name(),
+                recipient != null ? recipient.getId() : null);
+        return id;
+    }
+
+    private String status(UUID outboxId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM notification_outbox WHERE id = ?", String.class, outboxId);
+    }
+
+    private int attempts(UUID outboxId) {
+        return jdbcTemplate.queryForObject("SELECT attempts FROM notification_outbox WHERE id = ?", Integer.class, outboxId);
+    }
+
+    private String lastError(UUID outboxId) {
+        return jdbcTemplate.queryForObject("SELECT last_error FROM notification_outbox WHERE id = ?", String.class, outboxId);
+    }
+
+    // Measured on the database clock, which is what the relay schedules against
+    private double secondsUntilDue(UUID outboxId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT EXTRACT(EPOCH FROM next_attempt_at - now()) FROM notification_outbox WHERE id = ?",
+                Double.class, outboxId);
+    }
+
+    private void makeDue(UUID outboxId) {
+        jdbcTemplate.update(
+                "UPDATE notification_outbox SET next_attempt_at = now() - interval '1 second' WHERE id = ?", outboxId);
+    }
+
+    private long outboxRows(User recipient) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification_outbox WHERE recipient_user_id = ?", Long.class, recipient.getId());
+    }
+
+    private String fcmToken(User user) {
+        return jdbcTemplate.queryForObject("SELECT fcm_token FROM users WHERE id = ?", String.class, user.getId());
+    }
+}